@@ -0,0 +1,87 @@
+package com.example.minio.benchmark;
+
+import com.example.minio.config.ChatProperties;
+import com.example.minio.entity.ChatMessage;
+import com.example.minio.service.ChatLogStore;
+import com.example.minio.service.ChatService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory ChatService hot paths at different conversation counts.
+ * Run with -t N to measure contention, e.g. -Djmh.args="ChatServiceBenchmark -t 8".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChatServiceBenchmark {
+
+    private static final int MESSAGES_PER_CONVERSATION = 20;
+    // Keeps addMessage from growing the heap for the whole run
+    private static final int MAX_TAIL = 1000;
+
+    @Param({"100", "10000", "100000"})
+    private int conversations;
+
+    private ChatService chatService;
+    private String[] conversationIds;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ChatProperties chatProperties = new ChatProperties();
+        chatProperties.getStore().setEnabled(false);
+        chatService = new ChatService(new ChatLogStore(chatProperties, new ObjectMapper()), chatProperties);
+
+        conversationIds = new String[conversations];
+        for (int i = 0; i < conversations; i++) {
+            String id = chatService.getConversationByParticipants(user(i), user(i + 1));
+            chatService.getOrCreateConversation(id).getMessageLog().setMaxTail(MAX_TAIL);
+            for (int m = 0; m < MESSAGES_PER_CONVERSATION; m++) {
+                chatService.addMessage(id, new ChatMessage(user(i), "message " + m, "CHAT"));
+            }
+            conversationIds[i] = id;
+        }
+    }
+
+    @Benchmark
+    public ChatMessage addMessage() {
+        int i = ThreadLocalRandom.current().nextInt(conversations);
+        ChatMessage message = new ChatMessage(user(i), "hello", "CHAT");
+        chatService.addMessage(conversationIds[i], message);
+        return message;
+    }
+
+    @Benchmark
+    public List<ChatMessage> getMessages() {
+        String id = conversationIds[ThreadLocalRandom.current().nextInt(conversations)];
+        return chatService.getMessages(id, null, null, 50);
+    }
+
+    @Benchmark
+    public String getConversationByParticipants() {
+        int i = ThreadLocalRandom.current().nextInt(conversations);
+        return chatService.getConversationByParticipants(user(i + 1), user(i));
+    }
+
+    private static String user(int i) {
+        return "user-" + i;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.minio.benchmark;
+
+import com.example.minio.InMemoryS3Server;
+import com.example.minio.MinioServiceApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Downloads from many clients at once while every S3 call takes latencyMillis, so
+ * request threads spend their time blocked on MinIO. Compares Tomcat's platform pool
+ * (200 threads) with virtual threads; more clients than the pool is where they differ.
+ * The virtual-thread rows need a Java 21 build: mvn -Pjava21 -Pbenchmarks verify.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(400)
+@Fork(1)
+public class ConcurrentDownloadBenchmark {
+
+    private static final String BUCKET = "documents";
+    private static final String FILE = "shared.bin";
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    @Param({"0", "50"})
+    private long latencyMillis;
+
+    private InMemoryS3Server s3;
+    private ConfigurableApplicationContext application;
+    private HttpClient httpClient;
+    private URI download;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        if (virtualThreads && Runtime.version().feature() < 21) {
+            // Spring ignores the property below Java 21, the row would measure platform threads
+            throw new IllegalStateException("Virtual threads need Java 21, build with -Pjava21 on a JDK 21");
+        }
+        s3 = InMemoryS3Server.start();
+        byte[] payload = new byte[65536];
+        ThreadLocalRandom.current().nextBytes(payload);
+        s3.put(BUCKET, FILE, payload, "application/octet-stream");
+        s3.latency(latencyMillis);
+
+        application = new SpringApplicationBuilder(MinioServiceApplication.class).run(
+                "--server.port=0",
+                "--management.server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--minio.endpoint=http://127.0.0.1:" + s3.port(),
+                "--minio.bucket-name=" + BUCKET,
+                "--chat.store.enabled=false",
+                "--logging.level.com.example=WARN",
+                "--logging.level.io.minio=WARN");
+        download = URI.create("http://127.0.0.1:" + application.getEnvironment().getProperty("local.server.port")
+                + "/api/files/download/" + FILE);
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @Benchmark
+    public long download() throws Exception {
+        HttpResponse<InputStream> response = httpClient.send(HttpRequest.newBuilder(download).GET().build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Download failed with " + response.statusCode());
+            }
+            return body.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (application != null) {
+            application.close();
+        }
+        if (s3 != null) {
+            s3.stop();
+        }
+    }
+}
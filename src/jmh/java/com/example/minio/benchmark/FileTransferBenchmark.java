@@ -0,0 +1,117 @@
+package com.example.minio.benchmark;
+
+import com.example.minio.InMemoryS3Server;
+import com.example.minio.MinioServiceApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upload and download throughput through FileController over HTTP, with the
+ * application running in-process against InMemoryS3Server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class FileTransferBenchmark {
+
+    private static final String BUCKET = "documents";
+
+    @Param({"65536", "1048576"})
+    private int size;
+
+    private InMemoryS3Server s3;
+    private ConfigurableApplicationContext application;
+    private HttpClient httpClient;
+    private ObjectMapper objectMapper;
+    private String baseUrl;
+    private byte[] payload;
+    private String storedFile;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        s3 = InMemoryS3Server.start();
+        application = new SpringApplicationBuilder(MinioServiceApplication.class).run(
+                "--server.port=0",
+                "--management.server.port=0",
+                "--minio.endpoint=http://127.0.0.1:" + s3.port(),
+                "--minio.bucket-name=" + BUCKET,
+                "--chat.store.enabled=false",
+                "--logging.level.com.example=WARN",
+                "--logging.level.io.minio=WARN");
+        baseUrl = "http://127.0.0.1:" + application.getEnvironment().getProperty("local.server.port") + "/api/files";
+
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        objectMapper = new ObjectMapper();
+        payload = new byte[size];
+        ThreadLocalRandom.current().nextBytes(payload);
+        storedFile = upload();
+    }
+
+    @Benchmark
+    public String uploadStream() throws Exception {
+        String fileName = upload();
+        // Keep the stand-in's heap flat across iterations
+        s3.remove(BUCKET, fileName);
+        return fileName;
+    }
+
+    @Benchmark
+    public long download() throws Exception {
+        HttpResponse<InputStream> response = httpClient.send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/download/" + storedFile)).GET().build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Download failed with " + response.statusCode());
+            }
+            return body.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        application.close();
+        s3.stop();
+    }
+
+    private String upload() throws Exception {
+        HttpResponse<byte[]> response = httpClient.send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/upload/stream?fileName=bench.bin"))
+                        .header("Content-Type", "application/octet-stream")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(payload))
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        JsonNode body = objectMapper.readTree(response.body());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Upload failed: " + body.path("message").asText());
+        }
+        return body.get("fileName").asText();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.minio.benchmark;
+
+import com.example.minio.config.ChatProperties;
+import com.example.minio.entity.ChatMessage;
+import com.example.minio.service.ChatLogStore;
+import com.example.minio.service.ChatService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the GET /api/chat/getCons response body,
+ * with and without building the summaries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GetConsSerializationBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int conversations;
+
+    private ChatService chatService;
+    private ObjectMapper objectMapper;
+    private Map<String, Object> response;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ChatProperties chatProperties = new ChatProperties();
+        chatProperties.getStore().setEnabled(false);
+        chatService = new ChatService(new ChatLogStore(chatProperties, new ObjectMapper()), chatProperties);
+
+        for (int i = 0; i < conversations; i++) {
+            String id = chatService.getConversationByParticipants("user-" + i, "user-" + (i + 1));
+            chatService.addMessage(id, new ChatMessage("user-" + i, "last message of " + id, "CHAT"));
+        }
+
+        // Same defaults as the ObjectMapper Spring MVC uses
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        response = getConsResponse();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] buildAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(getConsResponse());
+    }
+
+    private Map<String, Object> getConsResponse() {
+        Map<String, Object> body = new HashMap<>();
+        body.put("data", chatService.getSummaries(null));
+        return body;
+    }
+}
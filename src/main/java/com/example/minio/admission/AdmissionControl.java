@@ -0,0 +1,198 @@
+package com.example.minio.admission;
+
+import com.example.minio.config.MinioProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control for the file endpoints: a request rate per client (API key or
+ * address) and budgets of upload and download bytes in flight across all clients.
+ * Budget reservations are attached to the request and released by AdmissionFilter
+ * when the response is complete.
+ */
+@Component
+public class AdmissionControl implements MeterBinder {
+
+    private static final String RESERVATION = AdmissionControl.class.getName() + ".reservation";
+
+    private final MinioProperties.Admission config;
+    private final Set<String> apiKeys;
+    private final long unknownLengthCharge;
+    private final TokenBucketLimiter limiter;
+    private final ByteBudget uploads;
+    private final ByteBudget downloads;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong rejectedRate = new AtomicLong();
+    private final AtomicLong rejectedUpload = new AtomicLong();
+    private final AtomicLong rejectedDownload = new AtomicLong();
+
+    public AdmissionControl(MinioProperties minioProperties) {
+        this.config = minioProperties.getAdmission();
+        this.apiKeys = new HashSet<>(config.getApiKeys());
+        // A stream of unknown length holds up to a part in memory while it uploads
+        this.unknownLengthCharge = minioProperties.getUpload().getPartSize();
+        this.limiter = new TokenBucketLimiter(config.getRate(), config.getBurst(), config.getMaxClients());
+        this.uploads = new ByteBudget(config.getUploadBudget(), config.getMaxQueue());
+        this.downloads = new ByteBudget(config.getDownloadBudget(), config.getMaxQueue());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "admission-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        if (config.isEnabled()) {
+            scheduler.scheduleWithFixedDelay(limiter::evictIdle, 1, 1, TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    public long getStreamBytesPerSecond() {
+        return config.getStreamBytesPerSecond();
+    }
+
+    /**
+     * The API key when the client sends a configured one, otherwise its address. Unknown
+     * keys are ignored, a client could otherwise get a fresh bucket per request.
+     */
+    public String clientKey(HttpServletRequest request) {
+        String key = config.getClientHeader() != null ? request.getHeader(config.getClientHeader()) : null;
+        if (key != null && apiKeys.contains(key)) {
+            return "key:" + key;
+        }
+        if (config.isTrustForwardedFor()) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                return "addr:" + forwarded.split(",")[0].trim();
+            }
+        }
+        return "addr:" + request.getRemoteAddr();
+    }
+
+    /**
+     * Take a request token for the client; 0 when admitted, otherwise the
+     * milliseconds to wait before trying again
+     */
+    public long admitRequest(String client) {
+        long wait = limiter.tryAcquire(client);
+        if (wait == 0) {
+            return 0;
+        }
+        rejectedRate.incrementAndGet();
+        return Math.max(TimeUnit.NANOSECONDS.toMillis(wait), 1);
+    }
+
+    /**
+     * Reserve upload budget for the request body
+     */
+    public boolean admitUpload(HttpServletRequest request) throws InterruptedException {
+        long length = request.getContentLengthLong();
+        if (reserve(request, uploads, length >= 0 ? length : unknownLengthCharge)) {
+            return true;
+        }
+        rejectedUpload.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Reserve download budget for a response of the given length. Always true
+     * when admission control is off.
+     */
+    public boolean admitDownload(HttpServletRequest request, long bytes) throws InterruptedException {
+        if (!config.isEnabled() || reserve(request, downloads, bytes)) {
+            return true;
+        }
+        rejectedDownload.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Give back what the request reserved, safe to call more than once
+     */
+    public void release(HttpServletRequest request) {
+        Reservation reservation = (Reservation) request.getAttribute(RESERVATION);
+        if (reservation != null && reservation.released.compareAndSet(false, true)) {
+            reservation.budget.release(reservation.count);
+        }
+    }
+
+    /**
+     * Clients tracked, rejections and bytes in flight
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", config.isEnabled());
+        stats.put("clients", limiter.size());
+        stats.put("rejectedRate", rejectedRate.get());
+        stats.put("rejectedUpload", rejectedUpload.get());
+        stats.put("rejectedDownload", rejectedDownload.get());
+        stats.put("uploadBytesInFlight", uploads.inFlight());
+        stats.put("downloadBytesInFlight", downloads.inFlight());
+        stats.put("waiting", uploads.waiting() + downloads.waiting());
+        return stats;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("admission.clients", limiter, TokenBucketLimiter::size).register(registry);
+        FunctionCounter.builder("admission.rejected", rejectedRate, AtomicLong::get)
+                .tag("reason", "rate").register(registry);
+        FunctionCounter.builder("admission.rejected", rejectedUpload, AtomicLong::get)
+                .tag("reason", "upload_budget").register(registry);
+        FunctionCounter.builder("admission.rejected", rejectedDownload, AtomicLong::get)
+                .tag("reason", "download_budget").register(registry);
+        Gauge.builder("admission.inflight", uploads, ByteBudget::inFlight)
+                .tag("direction", "upload").baseUnit("bytes").register(registry);
+        Gauge.builder("admission.inflight", downloads, ByteBudget::inFlight)
+                .tag("direction", "download").baseUnit("bytes").register(registry);
+    }
+
+    private boolean reserve(HttpServletRequest request, ByteBudget budget, long bytes) throws InterruptedException {
+        int count = budget.tryAcquire(bytes, config.getQueueTimeout().toMillis());
+        if (count == 0) {
+            return false;
+        }
+        // A request reserves once; an earlier reservation is given back first
+        release(request);
+        request.setAttribute(RESERVATION, new Reservation(budget, count));
+        return true;
+    }
+
+    private static class Reservation {
+        private final ByteBudget budget;
+        private final int count;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Reservation(ByteBudget budget, int count) {
+            this.budget = budget;
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.minio.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Admission in front of FileController: rejects clients over their request rate and
+ * uploads over the upload budget with 429 and Retry-After before a handler runs, and
+ * throttles the request and response streams when a per-stream bandwidth is set.
+ * Budget reservations are released once the response is complete, also for responses
+ * streamed asynchronously.
+ */
+@Component
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private static final String PREFIX = "/api/files/";
+    private static final Set<String> UPLOAD_PATHS = Set.of(
+            "/api/files/upload", "/api/files/upload/batch", "/api/files/upload/stream");
+    private static final int THROTTLE_SLICE = 16 * 1024;
+
+    private final AdmissionControl admissionControl;
+    private final ObjectMapper objectMapper;
+
+    public AdmissionFilter(AdmissionControl admissionControl, ObjectMapper objectMapper) {
+        this.admissionControl = admissionControl;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        // Health probes are never rate limited
+        return !admissionControl.isEnabled() || !path.startsWith(PREFIX) || path.equals(PREFIX + "health");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long wait = admissionControl.admitRequest(admissionControl.clientKey(request));
+        if (wait > 0) {
+            reject(response, wait, "Rate limit exceeded");
+            return;
+        }
+
+        try {
+            if (isUpload(request) && !admissionControl.admitUpload(request)) {
+                reject(response, 1000, "Too many uploads in progress");
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reject(response, 1000, "Too many uploads in progress");
+            return;
+        }
+
+        HttpServletRequest admittedRequest = request;
+        HttpServletResponse admittedResponse = response;
+        long bytesPerSecond = admissionControl.getStreamBytesPerSecond();
+        if (bytesPerSecond > 0) {
+            admittedRequest = new ThrottledRequest(request, bytesPerSecond);
+            admittedResponse = new ThrottledResponse(response, bytesPerSecond);
+        }
+
+        try {
+            chain.doFilter(admittedRequest, admittedResponse);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseListener(request));
+            } else {
+                admissionControl.release(request);
+            }
+        }
+    }
+
+    private boolean isUpload(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if ("PATCH".equals(request.getMethod())) {
+            return path.startsWith(PREFIX + "resumable/");
+        }
+        return "POST".equals(request.getMethod()) && UPLOAD_PATHS.contains(path);
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterMillis, String message) throws IOException {
+        Map<String, Object> body = new HashMap<>();
+        body.put("success", false);
+        body.put("message", message);
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf((retryAfterMillis + 999) / 1000));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    private class ReleaseListener implements AsyncListener {
+        private final HttpServletRequest request;
+
+        ReleaseListener(HttpServletRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            admissionControl.release(request);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            admissionControl.release(request);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            admissionControl.release(request);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    private static class ThrottledRequest extends HttpServletRequestWrapper {
+        private final long bytesPerSecond;
+        private ServletInputStream inputStream;
+
+        ThrottledRequest(HttpServletRequest request, long bytesPerSecond) {
+            super(request);
+            this.bytesPerSecond = bytesPerSecond;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                inputStream = new ThrottledInputStream(super.getInputStream(), new BandwidthThrottle(bytesPerSecond));
+            }
+            return inputStream;
+        }
+    }
+
+    private static class ThrottledResponse extends HttpServletResponseWrapper {
+        private final long bytesPerSecond;
+        private ServletOutputStream outputStream;
+
+        ThrottledResponse(HttpServletResponse response, long bytesPerSecond) {
+            super(response);
+            this.bytesPerSecond = bytesPerSecond;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new ThrottledOutputStream(super.getOutputStream(),
+                        new BandwidthThrottle(bytesPerSecond));
+            }
+            return outputStream;
+        }
+    }
+
+    private static class ThrottledInputStream extends ServletInputStream {
+        private final ServletInputStream in;
+        private final BandwidthThrottle throttle;
+
+        ThrottledInputStream(ServletInputStream in, BandwidthThrottle throttle) {
+            this.in = in;
+            this.throttle = throttle;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = in.read();
+            if (value >= 0) {
+                throttle.pace(1);
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = in.read(buffer, offset, Math.min(length, THROTTLE_SLICE));
+            if (read > 0) {
+                throttle.pace(read);
+            }
+            return read;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return in.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return in.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            in.setReadListener(readListener);
+        }
+    }
+
+    private static class ThrottledOutputStream extends ServletOutputStream {
+        private final ServletOutputStream out;
+        private final BandwidthThrottle throttle;
+
+        ThrottledOutputStream(ServletOutputStream out, BandwidthThrottle throttle) {
+            this.out = out;
+            this.throttle = throttle;
+        }
+
+        @Override
+        public void write(int value) throws IOException {
+            throttle.pace(1);
+            out.write(value);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            // Sliced so a large write is paced smoothly rather than sent in one burst
+            while (length > 0) {
+                int slice = Math.min(length, THROTTLE_SLICE);
+                throttle.pace(slice);
+                out.write(buffer, offset, slice);
+                offset += slice;
+                length -= slice;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return out.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            out.setWriteListener(writeListener);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.minio.admission;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paces one stream to a number of bytes per second by sleeping when it gets ahead.
+ * Time spent idle is credited for at most a second, so a stalled stream does not
+ * get to burst afterwards.
+ */
+class BandwidthThrottle {
+
+    private static final long MAX_CREDIT = 1_000_000_000L;
+
+    private final long bytesPerSecond;
+    private long start = System.nanoTime();
+    private long transferred;
+
+    BandwidthThrottle(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    void pace(int bytes) throws InterruptedIOException {
+        transferred += bytes;
+        long now = System.nanoTime();
+        long due = start + (long) ((double) transferred * 1_000_000_000L / bytesPerSecond);
+        if (now - due > MAX_CREDIT) {
+            start = now - MAX_CREDIT;
+            transferred = bytes;
+            return;
+        }
+
+        long ahead = due - now;
+        if (ahead > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(ahead);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while throttling");
+            }
+        }
+    }
+}
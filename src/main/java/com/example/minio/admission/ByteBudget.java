@@ -0,0 +1,54 @@
+package com.example.minio.admission;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bytes that may be in flight at once, counted in KiB. Waiters are served first come
+ * first served, at most maxQueue of them wait, and a wait is bounded by a timeout.
+ * A request larger than the whole budget takes all of it, so it runs alone.
+ */
+public class ByteBudget {
+
+    private static final int UNIT = 1024;
+
+    private final Semaphore permits;
+    private final int capacity;
+    private final int maxQueue;
+
+    public ByteBudget(long bytes, int maxQueue) {
+        this.capacity = (int) Math.min(Math.max(bytes / UNIT, 1), Integer.MAX_VALUE);
+        this.permits = new Semaphore(capacity, true);
+        this.maxQueue = Math.max(maxQueue, 0);
+    }
+
+    /**
+     * Reserve room for a transfer, waiting at most timeoutMillis. Returns the permits
+     * to release afterwards, 0 when the budget stayed exhausted.
+     */
+    public int tryAcquire(long bytes, long timeoutMillis) throws InterruptedException {
+        int count = (int) Math.min(Math.max((bytes + UNIT - 1) / UNIT, 1), capacity);
+        if (permits.getQueueLength() >= maxQueue && permits.availablePermits() < count) {
+            return 0;
+        }
+        // The timed variant keeps the queue order even with a zero timeout
+        return permits.tryAcquire(count, timeoutMillis, TimeUnit.MILLISECONDS) ? count : 0;
+    }
+
+    public void release(int count) {
+        if (count > 0) {
+            permits.release(count);
+        }
+    }
+
+    /**
+     * Bytes currently reserved
+     */
+    public long inFlight() {
+        return (long) (capacity - permits.availablePermits()) * UNIT;
+    }
+
+    public int waiting() {
+        return permits.getQueueLength();
+    }
+}
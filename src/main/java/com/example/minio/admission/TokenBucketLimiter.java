@@ -0,0 +1,80 @@
+package com.example.minio.admission;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket per client, kept as the time at which its bucket will be full again
+ * (GCRA), so taking a token is one compare-and-set and no lock is held. A bucket that
+ * is full again holds no state worth keeping and is evicted; once maxClients buckets
+ * are in use, further clients share one overflow bucket.
+ */
+public class TokenBucketLimiter {
+
+    private static final long SWEEP_INTERVAL = 1_000_000_000L;
+
+    private final long interval; // nanoseconds per token
+    private final long capacity; // nanoseconds of burst
+    private final int maxClients;
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong overflow = new AtomicLong(System.nanoTime());
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+    public TokenBucketLimiter(double ratePerSecond, int burst, int maxClients) {
+        this.interval = Math.max((long) (1_000_000_000L / ratePerSecond), 1);
+        this.capacity = interval * Math.max(burst, 1);
+        this.maxClients = Math.max(maxClients, 1);
+    }
+
+    /**
+     * Take a token for the client; 0 when it was available, otherwise the
+     * nanoseconds until the next one will be
+     */
+    public long tryAcquire(String client) {
+        long now = System.nanoTime();
+        AtomicLong bucket = bucket(client, now);
+        while (true) {
+            long full = bucket.get();
+            // nanoTime values are only compared by difference
+            long next = (full - now > 0 ? full : now) + interval;
+            if (next - now > capacity) {
+                return next - now - capacity;
+            }
+            if (bucket.compareAndSet(full, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * Drop the buckets that are full again, returning to them costs nothing
+     */
+    public void evictIdle() {
+        long now = System.nanoTime();
+        lastSweep.set(now);
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+
+    private AtomicLong bucket(String client, long now) {
+        AtomicLong bucket = buckets.get(client);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxClients) {
+            long last = lastSweep.get();
+            if (now - last > SWEEP_INTERVAL && lastSweep.compareAndSet(last, now)) {
+                evictIdle();
+            }
+            if (buckets.size() >= maxClients) {
+                return overflow;
+            }
+        }
+        // A new bucket is full
+        return buckets.computeIfAbsent(client, key -> new AtomicLong(now));
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.minio.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * Fan-out bus between chat nodes. Every published event reaches every
+ * subscriber, the publishing node included. Events from one node arrive at
+ * another in the order they were published. Declare another implementation
+ * as a @Primary bean to plug in a different transport.
+ */
+public interface ChatBus {
+
+    void publish(ClusterEvent event);
+
+    void subscribe(Consumer<ClusterEvent> listener);
+
+    /**
+     * Whether events reach other processes; cluster mode refuses to start on a bus that does not
+     */
+    default boolean spansNodes() {
+        return false;
+    }
+}
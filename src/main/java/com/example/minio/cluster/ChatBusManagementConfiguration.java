@@ -0,0 +1,23 @@
+package com.example.minio.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.actuate.autoconfigure.web.ManagementContextConfiguration;
+import org.springframework.boot.actuate.autoconfigure.web.ManagementContextType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Puts the chat bus endpoint on the management server, which listens on its own port
+ * (management.server.port) that is only reachable from the internal network.
+ * Loaded through META-INF/spring and kept out of the application's component scan.
+ */
+@ManagementContextConfiguration(value = ManagementContextType.CHILD, proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "chat.cluster", name = "enabled", havingValue = "true")
+public class ChatBusManagementConfiguration {
+
+    @Bean
+    public ServletRegistrationBean<ChatBusServlet> chatBusServlet(HttpChatBus chatBus, ObjectMapper objectMapper) {
+        return new ServletRegistrationBean<>(new ChatBusServlet(chatBus, objectMapper), HttpChatBus.PATH);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.minio.cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Receiving end of the HTTP chat bus, called by the other nodes of the cluster.
+ * Registered on the management server only, never on the public port.
+ */
+public class ChatBusServlet extends HttpServlet {
+
+    private static final TypeReference<List<ClusterEvent>> EVENTS = new TypeReference<>() {
+    };
+
+    private final transient HttpChatBus chatBus;
+    private final transient ObjectMapper objectMapper;
+
+    public ChatBusServlet(HttpChatBus chatBus, ObjectMapper objectMapper) {
+        this.chatBus = chatBus;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!chatBus.authorized(request.getHeader(HttpChatBus.SECRET_HEADER))) {
+            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        List<ClusterEvent> events;
+        try {
+            events = objectMapper.readValue(request.getInputStream(), EVENTS);
+        } catch (JsonProcessingException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        chatBus.receive(events);
+        response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+    }
+}
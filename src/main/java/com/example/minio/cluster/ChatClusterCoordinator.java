@@ -0,0 +1,153 @@
+package com.example.minio.cluster;
+
+import com.example.minio.config.ChatProperties;
+import com.example.minio.entity.ChatMessage;
+import com.example.minio.service.ChatMetrics;
+import com.example.minio.service.ChatService;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Decides which node owns a conversation and moves chat events over the bus.
+ * The owner assigns sequences and writes the durable log; other nodes keep an
+ * in-memory replica of the tail and deliver to their own STOMP subscribers.
+ * With clustering disabled this node owns every conversation.
+ */
+@Component
+public class ChatClusterCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatClusterCoordinator.class);
+
+    private final ChatBus chatBus;
+    private final ChatService chatService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ChatMetrics chatMetrics;
+    private final ChatProperties.Cluster config;
+    private final ConsistentHashRing ring;
+    private volatile Consumer<ChatMessage> appendHandler;
+
+    public ChatClusterCoordinator(ChatBus chatBus, ChatService chatService,
+            SimpMessagingTemplate messagingTemplate, ChatMetrics chatMetrics, ChatProperties chatProperties) {
+        this.chatBus = chatBus;
+        this.chatService = chatService;
+        this.messagingTemplate = messagingTemplate;
+        this.chatMetrics = chatMetrics;
+        this.config = chatProperties.getCluster();
+
+        if (config.isEnabled() && !config.getNodes().contains(config.getNodeId())) {
+            throw new IllegalStateException("chat.cluster.nodes must contain node-id " + config.getNodeId());
+        }
+        // On a loopback bus forwarded messages would never reach their owner
+        if (config.isEnabled() && config.getNodes().size() > 1 && !chatBus.spansNodes()) {
+            throw new IllegalStateException("chat.cluster is enabled but " + chatBus.getClass().getSimpleName()
+                    + " does not reach other nodes");
+        }
+        this.ring = new ConsistentHashRing(config.getNodes(), config.getVirtualNodes());
+    }
+
+    @PostConstruct
+    public void start() {
+        chatBus.subscribe(this::onEvent);
+    }
+
+    /**
+     * Where messages forwarded by other nodes are accepted on the owner
+     */
+    public void setAppendHandler(Consumer<ChatMessage> appendHandler) {
+        this.appendHandler = appendHandler;
+    }
+
+    public String ownerOf(String conversationId) {
+        if (!config.isEnabled() || conversationId == null) {
+            return config.getNodeId();
+        }
+        return ring.nodeFor(conversationId);
+    }
+
+    public boolean isOwner(String conversationId) {
+        return config.getNodeId().equals(ownerOf(conversationId));
+    }
+
+    /**
+     * Hand messages of a conversation this node does not own to its owner
+     */
+    public void forward(List<ChatMessage> messages) {
+        for (ChatMessage message : messages) {
+            chatBus.publish(new ClusterEvent(ClusterEvent.Type.APPEND, config.getNodeId(),
+                    ownerOf(message.getConversationId()), message));
+        }
+    }
+
+    /**
+     * Announce messages stored by this node, in order
+     */
+    public void committed(List<ChatMessage> messages) {
+        for (ChatMessage message : messages) {
+            chatBus.publish(new ClusterEvent(ClusterEvent.Type.COMMITTED, config.getNodeId(), null, message));
+        }
+    }
+
+    /**
+     * Add a participant that joined through this node and announce it to every node
+     */
+    public void join(ChatMessage message) {
+        applyJoin(message);
+        chatBus.publish(new ClusterEvent(ClusterEvent.Type.JOIN, config.getNodeId(), null, message));
+    }
+
+    /**
+     * Only the owner writes the join to its durable log, other nodes keep it in memory
+     */
+    private void applyJoin(ChatMessage message) {
+        if (isOwner(message.getConversationId())) {
+            chatService.addParticipant(message.getConversationId(), message.getSender());
+        } else {
+            chatService.applyJoin(message.getConversationId(), message.getSender());
+        }
+    }
+
+    private void onEvent(ClusterEvent event) {
+        ChatMessage message = event.getMessage();
+        boolean fromSelf = config.getNodeId().equals(event.getOriginNode());
+
+        switch (event.getType()) {
+            case APPEND:
+                Consumer<ChatMessage> handler = appendHandler;
+                if (config.getNodeId().equals(event.getTargetNode()) && handler != null) {
+                    handler.accept(message);
+                }
+                break;
+            case COMMITTED:
+                if (!fromSelf) {
+                    chatService.applyReplica(message);
+                }
+                deliver(event, fromSelf);
+                break;
+            case JOIN:
+                if (!fromSelf) {
+                    applyJoin(message);
+                }
+                deliver(event, fromSelf);
+                break;
+            default:
+                logger.warn("Unknown cluster event {}", event.getType());
+        }
+    }
+
+    private void deliver(ClusterEvent event, boolean fromSelf) {
+        // An external broker relay already reaches every node's clients, so only the origin sends
+        if (config.getBrokerRelay().isEnabled() && !fromSelf) {
+            return;
+        }
+        chatMetrics.broadcast().record(() -> messagingTemplate.convertAndSend(
+                "/topic/conversation." + event.getMessage().getConversationId(),
+                event.getMessage()));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.minio.cluster;
+
+import com.example.minio.entity.ChatMessage;
+
+public class ClusterEvent {
+
+    public enum Type {
+        APPEND,    // a non-owner hands a message to the owner of its conversation
+        COMMITTED, // the owner stored a message, every node delivers it
+        JOIN       // a user joined a conversation
+    }
+
+    private Type type;
+    private String originNode;
+    private String targetNode; // only for APPEND
+    private ChatMessage message;
+
+    public ClusterEvent() {
+    }
+
+    public ClusterEvent(Type type, String originNode, String targetNode, ChatMessage message) {
+        this.type = type;
+        this.originNode = originNode;
+        this.targetNode = targetNode;
+        this.message = message;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public String getOriginNode() {
+        return originNode;
+    }
+
+    public void setOriginNode(String originNode) {
+        this.originNode = originNode;
+    }
+
+    public String getTargetNode() {
+        return targetNode;
+    }
+
+    public void setTargetNode(String targetNode) {
+        this.targetNode = targetNode;
+    }
+
+    public ChatMessage getMessage() {
+        return message;
+    }
+
+    public void setMessage(ChatMessage message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.minio.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maps keys to nodes; adding or removing a node only moves the keys next to it
+ */
+public class ConsistentHashRing {
+
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+
+    public ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+        for (String node : nodes) {
+            for (int i = 0; i < Math.max(virtualNodes, 1); i++) {
+                ring.put(hash(node + "#" + i), node);
+            }
+        }
+    }
+
+    public String nodeFor(String key) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    private static long hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+            long hash = 0;
+            for (int i = 0; i < 8; i++) {
+                hash = (hash << 8) | (digest[i] & 0xff);
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    }
+}
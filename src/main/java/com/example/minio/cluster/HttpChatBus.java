@@ -0,0 +1,237 @@
+package com.example.minio.cluster;
+
+import com.example.minio.config.ChatProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Bus between nodes over plain HTTP. Events are delivered locally right away and
+ * queued per peer; one sender thread per peer posts them in batches to the peer's
+ * {@link #PATH}, so a peer sees this node's events in publish order. A batch for an
+ * unreachable peer is retried with backoff up to the retry timeout, then dropped.
+ * Peers are reached on their management port, which must differ from the public
+ * one, and must send the shared secret; cluster mode refuses to start without both.
+ */
+@Component
+@ConditionalOnProperty(prefix = "chat.cluster", name = "enabled", havingValue = "true")
+public class HttpChatBus implements ChatBus, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpChatBus.class);
+
+    public static final String PATH = "/internal/chat/bus";
+    public static final String SECRET_HEADER = "X-Chat-Cluster-Secret";
+    private static final int MAX_BATCH = 256;
+
+    private final ChatProperties.Cluster config;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final Map<String, Peer> peers = new LinkedHashMap<>();
+    private final List<Consumer<ClusterEvent>> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean running = true;
+
+    public HttpChatBus(ChatProperties chatProperties, ObjectMapper objectMapper, Environment environment) {
+        this.config = chatProperties.getCluster();
+        this.objectMapper = objectMapper;
+        if (config.getSecret() == null || config.getSecret().isBlank()) {
+            throw new IllegalStateException("chat.cluster.secret must be set when chat.cluster.enabled is true");
+        }
+        if (ManagementPortType.get(environment) != ManagementPortType.DIFFERENT) {
+            throw new IllegalStateException("chat.cluster needs management.server.port apart from server.port, "
+                    + "the bus is served on the management port");
+        }
+        this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+        for (String node : config.getNodes()) {
+            if (node.equals(config.getNodeId())) {
+                continue;
+            }
+            String url = config.getPeers().get(node);
+            if (url == null || url.isBlank()) {
+                throw new IllegalStateException("chat.cluster.peers has no URL for node " + node);
+            }
+            peers.put(node, new Peer(node, URI.create(url.replaceAll("/+$", "") + PATH)));
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        for (Peer peer : peers.values()) {
+            peer.thread.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Peer peer : peers.values()) {
+            peer.thread.interrupt();
+            peer.thread.join(5000);
+        }
+    }
+
+    @Override
+    public void publish(ClusterEvent event) {
+        String target = event.getTargetNode();
+        if (target == null || target.equals(config.getNodeId())) {
+            InProcessChatBus.deliver(listeners, event);
+        }
+        for (Peer peer : peers.values()) {
+            if (target != null && !target.equals(peer.node)) {
+                continue;
+            }
+            if (!peer.queue.offer(event)) {
+                dropped.incrementAndGet();
+                logger.warn("Event queue for chat node {} is full, dropped {} event", peer.node, event.getType());
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<ClusterEvent> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public boolean spansNodes() {
+        return true;
+    }
+
+    /**
+     * Events posted by another node, in its publish order
+     */
+    public void receive(List<ClusterEvent> events) {
+        for (ClusterEvent event : events) {
+            InProcessChatBus.deliver(listeners, event);
+        }
+    }
+
+    /**
+     * Constant-time check of the shared secret sent by a peer
+     */
+    public boolean authorized(String secret) {
+        if (secret == null || secret.isEmpty()) {
+            return false;
+        }
+        return MessageDigest.isEqual(
+                config.getSecret().getBytes(StandardCharsets.UTF_8),
+                secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("chat.bus.dropped", dropped, AtomicLong::get)
+                .description("Events never delivered to a peer node").register(registry);
+        for (Peer peer : peers.values()) {
+            Gauge.builder("chat.bus.pending", peer.queue, BlockingQueue::size)
+                    .tag("node", peer.node).register(registry);
+        }
+    }
+
+    private class Peer implements Runnable {
+        private final String node;
+        private final URI uri;
+        private final BlockingQueue<ClusterEvent> queue = new ArrayBlockingQueue<>(Math.max(config.getQueueCapacity(), 1));
+        private final Thread thread;
+
+        Peer(String node, URI uri) {
+            this.node = node;
+            this.uri = uri;
+            this.thread = new Thread(this, "chat-bus-" + node);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            List<ClusterEvent> batch = new ArrayList<>(MAX_BATCH);
+            while (running) {
+                try {
+                    ClusterEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                    send(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+
+        private void send(List<ClusterEvent> batch) throws InterruptedException {
+            byte[] body;
+            try {
+                body = objectMapper.writeValueAsBytes(batch);
+            } catch (IOException e) {
+                logger.error("Error encoding {} events for chat node {}: {}", batch.size(), node, e.getMessage());
+                dropped.addAndGet(batch.size());
+                return;
+            }
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(Duration.ofSeconds(10))
+                    .header("Content-Type", "application/json")
+                    .header(SECRET_HEADER, config.getSecret())
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+
+            // Retried as a whole, later events wait behind it to keep the order
+            long deadline = System.nanoTime() + config.getRetryTimeout().toNanos();
+            long backoff = 100;
+            while (true) {
+                String failure;
+                try {
+                    HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() / 100 == 2) {
+                        return;
+                    }
+                    failure = "status " + response.statusCode();
+                } catch (IOException e) {
+                    failure = e.getMessage();
+                }
+                if (!running || System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff) - deadline > 0) {
+                    logger.error("Dropped {} events for chat node {}: {}", batch.size(), node, failure);
+                    dropped.addAndGet(batch.size());
+                    return;
+                }
+                logger.warn("Error sending events to chat node {}, retrying: {}", node, failure);
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, 5000);
+            }
+        }
+    }
+}
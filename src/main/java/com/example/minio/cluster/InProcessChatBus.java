@@ -0,0 +1,47 @@
+package com.example.minio.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Loopback bus for a single node: delivers on the publishing thread to the
+ * subscribers in this JVM. Used when clustering is disabled.
+ */
+@Component
+@ConditionalOnProperty(prefix = "chat.cluster", name = "enabled", havingValue = "false", matchIfMissing = true)
+public class InProcessChatBus implements ChatBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(InProcessChatBus.class);
+
+    private final List<Consumer<ClusterEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(ClusterEvent event) {
+        deliver(listeners, event);
+    }
+
+    @Override
+    public void subscribe(Consumer<ClusterEvent> listener) {
+        listeners.add(listener);
+    }
+
+    public void unsubscribe(Consumer<ClusterEvent> listener) {
+        listeners.remove(listener);
+    }
+
+    static void deliver(List<Consumer<ClusterEvent>> listeners, ClusterEvent event) {
+        for (Consumer<ClusterEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (Exception e) {
+                logger.error("Error delivering {} event: {}", event.getType(), e.getMessage());
+            }
+        }
+    }
+}
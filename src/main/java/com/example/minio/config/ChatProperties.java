@@ -0,0 +1,297 @@
+package com.example.minio.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "chat")
+public class ChatProperties {
+
+    private Pipeline pipeline = new Pipeline();
+    private Store store = new Store();
+    private Cluster cluster = new Cluster();
+
+    public Pipeline getPipeline() {
+        return pipeline;
+    }
+
+    public void setPipeline(Pipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    public Store getStore() {
+        return store;
+    }
+
+    public void setStore(Store store) {
+        this.store = store;
+    }
+
+    public Cluster getCluster() {
+        return cluster;
+    }
+
+    public void setCluster(Cluster cluster) {
+        this.cluster = cluster;
+    }
+
+    public static class Pipeline {
+
+        // Conversations are hashed onto lanes, each lane keeps its messages in order
+        private int lanes = 4;
+        private int queueCapacity = 10000;
+        private int batchSize = 64;
+        // How long accept waits for room in a full lane, zero rejects right away
+        private Duration acceptTimeout = Duration.ZERO;
+
+        public int getLanes() {
+            return lanes;
+        }
+
+        public void setLanes(int lanes) {
+            this.lanes = lanes;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getAcceptTimeout() {
+            return acceptTimeout;
+        }
+
+        public void setAcceptTimeout(Duration acceptTimeout) {
+            this.acceptTimeout = acceptTimeout;
+        }
+    }
+
+    public static class Store {
+
+        private boolean enabled = true;
+        private String directory = "data/chat";
+        private int segmentSize = 64 * 1024 * 1024;
+        // One index entry per this many messages of a conversation
+        private int indexInterval = 32;
+        // fsync once per written batch
+        private boolean fsync = true;
+        // Newest messages per conversation kept on the heap
+        private int hotTail = 200;
+        // Closed segments older than this are compacted to their joins and the newest
+        // message of each conversation; zero keeps everything
+        private Duration retention = Duration.ZERO;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public int getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(int segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+
+        public int getIndexInterval() {
+            return indexInterval;
+        }
+
+        public void setIndexInterval(int indexInterval) {
+            this.indexInterval = indexInterval;
+        }
+
+        public boolean isFsync() {
+            return fsync;
+        }
+
+        public void setFsync(boolean fsync) {
+            this.fsync = fsync;
+        }
+
+        public int getHotTail() {
+            return hotTail;
+        }
+
+        public void setHotTail(int hotTail) {
+            this.hotTail = hotTail;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+    }
+
+    public static class Cluster {
+
+        private boolean enabled = false;
+        private String nodeId = "node-1";
+        // Every node of the cluster, conversations are spread over them by consistent hashing
+        private List<String> nodes = new ArrayList<>();
+        private int virtualNodes = 64;
+        // Management URL of every other node (node id -> http://host:management-port), the bus posts events there
+        private Map<String, String> peers = new LinkedHashMap<>();
+        // Shared by all nodes and required in cluster mode, events posted without it are refused
+        private String secret = "";
+        // Events waiting to be sent to one peer; further events to it are dropped
+        private int queueCapacity = 10000;
+        // How long a batch for an unreachable peer is retried before it is dropped
+        private Duration retryTimeout = Duration.ofSeconds(30);
+        private BrokerRelay brokerRelay = new BrokerRelay();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        public void setNodeId(String nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        public List<String> getNodes() {
+            return nodes;
+        }
+
+        public void setNodes(List<String> nodes) {
+            this.nodes = nodes;
+        }
+
+        public int getVirtualNodes() {
+            return virtualNodes;
+        }
+
+        public void setVirtualNodes(int virtualNodes) {
+            this.virtualNodes = virtualNodes;
+        }
+
+        public Map<String, String> getPeers() {
+            return peers;
+        }
+
+        public void setPeers(Map<String, String> peers) {
+            this.peers = peers;
+        }
+
+        public String getSecret() {
+            return secret;
+        }
+
+        public void setSecret(String secret) {
+            this.secret = secret;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Duration getRetryTimeout() {
+            return retryTimeout;
+        }
+
+        public void setRetryTimeout(Duration retryTimeout) {
+            this.retryTimeout = retryTimeout;
+        }
+
+        public BrokerRelay getBrokerRelay() {
+            return brokerRelay;
+        }
+
+        public void setBrokerRelay(BrokerRelay brokerRelay) {
+            this.brokerRelay = brokerRelay;
+        }
+    }
+
+    public static class BrokerRelay {
+
+        // Use an external STOMP broker (RabbitMQ, ActiveMQ) instead of the simple broker
+        private boolean enabled = false;
+        private String host = "localhost";
+        private int port = 61613;
+        private String login = "guest";
+        private String passcode = "guest";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        public void setHost(String host) {
+            this.host = host;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public void setPort(int port) {
+            this.port = port;
+        }
+
+        public String getLogin() {
+            return login;
+        }
+
+        public void setLogin(String login) {
+            this.login = login;
+        }
+
+        public String getPasscode() {
+            return passcode;
+        }
+
+        public void setPasscode(String passcode) {
+            this.passcode = passcode;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.minio.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.ForwardingSource;
+import okio.Okio;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request latency of the MinIO HTTP client (time until response headers) and
+ * utilization of its connection pool and dispatcher.
+ *
+ * Also published to Micrometer: a minio.requests timer tagged with the S3 operation,
+ * bucket and outcome, minio.upload.bytes / minio.download.bytes counters of the
+ * bytes actually sent and read, and gauges for the pool and dispatcher.
+ */
+public class MinioClientMetrics implements Interceptor {
+
+    private final ConnectionPool connectionPool;
+    private final Dispatcher dispatcher;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final Meter.MeterProvider<Timer> timers;
+    private final Meter.MeterProvider<Counter> uploadBytes;
+    private final Meter.MeterProvider<Counter> downloadBytes;
+
+    public MinioClientMetrics(ConnectionPool connectionPool, Dispatcher dispatcher, MeterRegistry registry) {
+        this.connectionPool = connectionPool;
+        this.dispatcher = dispatcher;
+
+        this.timers = Timer.builder("minio.requests")
+                .description("MinIO requests, until response headers")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .withRegistry(registry);
+        this.uploadBytes = Counter.builder("minio.upload.bytes").baseUnit("bytes").withRegistry(registry);
+        this.downloadBytes = Counter.builder("minio.download.bytes").baseUnit("bytes").withRegistry(registry);
+
+        Gauge.builder("minio.client.connections", connectionPool, ConnectionPool::connectionCount)
+                .tag("state", "total").register(registry);
+        Gauge.builder("minio.client.connections", connectionPool, ConnectionPool::idleConnectionCount)
+                .tag("state", "idle").register(registry);
+        Gauge.builder("minio.client.calls", dispatcher, Dispatcher::runningCallsCount)
+                .tag("state", "running").register(registry);
+        Gauge.builder("minio.client.calls", dispatcher, Dispatcher::queuedCallsCount)
+                .tag("state", "queued").register(registry);
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String bucket = bucket(request.url());
+        String outcome = "IO_ERROR";
+        long start = System.nanoTime();
+        try {
+            Response response = chain.proceed(request);
+            if (response.code() >= 500) {
+                failures.increment();
+            }
+            outcome = outcome(response.code());
+
+            RequestBody requestBody = request.body();
+            if (request.method().equals("PUT") && requestBody != null && requestBody.contentLength() > 0
+                    && response.isSuccessful()) {
+                uploadBytes.withTags("bucket", bucket).increment(requestBody.contentLength());
+            }
+            if (request.method().equals("GET") && response.body() != null) {
+                return response.newBuilder().body(counting(response.body(), bucket)).build();
+            }
+            return response;
+        } catch (IOException e) {
+            failures.increment();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            requests.increment();
+            totalNanos.add(elapsed);
+            maxNanos.accumulateAndGet(elapsed, Math::max);
+            timers.withTags(Tags.of("operation", operation(request), "bucket", bucket, "outcome", outcome))
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Response body that adds what the caller actually reads to minio.download.bytes
+     */
+    private ResponseBody counting(ResponseBody body, String bucket) {
+        Counter counter = downloadBytes.withTags("bucket", bucket);
+        ForwardingSource source = new ForwardingSource(body.source()) {
+            @Override
+            public long read(Buffer sink, long byteCount) throws IOException {
+                long read = super.read(sink, byteCount);
+                if (read > 0) {
+                    counter.increment(read);
+                }
+                return read;
+            }
+        };
+        return ResponseBody.create(Okio.buffer(source), body.contentType(), body.contentLength());
+    }
+
+    /**
+     * S3 operation of a path-style request, from its method, path and query
+     */
+    static String operation(Request request) {
+        HttpUrl url = request.url();
+        List<String> segments = url.pathSegments();
+        boolean object = segments.size() > 1 && !(segments.size() == 2 && segments.get(1).isEmpty());
+        boolean multipart = url.queryParameter("uploadId") != null;
+
+        switch (request.method()) {
+            case "GET":
+                if (object) {
+                    return multipart ? "listParts" : "get";
+                }
+                if (segments.get(0).isEmpty()) {
+                    return "listBuckets";
+                }
+                return url.queryParameterNames().contains("location") ? "location" : "list";
+            case "HEAD":
+                return object ? "stat" : "bucketExists";
+            case "PUT":
+                if (multipart) {
+                    return "uploadPart";
+                }
+                if (request.header("x-amz-copy-source") != null) {
+                    return "copy";
+                }
+                return object ? "put" : "bucketConfig";
+            case "POST":
+                if (url.queryParameterNames().contains("uploads")) {
+                    return "createMultipart";
+                }
+                if (multipart) {
+                    return "completeMultipart";
+                }
+                return url.queryParameterNames().contains("delete") ? "removeObjects" : "post";
+            case "DELETE":
+                if (multipart) {
+                    return "abortMultipart";
+                }
+                return object ? "remove" : "removeBucket";
+            default:
+                return request.method().toLowerCase();
+        }
+    }
+
+    private static String bucket(HttpUrl url) {
+        String bucket = url.pathSegments().get(0);
+        return bucket.isEmpty() ? "none" : bucket;
+    }
+
+    private static String outcome(int code) {
+        if (code >= 500) {
+            return "SERVER_ERROR";
+        }
+        if (code >= 400) {
+            return "CLIENT_ERROR";
+        }
+        return code >= 300 ? "REDIRECTION" : "SUCCESS";
+    }
+
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    public long getTotalLatencyNanos() {
+        return totalNanos.sum();
+    }
+
+    public int getConnectionCount() {
+        return connectionPool.connectionCount();
+    }
+
+    public int getIdleConnectionCount() {
+        return connectionPool.idleConnectionCount();
+    }
+
+    public int getRunningCalls() {
+        return dispatcher.runningCallsCount();
+    }
+
+    public int getQueuedCalls() {
+        return dispatcher.queuedCallsCount();
+    }
+
+    public Map<String, Object> stats() {
+        long count = getRequestCount();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("requests", count);
+        stats.put("failures", getFailureCount());
+        stats.put("averageLatencyMs", count == 0 ? 0.0 : getTotalLatencyNanos() / (double) count / 1_000_000);
+        stats.put("maxLatencyMs", TimeUnit.NANOSECONDS.toMillis(maxNanos.get()));
+        stats.put("connections", getConnectionCount());
+        stats.put("idleConnections", getIdleConnectionCount());
+        stats.put("runningCalls", getRunningCalls());
+        stats.put("queuedCalls", getQueuedCalls());
+        return stats;
+    }
+}
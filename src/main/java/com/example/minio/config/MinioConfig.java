@@ -1,10 +1,26 @@
 package com.example.minio.config;
 
+import io.minio.MinioAsyncClient;
 import io.minio.MinioClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.minio.http.HttpUtils;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class MinioConfig {
 
@@ -20,11 +36,111 @@ public class MinioConfig {
     @Value("${minio.secure}")
     private boolean secure;
 
+    @Autowired
+    private MinioProperties minioProperties;
+
+    @Bean
+    public ConnectionPool minioConnectionPool() {
+        MinioProperties.Http http = minioProperties.getHttp();
+        return new ConnectionPool(http.getMaxIdleConnections(), http.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Same executor as OkHttp's default, but with daemon threads so idle
+     * async callers do not keep the JVM alive after shutdown
+     */
+    @Bean
+    public Dispatcher minioDispatcher() {
+        ExecutorService executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "minio-http-dispatcher");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Dispatcher dispatcher = new Dispatcher(executor);
+        dispatcher.setMaxRequests(minioProperties.getHttp().getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(minioProperties.getHttp().getMaxRequestsPerHost());
+        return dispatcher;
+    }
+
+    @Bean
+    public MinioClientMetrics minioClientMetrics(ConnectionPool minioConnectionPool, Dispatcher minioDispatcher,
+            MeterRegistry meterRegistry) {
+        return new MinioClientMetrics(minioConnectionPool, minioDispatcher, meterRegistry);
+    }
+
+    /**
+     * Primary endpoint first, then minio.failover.endpoints
+     */
     @Bean
-    public MinioClient minioClient() {
+    public MinioEndpointBalancer minioEndpointBalancer() {
+        List<HttpUrl> endpoints = new ArrayList<>();
+        endpoints.add(endpointUrl(endpoint));
+        for (String failoverEndpoint : minioProperties.getFailover().getEndpoints()) {
+            endpoints.add(endpointUrl(failoverEndpoint));
+        }
+
+        long timeout = minioProperties.getHttp().getConnectTimeout().toMillis();
+        OkHttpClient probeClient = new OkHttpClient.Builder()
+                .connectTimeout(timeout, TimeUnit.MILLISECONDS)
+                .readTimeout(timeout, TimeUnit.MILLISECONDS)
+                .build();
+        return new MinioEndpointBalancer(endpoints, minioProperties.getFailover().getHealthCheckInterval(), probeClient);
+    }
+
+    /**
+     * HTTP client shared by both MinIO clients. OkHttp defaults keep only 5 idle
+     * connections and allow 5 async calls per host, far below our concurrent transfers.
+     */
+    @Bean
+    public OkHttpClient minioHttpClient(ConnectionPool minioConnectionPool, Dispatcher minioDispatcher,
+            MinioClientMetrics minioClientMetrics, MinioEndpointBalancer minioEndpointBalancer) {
+        MinioProperties.Http http = minioProperties.getHttp();
+        if (http.isHttp2() && !secure) {
+            throw new IllegalStateException("minio.http.http2 requires minio.secure=true");
+        }
+
+        OkHttpClient.Builder builder = HttpUtils.newDefaultHttpClient(
+                        http.getConnectTimeout().toMillis(),
+                        http.getWriteTimeout().toMillis(),
+                        http.getReadTimeout().toMillis())
+                .newBuilder()
+                .connectionPool(minioConnectionPool)
+                .dispatcher(minioDispatcher)
+                .addInterceptor(minioClientMetrics);
+
+        if (minioEndpointBalancer.size() > 1) {
+            builder.addInterceptor(minioEndpointBalancer);
+        }
+        if (http.isHttp2()) {
+            builder.protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1));
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public MinioClient minioClient(OkHttpClient minioHttpClient) {
         return MinioClient.builder()
-                .endpoint(endpoint)
+                .endpoint(endpointUrl(endpoint))
                 .credentials(accessKey, secretKey)
+                .httpClient(minioHttpClient)
                 .build();
     }
+
+    @Bean
+    public MultipartMinioClient multipartMinioClient(OkHttpClient minioHttpClient) {
+        return new MultipartMinioClient(MinioAsyncClient.builder()
+                .endpoint(endpointUrl(endpoint))
+                .credentials(accessKey, secretKey)
+                .httpClient(minioHttpClient)
+                .build());
+    }
+
+    /**
+     * Endpoint URL with the scheme minio.secure asks for
+     */
+    private HttpUrl endpointUrl(String value) {
+        String address = value.contains("://") ? value.substring(value.indexOf("://") + 3) : value;
+        return HttpUrl.get((secure ? "https://" : "http://") + address);
+    }
 }
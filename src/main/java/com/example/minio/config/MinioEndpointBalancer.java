@@ -0,0 +1,145 @@
+package com.example.minio.config;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spreads MinIO requests round-robin over the nodes of a cluster. A node that refuses
+ * connections is skipped until its /minio/health/live probe passes again.
+ *
+ * Only the connection target is rewritten; the signed Host header stays the one of
+ * the primary endpoint, which every node of the cluster accepts.
+ */
+public class MinioEndpointBalancer implements Interceptor, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MinioEndpointBalancer.class);
+
+    private final List<Node> nodes = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final OkHttpClient probeClient;
+    private final ScheduledExecutorService healthChecker;
+
+    public MinioEndpointBalancer(List<HttpUrl> endpoints, Duration healthCheckInterval, OkHttpClient probeClient) {
+        for (HttpUrl endpoint : endpoints) {
+            nodes.add(new Node(endpoint));
+        }
+        this.probeClient = probeClient;
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "minio-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // A single node has nothing to fail over to
+        if (nodes.size() > 1) {
+            long interval = healthCheckInterval.toMillis();
+            healthChecker.scheduleWithFixedDelay(this::probeAll, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        IOException failure = null;
+
+        for (Node node : candidates()) {
+            try {
+                return chain.proceed(request.newBuilder().url(node.rewrite(request.url())).build());
+            } catch (ConnectException | NoRouteToHostException | UnknownHostException e) {
+                // Nothing was sent, so the request can go to the next node
+                if (node.healthy) {
+                    logger.warn("MinIO endpoint {} unreachable, failing over: {}", node.endpoint, e.getMessage());
+                }
+                node.healthy = false;
+                failure = e;
+            }
+        }
+        throw failure != null ? failure : new ConnectException("No MinIO endpoint configured");
+    }
+
+    /**
+     * Healthy nodes in round-robin order, then the unhealthy ones as a last resort
+     */
+    private List<Node> candidates() {
+        int start = Math.floorMod(next.getAndIncrement(), nodes.size());
+        List<Node> healthy = new ArrayList<>(nodes.size());
+        List<Node> unhealthy = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            Node node = nodes.get((start + i) % nodes.size());
+            (node.healthy ? healthy : unhealthy).add(node);
+        }
+        healthy.addAll(unhealthy);
+        return healthy;
+    }
+
+    private void probeAll() {
+        for (Node node : nodes) {
+            Request probe = new Request.Builder()
+                    .url(node.endpoint.newBuilder().encodedPath("/minio/health/live").build())
+                    .build();
+            boolean healthy;
+            try (Response response = probeClient.newCall(probe).execute()) {
+                healthy = response.isSuccessful();
+            } catch (IOException e) {
+                healthy = false;
+            }
+
+            if (healthy != node.healthy) {
+                logger.info("MinIO endpoint {} is {}", node.endpoint, healthy ? "healthy again" : "unhealthy");
+            }
+            node.healthy = healthy;
+        }
+    }
+
+    public int healthyCount() {
+        int count = 0;
+        for (Node node : nodes) {
+            if (node.healthy) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+    }
+
+    private static class Node {
+        private final HttpUrl endpoint;
+        private volatile boolean healthy = true;
+
+        Node(HttpUrl endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        HttpUrl rewrite(HttpUrl url) {
+            return url.newBuilder()
+                    .scheme(endpoint.scheme())
+                    .host(endpoint.host())
+                    .port(endpoint.port())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.minio.config;
+
+import io.minio.BucketExistsArgs;
+import io.minio.MinioClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * MinIO reachability for /actuator/health ("minio"). The probe checks the configured
+ * bucket; its result is reused for minio.health-check.cache-ttl so frequent
+ * liveness polls do not turn into a request per poll.
+ */
+@Component
+public class MinioHealthIndicator implements HealthIndicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(MinioHealthIndicator.class);
+
+    private final MinioClient minioClient;
+    private final MinioEndpointBalancer endpointBalancer;
+    private final String bucketName;
+    private final Duration cacheTtl;
+
+    private volatile Health cached;
+    private volatile long checkedAt;
+
+    public MinioHealthIndicator(MinioClient minioClient, MinioEndpointBalancer endpointBalancer,
+            MinioProperties minioProperties, @Value("${minio.bucket-name}") String bucketName) {
+        this.minioClient = minioClient;
+        this.endpointBalancer = endpointBalancer;
+        this.bucketName = bucketName;
+        this.cacheTtl = minioProperties.getHealthCheck().getCacheTtl();
+    }
+
+    @Override
+    public Health health() {
+        Health health = cached;
+        if (health != null && System.nanoTime() - checkedAt < cacheTtl.toNanos()) {
+            return health;
+        }
+        synchronized (this) {
+            // Another caller may have probed while we waited
+            if (cached != null && System.nanoTime() - checkedAt < cacheTtl.toNanos()) {
+                return cached;
+            }
+            cached = probe();
+            checkedAt = System.nanoTime();
+            return cached;
+        }
+    }
+
+    private Health probe() {
+        long start = System.nanoTime();
+        Health.Builder builder;
+        try {
+            boolean exists = minioClient.bucketExists(BucketExistsArgs.builder().bucket(bucketName).build());
+            builder = exists ? Health.up() : Health.down().withDetail("error", "Bucket does not exist");
+        } catch (Exception e) {
+            // The raw message can name hosts and credentials, it only goes to the log
+            logger.warn("MinIO health check failed: {}", e.getMessage());
+            builder = Health.down().withDetail("error", "MinIO not reachable (" + e.getClass().getSimpleName() + ")");
+        }
+        return builder
+                .withDetail("bucket", bucketName)
+                .withDetail("latencyMs", Duration.ofNanos(System.nanoTime() - start).toMillis())
+                .withDetail("healthyEndpoints", endpointBalancer.healthyCount() + "/" + endpointBalancer.size())
+                .withDetail("checkedAt", System.currentTimeMillis())
+                .build();
+    }
+}
@@ -1,17 +1,49 @@
 package com.example.minio.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
 
 @Component
+@Validated
 @ConfigurationProperties(prefix = "minio")
 public class MinioProperties {
 
+    @NotBlank
     private String endpoint;
     private String accessKey;
     private String secretKey;
     private String bucketName;
     private boolean secure;
+    private Upload upload = new Upload();
+    private Download download = new Download();
+    private MetadataCache metadataCache = new MetadataCache();
+    private Variants variants = new Variants();
+    private Dedup dedup = new Dedup();
+    private Batch batch = new Batch();
+    private Presign presign = new Presign();
+    private DiskCache diskCache = new DiskCache();
+    private HttpCache httpCache = new HttpCache();
+    @Valid
+    private Http http = new Http();
+    @Valid
+    private Failover failover = new Failover();
+    private HealthCheck healthCheck = new HealthCheck();
+    private Jobs jobs = new Jobs();
+    private Compression compression = new Compression();
+    private Resumable resumable = new Resumable();
+    private Admission admission = new Admission();
 
     // Getters and Setters
     public String getEndpoint() {
@@ -53,4 +85,981 @@ public class MinioProperties {
     public void setSecure(boolean secure) {
         this.secure = secure;
     }
+
+    public Upload getUpload() {
+        return upload;
+    }
+
+    public void setUpload(Upload upload) {
+        this.upload = upload;
+    }
+
+    public Download getDownload() {
+        return download;
+    }
+
+    public void setDownload(Download download) {
+        this.download = download;
+    }
+
+    public MetadataCache getMetadataCache() {
+        return metadataCache;
+    }
+
+    public void setMetadataCache(MetadataCache metadataCache) {
+        this.metadataCache = metadataCache;
+    }
+
+    public Variants getVariants() {
+        return variants;
+    }
+
+    public void setVariants(Variants variants) {
+        this.variants = variants;
+    }
+
+    public Dedup getDedup() {
+        return dedup;
+    }
+
+    public void setDedup(Dedup dedup) {
+        this.dedup = dedup;
+    }
+
+    public Batch getBatch() {
+        return batch;
+    }
+
+    public void setBatch(Batch batch) {
+        this.batch = batch;
+    }
+
+    public Presign getPresign() {
+        return presign;
+    }
+
+    public void setPresign(Presign presign) {
+        this.presign = presign;
+    }
+
+    public DiskCache getDiskCache() {
+        return diskCache;
+    }
+
+    public void setDiskCache(DiskCache diskCache) {
+        this.diskCache = diskCache;
+    }
+
+    public HttpCache getHttpCache() {
+        return httpCache;
+    }
+
+    public void setHttpCache(HttpCache httpCache) {
+        this.httpCache = httpCache;
+    }
+
+    public Http getHttp() {
+        return http;
+    }
+
+    public void setHttp(Http http) {
+        this.http = http;
+    }
+
+    public Failover getFailover() {
+        return failover;
+    }
+
+    public void setFailover(Failover failover) {
+        this.failover = failover;
+    }
+
+    public HealthCheck getHealthCheck() {
+        return healthCheck;
+    }
+
+    public void setHealthCheck(HealthCheck healthCheck) {
+        this.healthCheck = healthCheck;
+    }
+
+    public Jobs getJobs() {
+        return jobs;
+    }
+
+    public void setJobs(Jobs jobs) {
+        this.jobs = jobs;
+    }
+
+    public Compression getCompression() {
+        return compression;
+    }
+
+    public void setCompression(Compression compression) {
+        this.compression = compression;
+    }
+
+    public Resumable getResumable() {
+        return resumable;
+    }
+
+    public void setResumable(Resumable resumable) {
+        this.resumable = resumable;
+    }
+
+    public Admission getAdmission() {
+        return admission;
+    }
+
+    public void setAdmission(Admission admission) {
+        this.admission = admission;
+    }
+
+    public static class Upload {
+
+        // S3 requires every part except the last to be at least 5MB
+        private int partSize = 16 * 1024 * 1024;
+        private int maxInFlightParts = 4;
+        // Largest body accepted by /upload/stream, counted while it streams
+        private long maxStreamSize = 1024L * 1024 * 1024;
+
+        public int getPartSize() {
+            return partSize;
+        }
+
+        public void setPartSize(int partSize) {
+            this.partSize = partSize;
+        }
+
+        public int getMaxInFlightParts() {
+            return maxInFlightParts;
+        }
+
+        public void setMaxInFlightParts(int maxInFlightParts) {
+            this.maxInFlightParts = maxInFlightParts;
+        }
+
+        public long getMaxStreamSize() {
+            return maxStreamSize;
+        }
+
+        public void setMaxStreamSize(long maxStreamSize) {
+            this.maxStreamSize = maxStreamSize;
+        }
+    }
+
+    public static class Download {
+
+        // Split large reads into ranged GETs fetched in parallel
+        private boolean parallelEnabled = false;
+        private long parallelThreshold = 64L * 1024 * 1024;
+        private int chunkSize = 8 * 1024 * 1024;
+        private int parallelism = 4;
+
+        public boolean isParallelEnabled() {
+            return parallelEnabled;
+        }
+
+        public void setParallelEnabled(boolean parallelEnabled) {
+            this.parallelEnabled = parallelEnabled;
+        }
+
+        public long getParallelThreshold() {
+            return parallelThreshold;
+        }
+
+        public void setParallelThreshold(long parallelThreshold) {
+            this.parallelThreshold = parallelThreshold;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+
+    public static class MetadataCache {
+
+        private boolean enabled = true;
+        private int maxEntries = 10000;
+        private Duration ttl = Duration.ofSeconds(60);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    public static class Variants {
+
+        // Derived images are stored back into the bucket under this prefix
+        private String prefix = "_variants/";
+        private int workers = 2;
+        private int queueCapacity = 32;
+        private long cacheBytes = 64L * 1024 * 1024;
+        private int maxDimension = 4096;
+        private long maxSourcePixels = 40_000_000L;
+
+        public String getPrefix() {
+            return prefix;
+        }
+
+        public void setPrefix(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public int getWorkers() {
+            return workers;
+        }
+
+        public void setWorkers(int workers) {
+            this.workers = workers;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public long getCacheBytes() {
+            return cacheBytes;
+        }
+
+        public void setCacheBytes(long cacheBytes) {
+            this.cacheBytes = cacheBytes;
+        }
+
+        public int getMaxDimension() {
+            return maxDimension;
+        }
+
+        public void setMaxDimension(int maxDimension) {
+            this.maxDimension = maxDimension;
+        }
+
+        public long getMaxSourcePixels() {
+            return maxSourcePixels;
+        }
+
+        public void setMaxSourcePixels(long maxSourcePixels) {
+            this.maxSourcePixels = maxSourcePixels;
+        }
+    }
+
+    public static class Dedup {
+
+        private boolean enabled = false;
+        // Content objects are stored under this prefix + SHA-256
+        private String prefix = "_cas/";
+        private String indexFile = "data/dedup/aliases.log";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+
+        public void setPrefix(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public String getIndexFile() {
+            return indexFile;
+        }
+
+        public void setIndexFile(String indexFile) {
+            this.indexFile = indexFile;
+        }
+    }
+
+    public static class Batch {
+
+        // Files of one batch upload stored concurrently
+        private int parallelism = 4;
+        private int maxFiles = 1000;
+        // Objects opened ahead of the one being zipped
+        private int archivePrefetch = 4;
+        private int archivePrefetchBytes = 1024 * 1024;
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getMaxFiles() {
+            return maxFiles;
+        }
+
+        public void setMaxFiles(int maxFiles) {
+            this.maxFiles = maxFiles;
+        }
+
+        public int getArchivePrefetch() {
+            return archivePrefetch;
+        }
+
+        public void setArchivePrefetch(int archivePrefetch) {
+            this.archivePrefetch = archivePrefetch;
+        }
+
+        public int getArchivePrefetchBytes() {
+            return archivePrefetchBytes;
+        }
+
+        public void setArchivePrefetchBytes(int archivePrefetchBytes) {
+            this.archivePrefetchBytes = archivePrefetchBytes;
+        }
+    }
+
+    public static class Presign {
+
+        private Duration expiry = Duration.ofMinutes(15);
+        private long maxUploadSize = 5L * 1024 * 1024 * 1024;
+        // Content type prefixes accepted for presigned uploads, empty allows any
+        private List<String> allowedContentTypes = new ArrayList<>();
+        // How often expired uploads are forgotten and uncompleted PUT uploads checked
+        private Duration sweepInterval = Duration.ofMinutes(1);
+
+        public Duration getExpiry() {
+            return expiry;
+        }
+
+        public void setExpiry(Duration expiry) {
+            this.expiry = expiry;
+        }
+
+        public long getMaxUploadSize() {
+            return maxUploadSize;
+        }
+
+        public void setMaxUploadSize(long maxUploadSize) {
+            this.maxUploadSize = maxUploadSize;
+        }
+
+        public List<String> getAllowedContentTypes() {
+            return allowedContentTypes;
+        }
+
+        public void setAllowedContentTypes(List<String> allowedContentTypes) {
+            this.allowedContentTypes = allowedContentTypes;
+        }
+
+        public Duration getSweepInterval() {
+            return sweepInterval;
+        }
+
+        public void setSweepInterval(Duration sweepInterval) {
+            this.sweepInterval = sweepInterval;
+        }
+    }
+
+    public static class DiskCache {
+
+        private boolean enabled = false;
+        // Wiped at startup, entries are re-fetched on demand
+        private String directory = "data/cache";
+        private long maxBytes = 1024L * 1024 * 1024;
+        private long maxObjectSize = 64L * 1024 * 1024;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        public long getMaxObjectSize() {
+            return maxObjectSize;
+        }
+
+        public void setMaxObjectSize(long maxObjectSize) {
+            this.maxObjectSize = maxObjectSize;
+        }
+    }
+
+    public static class HttpCache {
+
+        // Stored files get a fresh UUID name and never change
+        private String defaultPolicy = "public, max-age=31536000, immutable";
+        // Content type prefix -> Cache-Control, the longest matching prefix wins
+        private Map<String, String> policies = new LinkedHashMap<>();
+        private String infoPolicy = "no-cache";
+
+        public String getDefaultPolicy() {
+            return defaultPolicy;
+        }
+
+        public void setDefaultPolicy(String defaultPolicy) {
+            this.defaultPolicy = defaultPolicy;
+        }
+
+        public Map<String, String> getPolicies() {
+            return policies;
+        }
+
+        public void setPolicies(Map<String, String> policies) {
+            this.policies = policies;
+        }
+
+        public String getInfoPolicy() {
+            return infoPolicy;
+        }
+
+        public void setInfoPolicy(String infoPolicy) {
+            this.infoPolicy = infoPolicy;
+        }
+    }
+
+    public static class Http {
+
+        // One OkHttp connection pool and dispatcher shared by the sync and async clients
+        @Min(1)
+        private int maxIdleConnections = 64;
+        @NotNull
+        private Duration keepAlive = Duration.ofMinutes(5);
+        @Min(1)
+        private int maxRequests = 256;
+        @Min(1)
+        private int maxRequestsPerHost = 256;
+        @NotNull
+        private Duration connectTimeout = Duration.ofSeconds(10);
+        @NotNull
+        private Duration readTimeout = Duration.ofMinutes(5);
+        @NotNull
+        private Duration writeTimeout = Duration.ofMinutes(5);
+        // HTTP/2 is negotiated over TLS only, so this needs minio.secure
+        private boolean http2 = false;
+
+        @AssertTrue(message = "max-requests-per-host must not exceed max-requests")
+        public boolean isDispatcherLimitValid() {
+            return maxRequestsPerHost <= maxRequests;
+        }
+
+        public int getMaxIdleConnections() {
+            return maxIdleConnections;
+        }
+
+        public void setMaxIdleConnections(int maxIdleConnections) {
+            this.maxIdleConnections = maxIdleConnections;
+        }
+
+        public Duration getKeepAlive() {
+            return keepAlive;
+        }
+
+        public void setKeepAlive(Duration keepAlive) {
+            this.keepAlive = keepAlive;
+        }
+
+        public int getMaxRequests() {
+            return maxRequests;
+        }
+
+        public void setMaxRequests(int maxRequests) {
+            this.maxRequests = maxRequests;
+        }
+
+        public int getMaxRequestsPerHost() {
+            return maxRequestsPerHost;
+        }
+
+        public void setMaxRequestsPerHost(int maxRequestsPerHost) {
+            this.maxRequestsPerHost = maxRequestsPerHost;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        public Duration getWriteTimeout() {
+            return writeTimeout;
+        }
+
+        public void setWriteTimeout(Duration writeTimeout) {
+            this.writeTimeout = writeTimeout;
+        }
+
+        public boolean isHttp2() {
+            return http2;
+        }
+
+        public void setHttp2(boolean http2) {
+            this.http2 = http2;
+        }
+    }
+
+    public static class Failover {
+
+        // Other nodes of the MinIO cluster, requests are spread over all healthy ones
+        private List<String> endpoints = new ArrayList<>();
+        @NotNull
+        private Duration healthCheckInterval = Duration.ofSeconds(10);
+
+        public List<String> getEndpoints() {
+            return endpoints;
+        }
+
+        public void setEndpoints(List<String> endpoints) {
+            this.endpoints = endpoints;
+        }
+
+        public Duration getHealthCheckInterval() {
+            return healthCheckInterval;
+        }
+
+        public void setHealthCheckInterval(Duration healthCheckInterval) {
+            this.healthCheckInterval = healthCheckInterval;
+        }
+    }
+
+    public static class HealthCheck {
+
+        // How long a MinIO probe result is reused by the health indicator
+        private Duration cacheTtl = Duration.ofSeconds(10);
+
+        public Duration getCacheTtl() {
+            return cacheTtl;
+        }
+
+        public void setCacheTtl(Duration cacheTtl) {
+            this.cacheTtl = cacheTtl;
+        }
+    }
+
+    public static class Jobs {
+
+        // Off by default: every upload would be read back in full by the checksum stage
+        private boolean enabled = false;
+        // Every job state change is appended here and replayed at startup
+        private String journalFile = "data/jobs/journal.log";
+        // fsync after every append, so an acknowledged upload's job survives a crash
+        private boolean fsync = true;
+        // Jobs waiting per stage; when full new jobs wait in the journal and are offered again later
+        private int queueCapacity = 1000;
+        private int maxAttempts = 5;
+        // Retry delay, doubled per attempt up to maxBackoff
+        private Duration backoff = Duration.ofSeconds(1);
+        private Duration maxBackoff = Duration.ofMinutes(1);
+        // Finished jobs stay queryable this long
+        private Duration retention = Duration.ofHours(24);
+        private int thumbnailSize = 256;
+        // Concurrency and batch size per stage name
+        private Map<String, JobStage> stages = new LinkedHashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getJournalFile() {
+            return journalFile;
+        }
+
+        public void setJournalFile(String journalFile) {
+            this.journalFile = journalFile;
+        }
+
+        public boolean isFsync() {
+            return fsync;
+        }
+
+        public void setFsync(boolean fsync) {
+            this.fsync = fsync;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getBackoff() {
+            return backoff;
+        }
+
+        public void setBackoff(Duration backoff) {
+            this.backoff = backoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+
+        public int getThumbnailSize() {
+            return thumbnailSize;
+        }
+
+        public void setThumbnailSize(int thumbnailSize) {
+            this.thumbnailSize = thumbnailSize;
+        }
+
+        public Map<String, JobStage> getStages() {
+            return stages;
+        }
+
+        public void setStages(Map<String, JobStage> stages) {
+            this.stages = stages;
+        }
+    }
+
+    public static class JobStage {
+
+        private int concurrency = 1;
+        // Jobs handed to the stage at once, only useful for stages that batch
+        private int batchSize = 1;
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class Compression {
+
+        private boolean enabled = false;
+        // Deflate level, 1 (fast) to 9 (small)
+        private int level = 6;
+        // Smaller files are stored as-is
+        private long minSize = 1024;
+        // Bytes sniffed to tell already-compressed content apart
+        private int sampleSize = 65536;
+        // Samples above this many bits per byte are not compressed
+        private double maxEntropy = 7.0;
+        // Content type prefixes that are compressed
+        private List<String> contentTypes = new ArrayList<>(List.of("text/", "application/json",
+                "application/xml", "application/javascript", "application/x-ndjson", "application/csv",
+                "application/yaml", "image/svg+xml"));
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        public void setLevel(int level) {
+            this.level = level;
+        }
+
+        public long getMinSize() {
+            return minSize;
+        }
+
+        public void setMinSize(long minSize) {
+            this.minSize = minSize;
+        }
+
+        public int getSampleSize() {
+            return sampleSize;
+        }
+
+        public void setSampleSize(int sampleSize) {
+            this.sampleSize = sampleSize;
+        }
+
+        public double getMaxEntropy() {
+            return maxEntropy;
+        }
+
+        public void setMaxEntropy(double maxEntropy) {
+            this.maxEntropy = maxEntropy;
+        }
+
+        public List<String> getContentTypes() {
+            return contentTypes;
+        }
+
+        public void setContentTypes(List<String> contentTypes) {
+            this.contentTypes = contentTypes;
+        }
+    }
+
+    public static class Resumable {
+
+        private boolean enabled = true;
+        // Session state and chunks not yet sent as a part
+        private String directory = "data/uploads";
+        private long maxSize = 5L * 1024 * 1024 * 1024;
+        // Sessions untouched for this long are aborted
+        private Duration expiry = Duration.ofHours(24);
+        // Open sessions each hold a local part file of up to one part size
+        private int maxSessions = 1000;
+        private int maxSessionsPerClient = 20;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public long getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getExpiry() {
+            return expiry;
+        }
+
+        public void setExpiry(Duration expiry) {
+            this.expiry = expiry;
+        }
+
+        public int getMaxSessions() {
+            return maxSessions;
+        }
+
+        public void setMaxSessions(int maxSessions) {
+            this.maxSessions = maxSessions;
+        }
+
+        public int getMaxSessionsPerClient() {
+            return maxSessionsPerClient;
+        }
+
+        public void setMaxSessionsPerClient(int maxSessionsPerClient) {
+            this.maxSessionsPerClient = maxSessionsPerClient;
+        }
+    }
+
+    public static class Admission {
+
+        private boolean enabled = false;
+        // Clients sending one of apiKeys in this header are limited per key, the others per address
+        private String clientHeader = "X-API-Key";
+        private List<String> apiKeys = new ArrayList<>();
+        private boolean trustForwardedFor = false;
+        // Requests per second per client, in bursts of up to burst requests
+        private double rate = 20.0;
+        private int burst = 40;
+        private int maxClients = 100000;
+        // Upload and download bytes in flight at once, across all clients
+        private long uploadBudget = 512L * 1024 * 1024;
+        private long downloadBudget = 1024L * 1024 * 1024;
+        // Requests waiting for budget; beyond that, or after queue-timeout, they get 429
+        private int maxQueue = 64;
+        private Duration queueTimeout = Duration.ofSeconds(2);
+        // Bandwidth of one upload or download stream, 0 for unlimited
+        private long streamBytesPerSecond = 0;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getClientHeader() {
+            return clientHeader;
+        }
+
+        public void setClientHeader(String clientHeader) {
+            this.clientHeader = clientHeader;
+        }
+
+        public List<String> getApiKeys() {
+            return apiKeys;
+        }
+
+        public void setApiKeys(List<String> apiKeys) {
+            this.apiKeys = apiKeys;
+        }
+
+        public boolean isTrustForwardedFor() {
+            return trustForwardedFor;
+        }
+
+        public void setTrustForwardedFor(boolean trustForwardedFor) {
+            this.trustForwardedFor = trustForwardedFor;
+        }
+
+        public double getRate() {
+            return rate;
+        }
+
+        public void setRate(double rate) {
+            this.rate = rate;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+
+        public int getMaxClients() {
+            return maxClients;
+        }
+
+        public void setMaxClients(int maxClients) {
+            this.maxClients = maxClients;
+        }
+
+        public long getUploadBudget() {
+            return uploadBudget;
+        }
+
+        public void setUploadBudget(long uploadBudget) {
+            this.uploadBudget = uploadBudget;
+        }
+
+        public long getDownloadBudget() {
+            return downloadBudget;
+        }
+
+        public void setDownloadBudget(long downloadBudget) {
+            this.downloadBudget = downloadBudget;
+        }
+
+        public int getMaxQueue() {
+            return maxQueue;
+        }
+
+        public void setMaxQueue(int maxQueue) {
+            this.maxQueue = maxQueue;
+        }
+
+        public Duration getQueueTimeout() {
+            return queueTimeout;
+        }
+
+        public void setQueueTimeout(Duration queueTimeout) {
+            this.queueTimeout = queueTimeout;
+        }
+
+        public long getStreamBytesPerSecond() {
+            return streamBytesPerSecond;
+        }
+
+        public void setStreamBytesPerSecond(long streamBytesPerSecond) {
+            this.streamBytesPerSecond = streamBytesPerSecond;
+        }
+    }
 }
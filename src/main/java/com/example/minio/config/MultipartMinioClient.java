@@ -0,0 +1,68 @@
+package com.example.minio.config;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import io.minio.MinioAsyncClient;
+import io.minio.ObjectWriteResponse;
+import io.minio.UploadPartResponse;
+import io.minio.messages.Part;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * MinIO async client exposing the low-level multipart upload calls
+ */
+public class MultipartMinioClient extends MinioAsyncClient {
+
+    public MultipartMinioClient(MinioAsyncClient client) {
+        super(client);
+    }
+
+    /**
+     * Start a multipart upload and return its upload id
+     */
+    public String createMultipartUpload(String bucketName, String objectName, String contentType) throws Exception {
+        return createMultipartUpload(bucketName, objectName, contentType, Map.of());
+    }
+
+    /**
+     * Start a multipart upload with extra object headers such as Content-Encoding or x-amz-meta-*
+     */
+    public String createMultipartUpload(String bucketName, String objectName, String contentType,
+            Map<String, String> extraHeaders) throws Exception {
+        Multimap<String, String> headers = HashMultimap.create();
+        if (contentType != null) {
+            headers.put("Content-Type", contentType);
+        }
+        extraHeaders.forEach(headers::put);
+        return createMultipartUploadAsync(bucketName, null, objectName, headers, null)
+                .get()
+                .result()
+                .uploadId();
+    }
+
+    /**
+     * Upload a single part of a multipart upload
+     */
+    public CompletableFuture<Part> uploadPart(String bucketName, String objectName, String uploadId,
+            int partNumber, byte[] data, int length) throws Exception {
+        return uploadPartAsync(bucketName, null, objectName, data, length, uploadId, partNumber, null, null)
+                .thenApply((UploadPartResponse response) -> new Part(response.partNumber(), response.etag()));
+    }
+
+    /**
+     * Complete a multipart upload from its uploaded parts
+     */
+    public ObjectWriteResponse completeMultipartUpload(String bucketName, String objectName, String uploadId,
+            Part[] parts) throws Exception {
+        return completeMultipartUploadAsync(bucketName, null, objectName, uploadId, parts, null, null).get();
+    }
+
+    /**
+     * Abort a multipart upload and drop its parts
+     */
+    public void abortMultipartUpload(String bucketName, String objectName, String uploadId) throws Exception {
+        abortMultipartUploadAsync(bucketName, null, objectName, uploadId, null, null).get();
+    }
+}
@@ -10,9 +10,27 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final ChatProperties chatProperties;
+
+    public WebSocketConfig(ChatProperties chatProperties) {
+        this.chatProperties = chatProperties;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue");
+        ChatProperties.BrokerRelay relay = chatProperties.getCluster().getBrokerRelay();
+        if (relay.isEnabled()) {
+            // External broker fans /topic out to the clients of every node
+            config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relay.getHost())
+                    .setRelayPort(relay.getPort())
+                    .setClientLogin(relay.getLogin())
+                    .setClientPasscode(relay.getPasscode())
+                    .setSystemLogin(relay.getLogin())
+                    .setSystemPasscode(relay.getPasscode());
+        } else {
+            config.enableSimpleBroker("/topic", "/queue");
+        }
         config.setApplicationDestinationPrefixes("/app");
     }
 
@@ -1,22 +1,33 @@
 package com.example.minio.controller;
 
+import java.security.Principal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import com.example.minio.cluster.ChatClusterCoordinator;
 import com.example.minio.entity.ChatMessage;
+import com.example.minio.service.ChatMessagePipeline;
 import com.example.minio.service.ChatService;
-import com.example.minio.entity.Conversation;
+import com.example.minio.entity.ConversationSummary;
 
 import io.minio.StatObjectResponse;
 
@@ -25,68 +36,135 @@ import io.minio.StatObjectResponse;
 @CrossOrigin(origins = "*")
 public class ChatController {
 
+    private static final Logger logger = LoggerFactory.getLogger(ChatController.class);
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final String ERROR_QUEUE = "/queue/errors";
+
     private final ChatService chatService;
+    private final ChatMessagePipeline messagePipeline;
+    private final ChatClusterCoordinator clusterCoordinator;
     private final SimpMessagingTemplate messagingTemplate;
 
-    public ChatController(ChatService chatService, SimpMessagingTemplate messagingTemplate) {
+    public ChatController(ChatService chatService, ChatMessagePipeline messagePipeline,
+            ChatClusterCoordinator clusterCoordinator, SimpMessagingTemplate messagingTemplate) {
         this.chatService = chatService;
+        this.messagePipeline = messagePipeline;
+        this.clusterCoordinator = clusterCoordinator;
         this.messagingTemplate = messagingTemplate;
     }
 
     @MessageMapping("/sendMessage")
-    public void sendMessage(@Payload ChatMessage message) {
-        chatService.addMessage(message.getConversationId(), message);
-        // gửi về topic conversation.{id}
-        messagingTemplate.convertAndSend(
-                "/topic/conversation." + message.getConversationId(),
-                message);
+    public void sendMessage(@Payload ChatMessage message, SimpMessageHeaderAccessor accessor) {
+        // lưu và gửi về topic conversation.{id} ở pipeline, không chặn inbound thread
+        if (!messagePipeline.accept(message)) {
+            logger.warn("Chat pipeline full, dropped message for conversation {}", message.getConversationId());
+            sendError(accessor, message, "Chat is busy, message not accepted; retry later");
+        }
+    }
+
+    /**
+     * Tell the sender alone on /user/queue/errors, so the client can retry the message
+     */
+    private void sendError(SimpMessageHeaderAccessor accessor, ChatMessage message, String error) {
+        Map<String, Object> frame = new HashMap<>();
+        frame.put("type", "ERROR");
+        frame.put("retryable", true);
+        frame.put("message", error);
+        frame.put("conversationId", message.getConversationId());
+        frame.put("content", message.getContent());
+
+        // Without an authenticated user the session is addressed instead
+        Principal user = accessor.getUser();
+        if (user != null) {
+            messagingTemplate.convertAndSendToUser(user.getName(), ERROR_QUEUE, frame);
+            return;
+        }
+        String sessionId = accessor.getSessionId();
+        if (sessionId == null) {
+            return;
+        }
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(sessionId);
+        headers.setLeaveMutable(true);
+        messagingTemplate.convertAndSendToUser(sessionId, ERROR_QUEUE, frame, headers.getMessageHeaders());
     }
 
     @MessageMapping("/addUser")
     public void addUser(@Payload ChatMessage message) {
-        chatService.addParticipant(message.getConversationId(), message.getSender());
         message.setType("JOIN");
-        messagingTemplate.convertAndSend(
-                "/topic/conversation." + message.getConversationId(),
-                message);
+        // node sở hữu conversation ghi JOIN xuống log, gửi JOIN tới mọi node, mỗi node gửi về topic conversation.{id}
+        clusterCoordinator.join(message);
     }
 
     @GetMapping("/getCons")
-    public ResponseEntity<Map<String, Object>> getCons() {
+    public ResponseEntity<Map<String, Object>> getCons(@RequestParam(value = "userId", required = false) String userId) {
         Map<String, Object> response = new HashMap<>();
-        Map<String, Conversation> res = chatService.getCons();
+        List<ConversationSummary> res = chatService.getSummaries(userId);
         response.put("data", res);
 
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/users/{userId}/conversations")
+    public ResponseEntity<Map<String, Object>> getUserConversations(@PathVariable String userId) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", chatService.getConversationIds(userId));
+
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/{conId}")
-    public ResponseEntity<Map<String, Object>> getMessages(@PathVariable String conId) {
+    public ResponseEntity<Map<String, Object>> getMessages(@PathVariable String conId,
+            @RequestParam(value = "before", required = false) Long before,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
         Map<String, Object> response = new HashMap<>();
 
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return invalidLimit();
+        }
+
         try {
-            List<ChatMessage> messages = chatService.getMessages(conId);
+            List<ChatMessage> messages = chatService.getMessages(conId, before, after, limit);
 
             response.put("success", true);
             response.put("data", messages);
 
             return ResponseEntity.ok(response);
 
-        } catch (Exception e) {
-            response.put("success", false);
-            response.put("message", "Conversation not found: " + e.getMessage());
-            return ResponseEntity.notFound().build();
+        } catch (NoSuchElementException e) {
+            return notFound(e);
         }
     }
 
+    @PostMapping("/{conId}/read")
+    public ResponseEntity<Map<String, Object>> markRead(@PathVariable String conId,
+            @RequestParam("userId") String userId,
+            @RequestParam("sequence") long sequence) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            chatService.markRead(conId, userId, sequence);
+        } catch (NoSuchElementException e) {
+            return notFound(e);
+        }
+        response.put("success", true);
+
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/{userId_1}/{userId_2}")
-    public ResponseEntity<Map<String, Object>> getId(@PathVariable String userId_1, @PathVariable String userId_2) {
+    public ResponseEntity<Map<String, Object>> getId(@PathVariable String userId_1, @PathVariable String userId_2,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
         Map<String, Object> response = new HashMap<>();
-        
+
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return invalidLimit();
+        }
+
         try {
             String conId = chatService.getConversationByParticipants(userId_1, userId_2);
-            List<ChatMessage> messages = chatService.getMessages(conId);
-            
+            List<ChatMessage> messages = chatService.getMessages(conId, null, null, limit);
 
             response.put("success", true);
             response.put("data", conId);
@@ -94,10 +172,22 @@ public class ChatController {
 
             return ResponseEntity.ok(response);
 
-        } catch (Exception e) {
-            response.put("success", false);
-            response.put("message", "Conversation not found: " + e.getMessage());
-            return ResponseEntity.notFound().build();
+        } catch (NoSuchElementException e) {
+            return notFound(e);
         }
     }
+
+    private ResponseEntity<Map<String, Object>> invalidLimit() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", "limit must be between 1 and " + MAX_PAGE_SIZE);
+        return ResponseEntity.badRequest().body(response);
+    }
+
+    private ResponseEntity<Map<String, Object>> notFound(NoSuchElementException e) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+    }
 }
@@ -1,21 +1,59 @@
 package com.example.minio.controller;
 
+import com.example.minio.admission.AdmissionControl;
+import com.example.minio.config.MinioClientMetrics;
+import com.example.minio.config.MinioEndpointBalancer;
+import com.example.minio.config.MinioHealthIndicator;
+import com.example.minio.config.MinioProperties;
+import com.example.minio.entity.BatchUploadResult;
+import com.example.minio.entity.FilePage;
+import com.example.minio.entity.StoredObject;
+import com.example.minio.entity.UploadJob;
+import com.example.minio.entity.UploadSession;
+import com.example.minio.jobs.UploadJobQueue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.minio.service.BatchFileService;
+import com.example.minio.service.DiskObjectCache;
+import com.example.minio.service.ImageVariantService;
 import com.example.minio.service.MinioService;
+import com.example.minio.service.ObjectCompressor;
+import com.example.minio.service.PresignedUrlService;
+import com.example.minio.service.ResumableUploadService;
+import com.example.minio.service.SizeLimitedInputStream;
 import io.minio.StatObjectResponse;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.InputStreamResource;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/files")
@@ -24,14 +62,60 @@ public class FileController {
 
     private static final Logger logger = LoggerFactory.getLogger(FileController.class);
 
+    // ETag of a compressed file sent gzip-encoded, the decoded one keeps the plain ETag
+    private static final String GZIP_ETAG_SUFFIX = "-gzip";
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+    private static final String UPLOAD_LENGTH = "Upload-Length";
+
     @Autowired
     private MinioService minioService;
 
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private BatchFileService batchFileService;
+
+    @Autowired
+    private PresignedUrlService presignedUrlService;
+
+    @Autowired
+    private DiskObjectCache diskObjectCache;
+
+    @Autowired
+    private MinioProperties minioProperties;
+
+    @Autowired
+    private MinioClientMetrics minioClientMetrics;
+
+    @Autowired
+    private MinioEndpointBalancer minioEndpointBalancer;
+
+    @Autowired
+    private MinioHealthIndicator minioHealthIndicator;
+
+    @Autowired
+    private UploadJobQueue uploadJobQueue;
+
+    @Autowired
+    private ObjectCompressor objectCompressor;
+
+    @Autowired
+    private ResumableUploadService resumableUploadService;
+
+    @Autowired
+    private AdmissionControl admissionControl;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * Upload file endpoint
      */
     @PostMapping("/upload")
-    public ResponseEntity<Map<String, Object>> uploadFile(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<Map<String, Object>> uploadFile(@RequestParam("file") MultipartFile file,
+            @RequestParam(value = "conversationId", required = false) String conversationId,
+            @RequestParam(value = "sender", required = false) String sender) {
         Map<String, Object> response = new HashMap<>();
 
         try {
@@ -58,6 +142,8 @@ public class FileController {
             response.put("originalName", file.getOriginalFilename());
             response.put("size", file.getSize());
             response.put("contentType", file.getContentType());
+            queueJob(response, new StoredObject(fileName, file.getOriginalFilename(), file.getContentType(),
+                    file.getSize()), conversationId, sender);
 
             logger.info("File uploaded successfully: {}", fileName);
             return ResponseEntity.ok(response);
@@ -70,6 +156,471 @@ public class FileController {
         }
     }
 
+    /**
+     * Batch upload endpoint, the files are stored concurrently
+     */
+    @PostMapping("/upload/batch")
+    public ResponseEntity<Map<String, Object>> uploadFiles(@RequestParam("files") List<MultipartFile> files,
+            @RequestParam(value = "conversationId", required = false) String conversationId,
+            @RequestParam(value = "sender", required = false) String sender) {
+        Map<String, Object> response = new HashMap<>();
+
+        if (files.isEmpty() || files.size() > batchFileService.getMaxFiles()) {
+            response.put("success", false);
+            response.put("message", "Between 1 and " + batchFileService.getMaxFiles() + " files are allowed");
+            return ResponseEntity.badRequest().body(response);
+        }
+        for (MultipartFile file : files) {
+            if (file.isEmpty()) {
+                response.put("success", false);
+                response.put("message", "File is empty: " + file.getOriginalFilename());
+                return ResponseEntity.badRequest().body(response);
+            }
+        }
+
+        BatchUploadResult result = batchFileService.uploadFiles(files);
+
+        response.put("success", result.isComplete());
+        response.put("message", result.isComplete()
+                ? "Files uploaded successfully"
+                : "Failed to upload " + result.getErrors().size() + " of " + files.size() + " files");
+        response.put("data", result.getUploaded());
+        response.put("errors", result.getErrors());
+
+        Map<String, String> jobs = new LinkedHashMap<>();
+        for (StoredObject stored : result.getUploaded()) {
+            UploadJob job = uploadJobQueue.submit(stored, conversationId, sender);
+            if (job != null) {
+                jobs.put(stored.getFileName(), job.getId());
+            }
+        }
+        if (!jobs.isEmpty()) {
+            response.put("jobs", jobs);
+        }
+
+        return result.getUploaded().isEmpty()
+                ? ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response)
+                : ResponseEntity.ok(response);
+    }
+
+    /**
+     * Streaming upload endpoint: the request body is the file itself
+     * and goes straight to MinIO without being spooled first
+     */
+    @PostMapping("/upload/stream")
+    public ResponseEntity<Map<String, Object>> uploadStream(HttpServletRequest request,
+            @RequestParam(value = "fileName", required = false) String originalName,
+            @RequestParam(value = "conversationId", required = false) String conversationId,
+            @RequestParam(value = "sender", required = false) String sender) {
+        Map<String, Object> response = new HashMap<>();
+        SizeLimitedInputStream limited = null;
+
+        try {
+            String contentType = request.getContentType();
+            if (contentType != null && contentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE)) {
+                response.put("success", false);
+                response.put("message", "Send the raw file as request body, use /upload for form-data");
+                return ResponseEntity.badRequest().body(response);
+            }
+            if (contentType == null) {
+                contentType = MediaType.APPLICATION_OCTET_STREAM_VALUE;
+            }
+            long maxSize = minioProperties.getUpload().getMaxStreamSize();
+            if (request.getContentLengthLong() > maxSize) {
+                return payloadTooLarge(maxSize);
+            }
+
+            limited = new SizeLimitedInputStream(request.getInputStream(), maxSize);
+            StoredObject stored = minioService.uploadStream(limited, originalName, contentType);
+
+            response.put("success", true);
+            response.put("message", "File uploaded successfully");
+            response.put("fileName", stored.getFileName());
+            response.put("originalName", stored.getOriginalName());
+            response.put("size", stored.getSize());
+            response.put("contentType", stored.getContentType());
+            queueJob(response, stored, conversationId, sender);
+
+            logger.info("File streamed successfully: {}", stored.getFileName());
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            // The uploaded parts were aborted by the uploader
+            if (limited != null && limited.isExceeded()) {
+                return payloadTooLarge(minioProperties.getUpload().getMaxStreamSize());
+            }
+            logger.error("Error streaming file: {}", e.getMessage());
+            response.put("success", false);
+            response.put("message", "Failed to upload file: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Presigned PUT URL endpoint, the client uploads straight to MinIO
+     * and then calls /presign/complete
+     */
+    @PostMapping("/presign/upload")
+    public ResponseEntity<Map<String, Object>> presignUpload(
+            @RequestParam(value = "fileName", required = false) String originalName,
+            @RequestParam(value = "contentType", required = false) String contentType) {
+        try {
+            Map<String, Object> response = new HashMap<>(presignedUrlService.presignUpload(originalName, contentType));
+            response.put("success", true);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error presigning upload: {}", e.getMessage());
+            return serverError(e.getMessage());
+        }
+    }
+
+    /**
+     * Presigned POST policy endpoint for browser form uploads
+     */
+    @PostMapping("/presign/post")
+    public ResponseEntity<Map<String, Object>> presignPost(
+            @RequestParam(value = "fileName", required = false) String originalName,
+            @RequestParam(value = "contentType", required = false) String contentType,
+            @RequestParam(value = "maxSize", defaultValue = "0") long maxSize) {
+        try {
+            Map<String, Object> response = new HashMap<>(
+                    presignedUrlService.presignPost(originalName, contentType, maxSize));
+            response.put("success", true);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error presigning post policy: {}", e.getMessage());
+            return serverError(e.getMessage());
+        }
+    }
+
+    /**
+     * Upload-completion callback for presigned uploads
+     */
+    @PostMapping("/presign/complete")
+    public ResponseEntity<Map<String, Object>> completePresignedUpload(@RequestParam("fileName") String fileName,
+            @RequestParam(value = "conversationId", required = false) String conversationId,
+            @RequestParam(value = "sender", required = false) String sender) {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            StoredObject stored = presignedUrlService.complete(fileName);
+
+            response.put("success", true);
+            response.put("message", "File uploaded successfully");
+            response.put("fileName", stored.getFileName());
+            response.put("originalName", stored.getOriginalName());
+            response.put("size", stored.getSize());
+            response.put("contentType", stored.getContentType());
+            queueJob(response, stored, conversationId, sender);
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error completing presigned upload: {}", e.getMessage());
+            response.put("success", false);
+            response.put("message", "File not found: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+    }
+
+    /**
+     * Presigned GET URL endpoint
+     */
+    @GetMapping("/presign/download/{fileName}")
+    public ResponseEntity<Map<String, Object>> presignDownload(@PathVariable String fileName) {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            response.putAll(presignedUrlService.presignDownload(fileName));
+            response.put("success", true);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("Error presigning download: {}", e.getMessage());
+            response.put("success", false);
+            response.put("message", "File not found: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+    }
+
+    /**
+     * Start a resumable upload, the total size goes in the Upload-Length header.
+     * The client then PATCHes chunks at the current offset and calls complete.
+     */
+    @PostMapping("/resumable")
+    public ResponseEntity<Map<String, Object>> createResumableUpload(@RequestHeader(UPLOAD_LENGTH) long length,
+            @RequestParam(value = "fileName", required = false) String originalName,
+            @RequestParam(value = "contentType", required = false) String contentType,
+            HttpServletRequest request) {
+        if (!resumableUploadService.isEnabled()) {
+            return badRequest("Resumable uploads are disabled");
+        }
+
+        try {
+            UploadSession session = resumableUploadService.create(admissionControl.clientKey(request), originalName,
+                    contentType != null ? contentType : MediaType.APPLICATION_OCTET_STREAM_VALUE, length);
+
+            Map<String, Object> response = sessionResponse(session);
+            response.put("success", true);
+            return ResponseEntity.created(URI.create("/api/files/resumable/" + session.getId()))
+                    .header(UPLOAD_OFFSET, "0")
+                    .body(response);
+
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        } catch (IllegalStateException e) {
+            return tooManyRequests(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error creating resumable upload: {}", e.getMessage());
+            return serverError("Failed to create upload: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Current offset of a resumable upload, where the client resumes after a lost connection
+     */
+    @RequestMapping(value = "/resumable/{uploadId}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> resumableUploadOffset(@PathVariable String uploadId) {
+        UploadSession session = resumableUploadService.get(uploadId);
+        if (session == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .header(UPLOAD_OFFSET, String.valueOf(session.getOffset()))
+                .header(UPLOAD_LENGTH, String.valueOf(session.getLength()))
+                .cacheControl(CacheControl.noStore())
+                .build();
+    }
+
+    @GetMapping("/resumable/{uploadId}")
+    public ResponseEntity<Map<String, Object>> getResumableUpload(@PathVariable String uploadId) {
+        UploadSession session = resumableUploadService.get(uploadId);
+        if (session == null) {
+            return notFound("Unknown or expired upload: " + uploadId);
+        }
+
+        Map<String, Object> response = sessionResponse(session);
+        response.put("success", true);
+        return ResponseEntity.ok()
+                .header(UPLOAD_OFFSET, String.valueOf(session.getOffset()))
+                .cacheControl(CacheControl.noStore())
+                .body(response);
+    }
+
+    /**
+     * Append the request body at Upload-Offset. On a conflict the response
+     * carries the offset to resume from.
+     */
+    @PatchMapping("/resumable/{uploadId}")
+    public ResponseEntity<Map<String, Object>> appendResumableUpload(@PathVariable String uploadId,
+            @RequestHeader(UPLOAD_OFFSET) long offset, HttpServletRequest request) {
+        if (resumableUploadService.get(uploadId) == null) {
+            return notFound("Unknown or expired upload: " + uploadId);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        try {
+            long newOffset = resumableUploadService.append(uploadId, offset, request.getInputStream());
+
+            response.put("success", true);
+            response.put("offset", newOffset);
+            return ResponseEntity.ok().header(UPLOAD_OFFSET, String.valueOf(newOffset)).body(response);
+
+        } catch (IllegalStateException e) {
+            return resumableConflict(uploadId, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error appending to resumable upload {}: {}", uploadId, e.getMessage());
+            UploadSession session = resumableUploadService.get(uploadId);
+            response.put("success", false);
+            response.put("message", "Failed to upload chunk: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .header(UPLOAD_OFFSET, String.valueOf(session != null ? session.getOffset() : offset))
+                    .body(response);
+        }
+    }
+
+    /**
+     * Finish a resumable upload once every byte has arrived
+     */
+    @PostMapping("/resumable/{uploadId}/complete")
+    public ResponseEntity<Map<String, Object>> completeResumableUpload(@PathVariable String uploadId,
+            @RequestParam(value = "conversationId", required = false) String conversationId,
+            @RequestParam(value = "sender", required = false) String sender) {
+        if (resumableUploadService.get(uploadId) == null) {
+            return notFound("Unknown or expired upload: " + uploadId);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        try {
+            StoredObject stored = resumableUploadService.complete(uploadId);
+
+            response.put("success", true);
+            response.put("message", "File uploaded successfully");
+            response.put("fileName", stored.getFileName());
+            response.put("originalName", stored.getOriginalName());
+            response.put("size", stored.getSize());
+            response.put("contentType", stored.getContentType());
+            queueJob(response, stored, conversationId, sender);
+
+            logger.info("Resumable upload completed: {}", stored.getFileName());
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalStateException e) {
+            return resumableConflict(uploadId, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return notFound(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error completing resumable upload {}: {}", uploadId, e.getMessage());
+            return serverError(e.getMessage());
+        }
+    }
+
+    /**
+     * Abort a resumable upload and drop what was uploaded so far
+     */
+    @DeleteMapping("/resumable/{uploadId}")
+    public ResponseEntity<Map<String, Object>> abortResumableUpload(@PathVariable String uploadId) {
+        try {
+            resumableUploadService.abort(uploadId);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Upload aborted");
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalStateException e) {
+            return resumableConflict(uploadId, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return notFound(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error aborting resumable upload {}: {}", uploadId, e.getMessage());
+            return serverError("Failed to abort upload: " + e.getMessage());
+        }
+    }
+
+    private Map<String, Object> sessionResponse(UploadSession session) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("uploadId", session.getId());
+        response.put("fileName", session.getFileName());
+        response.put("originalName", session.getOriginalName());
+        response.put("contentType", session.getContentType());
+        response.put("length", session.getLength());
+        response.put("offset", session.getOffset());
+        response.put("partSize", session.getPartSize());
+        response.put("expiresAt", session.getUpdatedAt() + minioProperties.getResumable().getExpiry().toMillis());
+        return response;
+    }
+
+    private ResponseEntity<Map<String, Object>> resumableConflict(String uploadId, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", message);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(HttpStatus.CONFLICT);
+        UploadSession session = resumableUploadService.get(uploadId);
+        if (session != null) {
+            response.put("offset", session.getOffset());
+            builder.header(UPLOAD_OFFSET, String.valueOf(session.getOffset()));
+        }
+        return builder.body(response);
+    }
+
+    /**
+     * Queue post-upload processing and add the job id to the response
+     */
+    private void queueJob(Map<String, Object> response, StoredObject stored, String conversationId, String sender) {
+        UploadJob job = uploadJobQueue.submit(stored, conversationId, sender);
+        if (job != null) {
+            response.put("jobId", job.getId());
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> badRequest(String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", message);
+        return ResponseEntity.badRequest().body(response);
+    }
+
+    /**
+     * Sort the ranges and merge those that overlap or touch, so each byte is read
+     * at most once and the parts add up to no more than the object. Throws
+     * IllegalArgumentException when a range is not satisfiable.
+     */
+    private static List<HttpRange> coalesce(List<HttpRange> ranges, long size) {
+        List<long[]> bounds = new ArrayList<>();
+        for (HttpRange range : ranges) {
+            bounds.add(new long[] {range.getRangeStart(size), range.getRangeEnd(size)});
+        }
+        bounds.sort(Comparator.comparingLong(range -> range[0]));
+
+        List<HttpRange> merged = new ArrayList<>();
+        long start = -1;
+        long end = -1;
+        for (long[] range : bounds) {
+            if (start >= 0 && range[0] <= end + 1) {
+                end = Math.max(end, range[1]);
+                continue;
+            }
+            if (start >= 0) {
+                merged.add(HttpRange.createByteRange(start, end));
+            }
+            start = range[0];
+            end = range[1];
+        }
+        if (start >= 0) {
+            merged.add(HttpRange.createByteRange(start, end));
+        }
+        return merged;
+    }
+
+    /**
+     * Reserve download budget for the response, or the 429 to answer with when there is none
+     */
+    private ResponseEntity<StreamingResponseBody> admitDownload(HttpServletRequest request, long bytes,
+            InputStream openedStream) throws Exception {
+        if (admissionControl.admitDownload(request, bytes)) {
+            return null;
+        }
+        if (openedStream != null) {
+            openedStream.close();
+        }
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+
+    private ResponseEntity<Map<String, Object>> tooManyRequests(String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", message);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(response);
+    }
+
+    private ResponseEntity<Map<String, Object>> payloadTooLarge(long maxSize) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", "File size exceeds " + maxSize + " bytes limit");
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(response);
+    }
+
+    private ResponseEntity<Map<String, Object>> notFound(String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", message);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+    }
+
+    private ResponseEntity<Map<String, Object>> serverError(String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", message);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+    }
+
     /**
      * Get files endpoint
      */
@@ -85,22 +636,218 @@ public class FileController {
     }
 
     /**
-     * Download file endpoint
+     * Paginated file listing, pass nextStartAfter back as startAfter for the next page
+     */
+    @GetMapping("/list")
+    public ResponseEntity<Map<String, Object>> listFiles(
+            @RequestParam(value = "prefix", required = false) String prefix,
+            @RequestParam(value = "delimiter", required = false) String delimiter,
+            @RequestParam(value = "startAfter", required = false) String startAfter,
+            @RequestParam(value = "maxKeys", defaultValue = "100") int maxKeys) {
+        Map<String, Object> response = new HashMap<>();
+
+        if (maxKeys < 1 || maxKeys > 1000) {
+            response.put("success", false);
+            response.put("message", "maxKeys must be between 1 and 1000");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        try {
+            FilePage page = minioService.listFiles(prefix, delimiter, startAfter, maxKeys);
+
+            response.put("success", true);
+            response.put("data", page.getEntries());
+            response.put("truncated", page.isTruncated());
+            response.put("nextStartAfter", page.getNextStartAfter());
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("Error listing files: {}", e.getMessage());
+            response.put("success", false);
+            response.put("message", "Failed to list files: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Streaming file listing, one JSON object per line as MinIO returns them
+     */
+    @GetMapping(value = "/list/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamFiles(
+            @RequestParam(value = "prefix", required = false) String prefix,
+            @RequestParam(value = "delimiter", required = false) String delimiter,
+            @RequestParam(value = "startAfter", required = false) String startAfter,
+            @RequestParam(value = "maxKeys", defaultValue = "0") long maxKeys) {
+        StreamingResponseBody body = out -> {
+            try {
+                minioService.streamFiles(prefix, delimiter, startAfter, maxKeys, entry -> {
+                    out.write(objectMapper.writeValueAsBytes(entry));
+                    out.write('\n');
+                });
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                // Headers are already sent, all we can do is cut the stream short
+                logger.error("Error streaming file list: {}", e.getMessage());
+                throw new IOException(e.getMessage(), e);
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Download file endpoint, supports single and multiple byte ranges (RFC 7233)
+     * and conditional requests (RFC 7232)
      */
     @GetMapping("/download/{fileName}")
-    public ResponseEntity<InputStreamResource> downloadFile(@PathVariable String fileName) {
+    public ResponseEntity<StreamingResponseBody> downloadFile(@PathVariable String fileName, HttpServletRequest request,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.IF_MODIFIED_SINCE, required = false) String ifModifiedSince,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         try {
-            InputStream inputStream = minioService.downloadFile(fileName);
-            StatObjectResponse fileInfo = minioService.getFileInfo(fileName);
+            boolean conditional = ifNoneMatch != null || ifModifiedSince != null;
+
+            // A plain GET needs only one round trip: GetObject fills the metadata cache
+            // from its response headers. Ranges need the size first, from cache or stat,
+            // and so does the disk cache, which is keyed by ETag.
+            InputStream fullStream = null;
+            StatObjectResponse cached = minioService.getCachedFileInfo(fileName);
+            if (rangeHeader == null && !conditional && !diskObjectCache.accepts(cached != null ? cached.size() : 0)
+                    && (cached == null || !minioService.isParallelDownload(cached.size()))) {
+                fullStream = minioService.downloadFile(fileName);
+            }
+
+            // A 304 is only as good as the metadata it is based on, so conditional
+            // requests revalidate with a stat instead of trusting the cache
+            StatObjectResponse fileInfo = minioService.getFileInfo(fileName, conditional);
+            long size = fileInfo.size();
+            String contentType = fileInfo.contentType();
+
+            // Stored gzip-compressed: sent as is to clients that accept gzip (ranges then apply
+            // to the compressed bytes), decompressed on the fly for the others. The two
+            // representations differ, so the gzip one has its own ETag.
+            boolean storedGzip = objectCompressor.isCompressed(fileInfo);
+            boolean sendGzip = storedGzip && ObjectCompressor.acceptsGzip(acceptEncoding);
+            String etag = sendGzip ? fileInfo.etag() + GZIP_ETAG_SUFFIX : fileInfo.etag();
 
             HttpHeaders headers = new HttpHeaders();
+            headers.add(HttpHeaders.ACCEPT_RANGES, "bytes");
+            addValidators(headers, etag, fileInfo, cacheControl(contentType));
+            if (storedGzip) {
+                headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+
+            // Not modified: answered from a fresh stat alone, no GetObject
+            if (conditional && notModified(ifNoneMatch, ifModifiedSince, etag, fileInfo)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+            }
             headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName);
-            headers.add(HttpHeaders.CONTENT_TYPE, fileInfo.contentType());
-            headers.add(HttpHeaders.CONTENT_LENGTH, String.valueOf(fileInfo.size()));
 
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(new InputStreamResource(inputStream));
+            if (storedGzip) {
+                if (!sendGzip) {
+                    headers.set(HttpHeaders.ACCEPT_RANGES, "none");
+                    headers.add(HttpHeaders.CONTENT_TYPE, contentType);
+                    long originalSize = objectCompressor.originalSize(fileInfo);
+                    if (originalSize >= 0) {
+                        headers.add(HttpHeaders.CONTENT_LENGTH, String.valueOf(originalSize));
+                    }
+
+                    ResponseEntity<StreamingResponseBody> rejected = admitDownload(request, size, fullStream);
+                    if (rejected != null) {
+                        return rejected;
+                    }
+                    InputStream compressed = fullStream != null ? fullStream : minioService.downloadFile(fileName);
+                    StreamingResponseBody body = out -> {
+                        try (InputStream inputStream = objectCompressor.decompress(compressed)) {
+                            inputStream.transferTo(out);
+                        }
+                    };
+                    return ResponseEntity.ok().headers(headers).body(body);
+                }
+                headers.add(HttpHeaders.CONTENT_ENCODING, ObjectCompressor.ENCODING);
+            }
+
+            List<HttpRange> ranges = List.of();
+            if (rangeHeader != null && ifRangeMatches(ifRange, etag, fileInfo)) {
+                try {
+                    ranges = coalesce(HttpRange.parseRanges(rangeHeader), size);
+                } catch (IllegalArgumentException e) {
+                    headers.add(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).headers(headers).build();
+                }
+            }
+
+            long responseBytes = ranges.isEmpty() ? size : 0;
+            for (HttpRange range : ranges) {
+                responseBytes += range.getRangeEnd(size) - range.getRangeStart(size) + 1;
+            }
+            ResponseEntity<StreamingResponseBody> rejected = admitDownload(request, responseBytes, fullStream);
+            if (rejected != null) {
+                return rejected;
+            }
+
+            // Whole object
+            if (ranges.isEmpty()) {
+                headers.add(HttpHeaders.CONTENT_TYPE, contentType);
+                headers.add(HttpHeaders.CONTENT_LENGTH, String.valueOf(size));
+
+                InputStream cachedStream = fullStream == null ? minioService.downloadThroughCache(fileName, fileInfo) : null;
+                if (fullStream == null && cachedStream == null && minioService.isParallelDownload(size)) {
+                    StreamingResponseBody body = out -> minioService.writeRange(
+                            fileName, fileInfo.etag(), 0, size, out);
+                    return ResponseEntity.ok().headers(headers).body(body);
+                }
+
+                InputStream stream = fullStream != null ? fullStream
+                        : cachedStream != null ? cachedStream : minioService.downloadFile(fileName);
+                StreamingResponseBody body = out -> {
+                    try (InputStream inputStream = stream) {
+                        inputStream.transferTo(out);
+                    }
+                };
+                return ResponseEntity.ok().headers(headers).body(body);
+            }
+
+            // Single range
+            if (ranges.size() == 1) {
+                long start = ranges.get(0).getRangeStart(size);
+                long end = ranges.get(0).getRangeEnd(size);
+                long length = end - start + 1;
+
+                headers.add(HttpHeaders.CONTENT_TYPE, contentType);
+                headers.add(HttpHeaders.CONTENT_LENGTH, String.valueOf(length));
+                headers.add(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+
+                FileChannel cachedCopy = minioService.openCachedCopy(fileName, fileInfo);
+                StreamingResponseBody body = cachedCopy != null
+                        ? out -> diskObjectCache.transfer(cachedCopy, start, length, out)
+                        : out -> minioService.writeRange(fileName, fileInfo.etag(), start, length, out);
+                return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT).headers(headers).body(body);
+            }
+
+            // Multiple ranges: multipart/byteranges, one ranged read per part
+            List<HttpRange> parts = ranges;
+            String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+            headers.add(HttpHeaders.CONTENT_TYPE, "multipart/byteranges; boundary=" + boundary);
+
+            StreamingResponseBody body = out -> {
+                for (HttpRange range : parts) {
+                    long start = range.getRangeStart(size);
+                    long end = range.getRangeEnd(size);
+                    String partHeader = "\r\n--" + boundary + "\r\n"
+                            + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                            + HttpHeaders.CONTENT_RANGE + ": bytes " + start + "-" + end + "/" + size + "\r\n\r\n";
+                    out.write(partHeader.getBytes(StandardCharsets.US_ASCII));
+                    minioService.writeRange(fileName, fileInfo.etag(), start, end - start + 1, out);
+                }
+                out.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+            };
+            return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT).headers(headers).body(body);
 
         } catch (Exception e) {
             logger.error("Error downloading file: {}", e.getMessage());
@@ -108,24 +855,124 @@ public class FileController {
         }
     }
 
+    /**
+     * Strong validators and caching policy shared by the download and info responses
+     */
+    private void addValidators(HttpHeaders headers, String etag, StatObjectResponse fileInfo, String cacheControl) {
+        headers.setETag("\"" + etag + "\"");
+        if (fileInfo.lastModified() != null) {
+            headers.setLastModified(fileInfo.lastModified());
+        }
+        if (cacheControl != null && !cacheControl.isEmpty()) {
+            headers.setCacheControl(cacheControl);
+        }
+    }
+
+    /**
+     * Cache-Control for a content type, the longest configured prefix wins
+     */
+    private String cacheControl(String contentType) {
+        MinioProperties.HttpCache httpCache = minioProperties.getHttpCache();
+        String policy = httpCache.getDefaultPolicy();
+        int matched = -1;
+        if (contentType != null) {
+            for (Map.Entry<String, String> entry : httpCache.getPolicies().entrySet()) {
+                if (contentType.startsWith(entry.getKey()) && entry.getKey().length() > matched) {
+                    policy = entry.getValue();
+                    matched = entry.getKey().length();
+                }
+            }
+        }
+        return policy;
+    }
+
+    /**
+     * If-None-Match takes precedence; If-Modified-Since is only used without it
+     */
+    private boolean notModified(String ifNoneMatch, String ifModifiedSince, String representationEtag,
+            StatObjectResponse fileInfo) {
+        if (ifNoneMatch != null) {
+            String etag = "\"" + representationEtag + "\"";
+            for (String candidate : ifNoneMatch.split(",")) {
+                String value = candidate.trim();
+                // Weak comparison, as RFC 7232 requires for If-None-Match
+                if (value.startsWith("W/")) {
+                    value = value.substring(2);
+                }
+                if (value.equals("*") || value.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(ifModifiedSince.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            return fileInfo.lastModified() != null
+                    && fileInfo.lastModified().toEpochSecond() <= date.toEpochSecond();
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * If-Range holds either a strong ETag or an HTTP date; ranges apply only when it still matches
+     */
+    private boolean ifRangeMatches(String ifRange, String etag, StatObjectResponse fileInfo) {
+        if (ifRange == null) {
+            return true;
+        }
+
+        String value = ifRange.trim();
+        if (value.startsWith("W/")) {
+            return false;
+        }
+        if (value.startsWith("\"")) {
+            return value.equals("\"" + etag + "\"");
+        }
+
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return fileInfo.lastModified() != null
+                    && date.toEpochSecond() == fileInfo.lastModified().toEpochSecond();
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
     /**
      * Get file info endpoint
      */
     @GetMapping("{fileName}")
-    public ResponseEntity<Map<String, Object>> getFileInfo(@PathVariable String fileName) {
+    public ResponseEntity<Map<String, Object>> getFileInfo(@PathVariable String fileName,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.IF_MODIFIED_SINCE, required = false) String ifModifiedSince) {
         Map<String, Object> response = new HashMap<>();
 
         try {
-            StatObjectResponse fileInfo = minioService.getFileInfo(fileName);
+            boolean conditional = ifNoneMatch != null || ifModifiedSince != null;
+            StatObjectResponse fileInfo = minioService.getFileInfo(fileName, conditional);
+
+            HttpHeaders headers = new HttpHeaders();
+            addValidators(headers, fileInfo.etag(), fileInfo, minioProperties.getHttpCache().getInfoPolicy());
+            if (conditional && notModified(ifNoneMatch, ifModifiedSince, fileInfo.etag(), fileInfo)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+            }
 
             response.put("success", true);
             response.put("fileName", fileName);
             response.put("size", fileInfo.size());
             response.put("contentType", fileInfo.contentType());
+            if (objectCompressor.isCompressed(fileInfo)) {
+                long originalSize = objectCompressor.originalSize(fileInfo);
+                response.put("contentEncoding", ObjectCompressor.ENCODING);
+                response.put("storedSize", fileInfo.size());
+                response.put("size", originalSize >= 0 ? originalSize : null);
+            }
             response.put("lastModified", fileInfo.lastModified());
             response.put("etag", fileInfo.etag());
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().headers(headers).body(response);
 
         } catch (Exception e) {
             logger.error("Error getting file info: {}", e.getMessage());
@@ -135,6 +982,37 @@ public class FileController {
         }
     }
 
+    /**
+     * Resized image variant endpoint, fits the image inside w x h
+     */
+    @GetMapping("/{fileName}/variant")
+    public ResponseEntity<byte[]> getVariant(@PathVariable String fileName, HttpServletRequest request,
+            @RequestParam(value = "w", defaultValue = "0") int width,
+            @RequestParam(value = "h", defaultValue = "0") int height,
+            @RequestParam(value = "fmt", defaultValue = "jpg") String format) {
+        try {
+            String normalized = format.toLowerCase();
+            byte[] variant = imageVariantService.getVariant(fileName, width, height, normalized);
+            if (!admissionControl.admitDownload(request, variant.length)) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").build();
+            }
+
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_TYPE, ImageVariantService.contentType(normalized))
+                    .body(variant);
+
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid variant request for {}: {}", fileName, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (RejectedExecutionException e) {
+            logger.warn("Variant workers busy, rejected {}", fileName);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (Exception e) {
+            logger.error("Error rendering variant: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     /**
      * Delete file endpoint
      */
@@ -161,14 +1039,157 @@ public class FileController {
     }
 
     /**
-     * Health check endpoint
+     * Batch delete endpoint, body is a JSON array of file names
+     */
+    @PostMapping("/delete/batch")
+    public ResponseEntity<Map<String, Object>> deleteFiles(@RequestBody List<String> fileNames) {
+        Map<String, Object> response = new HashMap<>();
+
+        if (fileNames.isEmpty() || fileNames.size() > batchFileService.getMaxFiles()) {
+            response.put("success", false);
+            response.put("message", "Between 1 and " + batchFileService.getMaxFiles() + " files are allowed");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        try {
+            Map<String, String> errors = minioService.deleteFiles(new LinkedHashSet<>(fileNames));
+
+            response.put("success", errors.isEmpty());
+            response.put("message", errors.isEmpty()
+                    ? "Files deleted successfully"
+                    : "Failed to delete " + errors.size() + " files");
+            response.put("errors", errors);
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("Error deleting files: {}", e.getMessage());
+            response.put("success", false);
+            response.put("message", "Failed to delete files: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Zip archive endpoint, body is a JSON array of file names.
+     * The zip is written while the objects are read, nothing is spooled to disk.
+     */
+    @PostMapping("/archive")
+    public ResponseEntity<StreamingResponseBody> downloadArchive(@RequestBody List<String> fileNames,
+            @RequestParam(value = "name", defaultValue = "files.zip") String archiveName,
+            HttpServletRequest request) {
+        if (fileNames.isEmpty() || fileNames.size() > batchFileService.getMaxFiles()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        LinkedHashSet<String> entries = new LinkedHashSet<>(fileNames);
+        try {
+            // Stored sizes bound the zip, BEST_SPEED deflate only adds a few bytes per entry
+            long archiveSize = batchFileService.archiveSize(entries);
+            ResponseEntity<StreamingResponseBody> rejected = admitDownload(request, archiveSize, null);
+            if (rejected != null) {
+                return rejected;
+            }
+        } catch (Exception e) {
+            logger.error("Error admitting archive: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+        StreamingResponseBody body = out -> batchFileService.writeArchive(entries, out);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + archiveName)
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
+    }
+
+    /**
+     * Status of a post-upload job
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> getJob(@PathVariable String jobId) {
+        Map<String, Object> response = new HashMap<>();
+        UploadJob job = uploadJobQueue.get(jobId);
+        if (job == null) {
+            response.put("success", false);
+            response.put("message", "Job not found: " + jobId);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        response.put("success", true);
+        response.put("data", job);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Newest post-upload jobs, optionally filtered by status (QUEUED, RUNNING, RETRYING, DONE, FAILED)
+     */
+    @GetMapping("/jobs")
+    public ResponseEntity<Map<String, Object>> listJobs(
+            @RequestParam(value = "status", required = false) UploadJob.Status status,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        if (limit < 1 || limit > 1000) {
+            return badRequest("limit must be between 1 and 1000");
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", uploadJobQueue.list(status, limit));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Local disk cache statistics
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> cacheStats() {
+        Map<String, Object> response = new HashMap<>(diskObjectCache.stats());
+        response.put("success", true);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Compression statistics: objects compressed or skipped, bytes before and after
+     */
+    @GetMapping("/compression/stats")
+    public ResponseEntity<Map<String, Object>> compressionStats() {
+        Map<String, Object> response = new HashMap<>(objectCompressor.stats());
+        response.put("success", true);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Admission control statistics: clients tracked, rejections, bytes in flight
+     */
+    @GetMapping("/admission/stats")
+    public ResponseEntity<Map<String, Object>> admissionStats() {
+        Map<String, Object> response = new HashMap<>(admissionControl.stats());
+        response.put("success", true);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * MinIO client statistics: request latency, connection pool and dispatcher usage
+     */
+    @GetMapping("/client/stats")
+    public ResponseEntity<Map<String, Object>> clientStats() {
+        Map<String, Object> response = new HashMap<>(minioClientMetrics.stats());
+        response.put("endpoints", minioEndpointBalancer.size());
+        response.put("healthyEndpoints", minioEndpointBalancer.healthyCount());
+        response.put("success", true);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Health check endpoint, DOWN (503) when MinIO is unreachable
      */
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> healthCheck() {
+        Health health = minioHealthIndicator.health();
         Map<String, Object> response = new HashMap<>();
-        response.put("status", "UP");
+        response.put("status", health.getStatus().getCode());
         response.put("service", "MinIO File Service");
+        response.put("minio", health.getDetails());
         response.put("timestamp", System.currentTimeMillis());
-        return ResponseEntity.ok(response);
+        return Status.UP.equals(health.getStatus())
+                ? ResponseEntity.ok(response)
+                : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
     }
 }
@@ -0,0 +1,39 @@
+package com.example.minio.entity;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BatchUploadResult {
+    private List<StoredObject> uploaded = new ArrayList<>();
+    private Map<String, String> errors = new LinkedHashMap<>(); // original name -> error message
+
+    public BatchUploadResult() {
+    }
+
+    public BatchUploadResult(List<StoredObject> uploaded, Map<String, String> errors) {
+        this.uploaded = uploaded;
+        this.errors = errors;
+    }
+
+    public List<StoredObject> getUploaded() {
+        return uploaded;
+    }
+
+    public void setUploaded(List<StoredObject> uploaded) {
+        this.uploaded = uploaded;
+    }
+
+    public Map<String, String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(Map<String, String> errors) {
+        this.errors = errors;
+    }
+
+    public boolean isComplete() {
+        return errors.isEmpty();
+    }
+}
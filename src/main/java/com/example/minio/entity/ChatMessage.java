@@ -5,6 +5,9 @@ public class ChatMessage {
     private String content;
     private String type; // "CHAT", "JOIN", "LEAVE"
     private String conversationId;
+    private long sequence; // assigned by the server, starts at 1 in each conversation
+    private long timestamp; // server receive time, epoch millis
+    private String clientMessageId; // set by the client or on receipt, the owner stores a message once per id
 
     public String getConversationId() {
         return conversationId;
@@ -14,6 +17,30 @@ public class ChatMessage {
         this.conversationId = conversationId;
     }
 
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public String getClientMessageId() {
+        return clientMessageId;
+    }
+
+    public void setClientMessageId(String clientMessageId) {
+        this.clientMessageId = clientMessageId;
+    }
+
     public ChatMessage() {
     }
 
@@ -1,14 +1,32 @@
 package com.example.minio.entity;
 
-import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 public class Conversation {
+    // Client message ids remembered per conversation to drop repeated deliveries
+    private static final int RECENT_CLIENT_MESSAGE_IDS = 1024;
+
     private String id;
-    private Set<String> participants = new HashSet<>();
-    private List<ChatMessage> messages = new ArrayList<>();
+    private Set<String> participants = ConcurrentHashMap.newKeySet();
+    private MessageLog messages = new MessageLog();
+    // user id -> highest sequence the user has read
+    private final Map<String, Long> readMarkers = new ConcurrentHashMap<>();
+    // Held from stamping sequences until the written messages are appended
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // Guarded by the write lock, oldest first
+    private final Map<String, Boolean> recentClientMessageIds = new LinkedHashMap<>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > RECENT_CLIENT_MESSAGE_IDS;
+        }
+    };
 
     public String getId() {
         return id;
@@ -23,14 +41,58 @@ public class Conversation {
     }
 
     public void setParticipants(Set<String> participants) {
-        this.participants = participants;
+        Set<String> copy = ConcurrentHashMap.newKeySet();
+        copy.addAll(participants);
+        this.participants = copy;
     }
 
+    /**
+     * Snapshot of the messages, safe to read while others append
+     */
     public List<ChatMessage> getMessages() {
-        return messages;
+        return messages.snapshot();
     }
 
     public void setMessages(List<ChatMessage> messages) {
-        this.messages = messages;
+        this.messages = new MessageLog(messages);
+    }
+
+    public void addMessage(ChatMessage message) {
+        messages.append(message);
+    }
+
+    @JsonIgnore
+    public MessageLog getMessageLog() {
+        return messages;
+    }
+
+    @JsonIgnore
+    public ReentrantLock getWriteLock() {
+        return writeLock;
+    }
+
+    /**
+     * Whether a message with this client id was stored recently, call with the write lock held
+     */
+    public boolean isRecentClientMessageId(String clientMessageId) {
+        return clientMessageId != null && recentClientMessageIds.containsKey(clientMessageId);
+    }
+
+    /**
+     * Remember the client id of a stored message, call with the write lock held
+     */
+    public void rememberClientMessageId(String clientMessageId) {
+        if (clientMessageId != null) {
+            recentClientMessageIds.put(clientMessageId, Boolean.TRUE);
+        }
+    }
+
+    public void markRead(String userId, long sequence) {
+        readMarkers.merge(userId, sequence, Math::max);
+    }
+
+    public long unreadCount(String userId) {
+        long read = readMarkers.getOrDefault(userId, 0L);
+        return Math.max(messages.lastSequence() - read, 0);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,61 @@
+package com.example.minio.entity;
+
+public class ConversationSummary {
+    private String id;
+    private int participantCount;
+    private long messageCount;
+    private Long unreadCount; // only when listing for a user
+    private ChatMessage lastMessage;
+
+    public ConversationSummary() {
+    }
+
+    public ConversationSummary(String id, int participantCount, long messageCount, Long unreadCount,
+            ChatMessage lastMessage) {
+        this.id = id;
+        this.participantCount = participantCount;
+        this.messageCount = messageCount;
+        this.unreadCount = unreadCount;
+        this.lastMessage = lastMessage;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public int getParticipantCount() {
+        return participantCount;
+    }
+
+    public void setParticipantCount(int participantCount) {
+        this.participantCount = participantCount;
+    }
+
+    public long getMessageCount() {
+        return messageCount;
+    }
+
+    public void setMessageCount(long messageCount) {
+        this.messageCount = messageCount;
+    }
+
+    public Long getUnreadCount() {
+        return unreadCount;
+    }
+
+    public void setUnreadCount(Long unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+
+    public ChatMessage getLastMessage() {
+        return lastMessage;
+    }
+
+    public void setLastMessage(ChatMessage lastMessage) {
+        this.lastMessage = lastMessage;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.minio.entity;
+
+import java.time.ZonedDateTime;
+
+public class FileEntry {
+    private String name;
+    private long size;
+    private String etag;
+    private ZonedDateTime lastModified;
+    private boolean dir; // common prefix when listing with a delimiter
+
+    public FileEntry() {
+    }
+
+    public FileEntry(String name, long size, String etag, ZonedDateTime lastModified, boolean dir) {
+        this.name = name;
+        this.size = size;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.dir = dir;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public void setEtag(String etag) {
+        this.etag = etag;
+    }
+
+    public ZonedDateTime getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(ZonedDateTime lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public boolean isDir() {
+        return dir;
+    }
+
+    public void setDir(boolean dir) {
+        this.dir = dir;
+    }
+}
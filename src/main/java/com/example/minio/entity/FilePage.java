@@ -0,0 +1,36 @@
+package com.example.minio.entity;
+
+import java.util.List;
+
+public class FilePage {
+    private List<FileEntry> entries;
+    private String nextStartAfter; // null on the last page
+
+    public FilePage() {
+    }
+
+    public FilePage(List<FileEntry> entries, String nextStartAfter) {
+        this.entries = entries;
+        this.nextStartAfter = nextStartAfter;
+    }
+
+    public List<FileEntry> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<FileEntry> entries) {
+        this.entries = entries;
+    }
+
+    public String getNextStartAfter() {
+        return nextStartAfter;
+    }
+
+    public void setNextStartAfter(String nextStartAfter) {
+        this.nextStartAfter = nextStartAfter;
+    }
+
+    public boolean isTruncated() {
+        return nextStartAfter != null;
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.minio.entity;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Append-only message list addressed by sequence number. Appends are serialized
+ * per log, readers never lock and always see a consistent view.
+ * With a tail limit only the newest messages are kept; older ones live on disk.
+ */
+public class MessageLog {
+
+    /**
+     * Immutable view of the held messages: items[0..count) have sequences base..base+count-1
+     */
+    private static final class View {
+        final ChatMessage[] items;
+        final long base;
+        final int count;
+
+        View(ChatMessage[] items, long base, int count) {
+            this.items = items;
+            this.base = base;
+            this.count = count;
+        }
+    }
+
+    private volatile View view;
+    private volatile int maxTail; // 0 keeps every message
+
+    public MessageLog() {
+        this.view = new View(new ChatMessage[16], 1, 0);
+    }
+
+    public MessageLog(List<ChatMessage> messages) {
+        ChatMessage[] items = messages.toArray(new ChatMessage[Math.max(messages.size(), 16)]);
+        long base = messages.isEmpty() ? 1 : messages.get(0).getSequence();
+        this.view = new View(items, base, messages.size());
+    }
+
+    public void setMaxTail(int maxTail) {
+        this.maxTail = maxTail;
+    }
+
+    /**
+     * Append a message and stamp its sequence number, returns the sequence
+     */
+    public synchronized long append(ChatMessage message) {
+        View current = view;
+        long sequence = current.base + current.count;
+        message.setSequence(sequence);
+        store(current, message);
+        return sequence;
+    }
+
+    /**
+     * Append a message that already carries its sequence: replayed from disk,
+     * replicated from another node, or stamped before it was written to disk.
+     * A sequence already held is a repeated delivery and is ignored.
+     */
+    public synchronized void restore(ChatMessage message) {
+        View current = view;
+        long next = current.base + current.count;
+        if (current.count > 0 && message.getSequence() < next) {
+            return;
+        }
+        if (current.count == 0 || message.getSequence() > next) {
+            // First message, or a gap left by retention: start over from this sequence
+            ChatMessage[] items = new ChatMessage[Math.max(current.items.length, 16)];
+            items[0] = message;
+            view = new View(items, message.getSequence(), 1);
+            return;
+        }
+        store(current, message);
+    }
+
+    private void store(View current, ChatMessage message) {
+        ChatMessage[] items = current.items;
+        long base = current.base;
+        int count = current.count;
+
+        if (count == items.length) {
+            int tail = maxTail;
+            if (tail > 0 && count >= tail * 2) {
+                // Drop everything but the newest tail messages
+                ChatMessage[] trimmed = new ChatMessage[items.length];
+                System.arraycopy(items, count - tail, trimmed, 0, tail);
+                base += count - tail;
+                count = tail;
+                items = trimmed;
+            } else {
+                items = Arrays.copyOf(items, items.length * 2);
+            }
+        }
+
+        items[count] = message;
+        // Publishing the new view makes the element visible to readers
+        view = new View(items, base, count + 1);
+    }
+
+    /**
+     * Number of messages ever appended, equal to the last sequence
+     */
+    public long lastSequence() {
+        View current = view;
+        return current.base + current.count - 1;
+    }
+
+    /**
+     * Oldest sequence still held in memory
+     */
+    public long firstSequence() {
+        return view.base;
+    }
+
+    public int size() {
+        return (int) Math.min(lastSequence(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Held messages with sequence in [from, to), oldest first
+     */
+    public List<ChatMessage> range(long from, long to) {
+        View current = view;
+        long start = Math.max(from, current.base) - current.base;
+        long end = Math.min(to, current.base + current.count) - current.base;
+        if (start >= end) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(Arrays.asList(Arrays.copyOfRange(current.items, (int) start, (int) end)));
+    }
+
+    public ChatMessage last() {
+        View current = view;
+        return current.count == 0 ? null : current.items[current.count - 1];
+    }
+
+    public List<ChatMessage> snapshot() {
+        return range(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.minio.entity;
+
+public class StoredObject {
+    private String fileName;
+    private String originalName;
+    private String contentType;
+    private long size;
+
+    public StoredObject() {
+    }
+
+    public StoredObject(String fileName, String originalName, String contentType, long size) {
+        this.fileName = fileName;
+        this.originalName = originalName;
+        this.contentType = contentType;
+        this.size = size;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getOriginalName() {
+        return originalName;
+    }
+
+    public void setOriginalName(String originalName) {
+        this.originalName = originalName;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+}
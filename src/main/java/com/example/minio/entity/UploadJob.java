@@ -0,0 +1,188 @@
+package com.example.minio.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A job is changed by the worker that runs it and read by the journal and the status
+ * endpoints; every access goes through the job's monitor. Serialize it while holding
+ * that monitor to get a consistent snapshot.
+ */
+public class UploadJob {
+
+    public enum Status {
+        QUEUED, RUNNING, RETRYING, DONE, FAILED
+    }
+
+    private String id;
+    private String fileName;
+    private String contentType;
+    private long size;
+    private String conversationId; // conversation the file was shared in, may be null
+    private String sender;
+    private Status status;
+    private String stage; // current stage, null once done
+    private int attempts; // attempts of the current stage
+    private String lastError;
+    private Map<String, Object> results = new ConcurrentHashMap<>(); // what the stages found out
+    private long createdAt;
+    private long updatedAt;
+
+    public UploadJob() {
+    }
+
+    public UploadJob(String id, StoredObject stored, String conversationId, String sender) {
+        this.id = id;
+        this.fileName = stored.getFileName();
+        this.contentType = stored.getContentType();
+        this.size = stored.getSize();
+        this.conversationId = conversationId;
+        this.sender = sender;
+        this.status = Status.QUEUED;
+        this.createdAt = System.currentTimeMillis();
+        this.updatedAt = createdAt;
+    }
+
+    /**
+     * Snapshot for readers outside the worker that owns the job
+     */
+    public synchronized UploadJob copy() {
+        UploadJob copy = new UploadJob();
+        copy.id = id;
+        copy.fileName = fileName;
+        copy.contentType = contentType;
+        copy.size = size;
+        copy.conversationId = conversationId;
+        copy.sender = sender;
+        copy.status = status;
+        copy.stage = stage;
+        copy.attempts = attempts;
+        copy.lastError = lastError;
+        copy.results = new ConcurrentHashMap<>(results);
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        return copy;
+    }
+
+    @JsonIgnore
+    public synchronized boolean isFinished() {
+        return status == Status.DONE || status == Status.FAILED;
+    }
+
+    public synchronized String getId() {
+        return id;
+    }
+
+    public synchronized void setId(String id) {
+        this.id = id;
+    }
+
+    public synchronized String getFileName() {
+        return fileName;
+    }
+
+    public synchronized void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public synchronized String getContentType() {
+        return contentType;
+    }
+
+    public synchronized void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public synchronized void setSize(long size) {
+        this.size = size;
+    }
+
+    public synchronized String getConversationId() {
+        return conversationId;
+    }
+
+    public synchronized void setConversationId(String conversationId) {
+        this.conversationId = conversationId;
+    }
+
+    public synchronized String getSender() {
+        return sender;
+    }
+
+    public synchronized void setSender(String sender) {
+        this.sender = sender;
+    }
+
+    public synchronized Status getStatus() {
+        return status;
+    }
+
+    public synchronized void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public synchronized String getStage() {
+        return stage;
+    }
+
+    public synchronized void setStage(String stage) {
+        this.stage = stage;
+    }
+
+    public synchronized int getAttempts() {
+        return attempts;
+    }
+
+    public synchronized void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public synchronized String getLastError() {
+        return lastError;
+    }
+
+    public synchronized void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    /**
+     * The live map, for serialization; use getResult and putResult otherwise
+     */
+    public synchronized Map<String, Object> getResults() {
+        return results;
+    }
+
+    public synchronized void setResults(Map<String, Object> results) {
+        this.results = new ConcurrentHashMap<>(results);
+    }
+
+    public synchronized Object getResult(String key) {
+        return results.get(key);
+    }
+
+    public synchronized void putResult(String key, Object value) {
+        results.put(key, value);
+    }
+
+    public synchronized long getCreatedAt() {
+        return createdAt;
+    }
+
+    public synchronized void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public synchronized long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public synchronized void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.minio.entity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class UploadSession {
+
+    private String id;
+    private String client; // who opened the session, counted against minio.resumable.max-sessions-per-client
+    private String fileName; // object the upload completes into
+    private String originalName;
+    private String contentType;
+    private long length; // total size announced when the session was created
+    private long offset; // bytes received so far
+    private int partSize;
+    private String uploadId; // multipart upload, null until the first part is sent
+    private List<String> parts = new ArrayList<>(); // ETags of the parts sent, in part number order
+    private long createdAt;
+    private long updatedAt;
+
+    public UploadSession() {
+    }
+
+    public UploadSession(String id, String client, String fileName, String originalName, String contentType,
+            long length, int partSize) {
+        this.id = id;
+        this.client = client;
+        this.fileName = fileName;
+        this.originalName = originalName;
+        this.contentType = contentType;
+        this.length = length;
+        this.partSize = partSize;
+        this.createdAt = System.currentTimeMillis();
+        this.updatedAt = createdAt;
+    }
+
+    /**
+     * Snapshot for readers outside the request that owns the session
+     */
+    public UploadSession copy() {
+        UploadSession copy = new UploadSession();
+        copy.id = id;
+        copy.client = client;
+        copy.fileName = fileName;
+        copy.originalName = originalName;
+        copy.contentType = contentType;
+        copy.length = length;
+        copy.offset = offset;
+        copy.partSize = partSize;
+        copy.uploadId = uploadId;
+        copy.parts = new ArrayList<>(parts);
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        return copy;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getClient() {
+        return client;
+    }
+
+    public void setClient(String client) {
+        this.client = client;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getOriginalName() {
+        return originalName;
+    }
+
+    public void setOriginalName(String originalName) {
+        this.originalName = originalName;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public void setLength(long length) {
+        this.length = length;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public void setOffset(long offset) {
+        this.offset = offset;
+    }
+
+    public int getPartSize() {
+        return partSize;
+    }
+
+    public void setPartSize(int partSize) {
+        this.partSize = partSize;
+    }
+
+    public String getUploadId() {
+        return uploadId;
+    }
+
+    public void setUploadId(String uploadId) {
+        this.uploadId = uploadId;
+    }
+
+    public List<String> getParts() {
+        return parts;
+    }
+
+    public void setParts(List<String> parts) {
+        this.parts = parts;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.minio.jobs;
+
+import com.example.minio.entity.ChatMessage;
+import com.example.minio.entity.UploadJob;
+import com.example.minio.service.ChatMessagePipeline;
+import com.example.minio.service.ChatService;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Posts a FILE message to the conversation the file was shared in, once it has
+ * been checked. The sender comes from the upload request, so it must have joined the
+ * conversation. Jobs go through the chat pipeline in batch order; a job that was
+ * already announced is not announced again when it runs again after a restart.
+ */
+@Component
+@Order(4)
+public class ChatNotifyStage implements UploadJobStage {
+
+    private final ChatMessagePipeline chatMessagePipeline;
+    private final ChatService chatService;
+
+    public ChatNotifyStage(ChatMessagePipeline chatMessagePipeline, ChatService chatService) {
+        this.chatMessagePipeline = chatMessagePipeline;
+        this.chatService = chatService;
+    }
+
+    @Override
+    public String name() {
+        return "notify";
+    }
+
+    @Override
+    public boolean accepts(UploadJob job) {
+        return job.getConversationId() != null;
+    }
+
+    @Override
+    public void process(UploadJob job) throws Exception {
+        if (Boolean.TRUE.equals(job.getResult("notified"))) {
+            return;
+        }
+
+        if (!chatService.isParticipant(job.getConversationId(), job.getSender())) {
+            throw new IllegalArgumentException(
+                    "Sender " + job.getSender() + " is not a participant of conversation " + job.getConversationId());
+        }
+
+        ChatMessage message = new ChatMessage(job.getSender(), job.getFileName(), "FILE");
+        message.setConversationId(job.getConversationId());
+        if (!chatMessagePipeline.accept(message)) {
+            throw new Exception("Chat pipeline is full");
+        }
+        job.putResult("notified", true);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.minio.jobs;
+
+import com.example.minio.config.MinioProperties;
+import com.example.minio.entity.UploadJob;
+import com.example.minio.service.ContentAliasIndex;
+import com.example.minio.service.MinioService;
+import com.example.minio.service.ObjectCompressor;
+import io.minio.GetObjectResponse;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * Reads the stored object back and checks it: the size against the upload, the MD5
+ * against a single-part ETag and, for deduplicated files, the SHA-256 against the
+ * content key. The SHA-256 (of the stored bytes, compressed or not) is kept in the
+ * job results.
+ */
+@Component
+@Order(2)
+public class ChecksumStage implements UploadJobStage {
+
+    private final MinioService minioService;
+    private final ContentAliasIndex aliasIndex;
+    private final ObjectCompressor objectCompressor;
+    private final String dedupPrefix;
+
+    public ChecksumStage(MinioService minioService, ContentAliasIndex aliasIndex, ObjectCompressor objectCompressor,
+            MinioProperties minioProperties) {
+        this.minioService = minioService;
+        this.aliasIndex = aliasIndex;
+        this.objectCompressor = objectCompressor;
+        this.dedupPrefix = minioProperties.getDedup().getPrefix();
+    }
+
+    @Override
+    public String name() {
+        return "checksum";
+    }
+
+    @Override
+    public void process(UploadJob job) throws Exception {
+        MessageDigest md5 = MessageDigest.getInstance("MD5");
+        MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+        long size = 0;
+        String etag;
+        boolean compressed;
+
+        try (GetObjectResponse response = minioService.openIfExists(job.getFileName())) {
+            if (response == null) {
+                throw new IllegalArgumentException("File no longer exists: " + job.getFileName());
+            }
+            etag = response.headers().get("ETag");
+            compressed = ObjectCompressor.isGzip(response.headers().get("Content-Encoding"));
+
+            // Digests see the stored bytes, the size check sees the content
+            InputStream stored = new DigestInputStream(new DigestInputStream(response, md5), sha256);
+            InputStream content = compressed ? objectCompressor.decompress(stored) : stored;
+
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                size += read;
+            }
+            stored.transferTo(OutputStream.nullOutputStream());
+        }
+
+        String md5Hex = HexFormat.of().formatHex(md5.digest());
+        String sha256Hex = HexFormat.of().formatHex(sha256.digest());
+        boolean verified = false;
+
+        // A file stored from a stream of unknown length has no size in the job
+        if (job.getSize() > 0 && size != job.getSize()) {
+            throw new Exception("Size mismatch: stored " + size + " bytes, uploaded " + job.getSize());
+        }
+
+        String plainEtag = etag != null ? etag.replace("\"", "") : "";
+        // Multipart ETags have a "-parts" suffix and are not an MD5 of the content
+        if (plainEtag.matches("[0-9a-f]{32}")) {
+            if (!plainEtag.equals(md5Hex)) {
+                throw new Exception("Checksum mismatch: ETag " + plainEtag + ", content MD5 " + md5Hex);
+            }
+            verified = true;
+        }
+
+        String contentKey = aliasIndex.resolve(job.getFileName());
+        if (contentKey != null && contentKey.startsWith(dedupPrefix)) {
+            if (!contentKey.substring(dedupPrefix.length()).equals(sha256Hex)) {
+                throw new Exception("Checksum mismatch: content key " + contentKey + ", SHA-256 " + sha256Hex);
+            }
+            verified = true;
+        }
+
+        job.putResult("sha256", sha256Hex);
+        job.putResult("checksumVerified", verified);
+        if (compressed) {
+            job.putResult("compressed", true);
+        }
+    }
+}
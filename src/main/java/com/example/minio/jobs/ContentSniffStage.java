@@ -0,0 +1,83 @@
+package com.example.minio.jobs;
+
+import com.example.minio.entity.UploadJob;
+import com.example.minio.service.MinioService;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Detects the real content type from the first bytes of the file and flags
+ * uploads whose declared type does not match.
+ */
+@Component
+@Order(1)
+public class ContentSniffStage implements UploadJobStage {
+
+    private static final int HEAD_BYTES = 8192;
+
+    private final MinioService minioService;
+
+    public ContentSniffStage(MinioService minioService) {
+        this.minioService = minioService;
+    }
+
+    @Override
+    public String name() {
+        return "sniff";
+    }
+
+    @Override
+    public boolean accepts(UploadJob job) {
+        return job.getSize() > 0;
+    }
+
+    @Override
+    public void process(UploadJob job) throws Exception {
+        byte[] head = minioService.readHead(job.getFileName(), HEAD_BYTES);
+
+        String detected = detect(head);
+        job.putResult("detectedContentType", detected != null ? detected : "application/octet-stream");
+        if (detected != null && job.getContentType() != null
+                && !baseType(job.getContentType()).equalsIgnoreCase(detected)) {
+            job.putResult("contentTypeMismatch", true);
+        }
+    }
+
+    static String detect(byte[] head) throws IOException {
+        if (startsWith(head, "%PDF-")) {
+            return "application/pdf";
+        }
+        if (startsWith(head, "PK\u0003\u0004")) {
+            return "application/zip";
+        }
+        if (startsWith(head, "RIFF") && head.length >= 12
+                && new String(head, 8, 4, StandardCharsets.ISO_8859_1).equals("WEBP")) {
+            return "image/webp";
+        }
+        return URLConnection.guessContentTypeFromStream(new ByteArrayInputStream(head));
+    }
+
+    private static boolean startsWith(byte[] head, String magic) {
+        byte[] bytes = magic.getBytes(StandardCharsets.ISO_8859_1);
+        if (head.length < bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (head[i] != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String baseType(String contentType) {
+        int separator = contentType.indexOf(';');
+        return (separator >= 0 ? contentType.substring(0, separator) : contentType).trim();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.minio.jobs;
+
+import com.example.minio.config.MinioProperties;
+import com.example.minio.entity.UploadJob;
+import com.example.minio.service.ImageVariantService;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Renders the thumbnail variant of images ahead of the first request for it.
+ * An image that cannot be decoded only gets a note, it does not fail the job.
+ */
+@Component
+@Order(3)
+public class ThumbnailStage implements UploadJobStage {
+
+    private static final String FORMAT = "jpg";
+
+    private final ImageVariantService imageVariantService;
+    private final int size;
+
+    public ThumbnailStage(ImageVariantService imageVariantService, MinioProperties minioProperties) {
+        this.imageVariantService = imageVariantService;
+        this.size = minioProperties.getJobs().getThumbnailSize();
+    }
+
+    @Override
+    public String name() {
+        return "thumbnail";
+    }
+
+    @Override
+    public boolean accepts(UploadJob job) {
+        Object detected = job.getResult("detectedContentType");
+        return size > 0 && detected != null && detected.toString().startsWith("image/");
+    }
+
+    @Override
+    public void process(UploadJob job) throws Exception {
+        try {
+            imageVariantService.getVariant(job.getFileName(), size, size, FORMAT);
+            job.putResult("thumbnail",
+                    "/api/files/" + job.getFileName() + "/variant?w=" + size + "&h=" + size + "&fmt=" + FORMAT);
+        } catch (IllegalArgumentException e) {
+            job.putResult("thumbnailError", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,471 @@
+package com.example.minio.jobs;
+
+import com.example.minio.config.MinioProperties;
+import com.example.minio.entity.StoredObject;
+import com.example.minio.entity.UploadJob;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Post-upload work, run after the upload response has been sent. A job passes through
+ * the UploadJobStage beans in order; every stage has a bounded queue and its own workers.
+ * Failed stages are retried with exponential backoff.
+ *
+ * Every state change is appended to a journal as a JSON snapshot of the job, and fsynced
+ * unless minio.jobs.fsync is off. At startup
+ * the last snapshot of each job wins and unfinished jobs resume at their stage, so a job
+ * interrupted by a restart runs its current stage again.
+ *
+ * Jobs are changed and serialized under their own monitor. The journal lock may be
+ * taken before a job's monitor, never while holding one.
+ */
+@Component
+public class UploadJobQueue implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadJobQueue.class);
+
+    private final MinioProperties.Jobs config;
+    private final ObjectMapper objectMapper;
+    private final Path journal;
+    private final List<StageRunner> runners = new ArrayList<>();
+    private final Map<String, UploadJob> jobs = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong done = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private FileChannel channel;
+    private BufferedWriter writer;
+    private long journalLines;
+    private volatile boolean running = true;
+
+    public UploadJobQueue(List<UploadJobStage> stages, MinioProperties minioProperties, ObjectMapper objectMapper) {
+        this.config = minioProperties.getJobs();
+        this.objectMapper = objectMapper;
+        this.journal = Paths.get(config.getJournalFile());
+        for (int i = 0; i < stages.size(); i++) {
+            UploadJobStage stage = stages.get(i);
+            runners.add(new StageRunner(i, stage,
+                    config.getStages().getOrDefault(stage.name(), new MinioProperties.JobStage())));
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "upload-job-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!config.isEnabled()) {
+            return;
+        }
+        recover();
+        for (StageRunner runner : runners) {
+            runner.start();
+        }
+        scheduler.scheduleWithFixedDelay(this::expire, 1, 1, TimeUnit.MINUTES);
+
+        for (UploadJob job : jobs.values()) {
+            if (!job.isFinished()) {
+                resume(job);
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Queue post-processing of a stored file, never blocks on a full queue.
+     * Null when the job queue is disabled.
+     */
+    public UploadJob submit(StoredObject stored, String conversationId, String sender) {
+        if (!config.isEnabled()) {
+            return null;
+        }
+
+        UploadJob job = new UploadJob(UUID.randomUUID().toString(), stored, conversationId, sender);
+        int first = nextStage(job, 0);
+        if (first < 0) {
+            job.setStatus(UploadJob.Status.DONE);
+        } else {
+            job.setStage(runners.get(first).stage.name());
+        }
+        jobs.put(job.getId(), job);
+        journal(job);
+
+        if (first >= 0) {
+            enqueue(job, first);
+        }
+        return job.copy();
+    }
+
+    public UploadJob get(String id) {
+        UploadJob job = jobs.get(id);
+        return job != null ? job.copy() : null;
+    }
+
+    /**
+     * Newest jobs first, optionally only those with the given status
+     */
+    public List<UploadJob> list(UploadJob.Status status, int limit) {
+        return jobs.values().stream()
+                .filter(job -> status == null || job.getStatus() == status)
+                .sorted(Comparator.comparingLong(UploadJob::getCreatedAt).reversed())
+                .limit(limit)
+                .map(UploadJob::copy)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (StageRunner runner : runners) {
+            Gauge.builder("upload.jobs.queued", runner.queue, BlockingQueue::size)
+                    .tag("stage", runner.stage.name()).register(registry);
+        }
+        FunctionCounter.builder("upload.jobs.finished", done, AtomicLong::get)
+                .tag("outcome", "done").register(registry);
+        FunctionCounter.builder("upload.jobs.finished", failed, AtomicLong::get)
+                .tag("outcome", "failed").register(registry);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        // Jobs still queued or running are picked up from the journal at the next start
+        running = false;
+        scheduler.shutdownNow();
+        for (StageRunner runner : runners) {
+            runner.join();
+        }
+        closeJournal();
+    }
+
+    private void resume(UploadJob job) {
+        int index = -1;
+        for (int i = 0; i < runners.size(); i++) {
+            if (runners.get(i).stage.name().equals(job.getStage())) {
+                index = i;
+            }
+        }
+        if (index < 0) {
+            // The stage no longer exists, start over with the ones that do
+            advance(job, 0);
+            return;
+        }
+        job.setStatus(UploadJob.Status.QUEUED);
+        enqueue(job, index);
+    }
+
+    private int nextStage(UploadJob job, int from) {
+        for (int i = from; i < runners.size(); i++) {
+            if (runners.get(i).stage.accepts(job)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Move a job to the first stage from index on that wants it, or finish it
+     */
+    private void advance(UploadJob job, int from) {
+        int next = nextStage(job, from);
+        synchronized (job) {
+            job.setAttempts(0);
+            job.setLastError(null);
+            job.setStage(next < 0 ? null : runners.get(next).stage.name());
+        }
+        if (next < 0) {
+            update(job, UploadJob.Status.DONE);
+            done.incrementAndGet();
+            return;
+        }
+        update(job, UploadJob.Status.QUEUED);
+        enqueue(job, next);
+    }
+
+    private void retryOrFail(UploadJob job, int index, Exception e) {
+        job.setLastError(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        if (e instanceof IllegalArgumentException || job.getAttempts() >= config.getMaxAttempts()) {
+            update(job, UploadJob.Status.FAILED);
+            failed.incrementAndGet();
+            logger.warn("Upload job {} for {} failed in stage {}: {}",
+                    job.getId(), job.getFileName(), job.getStage(), job.getLastError());
+            return;
+        }
+        update(job, UploadJob.Status.RETRYING);
+        schedule(() -> enqueue(job, index), backoff(job.getAttempts()));
+    }
+
+    private long backoff(int attempt) {
+        long delay = config.getBackoff().toMillis() << Math.min(Math.max(attempt - 1, 0), 20);
+        return Math.min(delay, config.getMaxBackoff().toMillis());
+    }
+
+    /**
+     * Offer a job to a stage; when its queue is full try again later instead of blocking
+     */
+    private void enqueue(UploadJob job, int index) {
+        if (!running) {
+            return;
+        }
+        if (!runners.get(index).queue.offer(job)) {
+            schedule(() -> enqueue(job, index), config.getBackoff().toMillis());
+        }
+    }
+
+    private void schedule(Runnable task, long delayMillis) {
+        try {
+            scheduler.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down, the journal still has the job
+        }
+    }
+
+    private void update(UploadJob job, UploadJob.Status status) {
+        synchronized (job) {
+            job.setStatus(status);
+            job.setUpdatedAt(System.currentTimeMillis());
+        }
+        journal(job);
+    }
+
+    /**
+     * Snapshot the job under its monitor, then append it under the journal lock
+     */
+    private void journal(UploadJob job) {
+        String line;
+        try {
+            line = snapshot(job);
+        } catch (JsonProcessingException e) {
+            logger.error("Error encoding upload job {}: {}", job.getId(), e.getMessage());
+            return;
+        }
+        append(line);
+    }
+
+    private String snapshot(UploadJob job) throws JsonProcessingException {
+        synchronized (job) {
+            return objectMapper.writeValueAsString(job);
+        }
+    }
+
+    private synchronized void append(String line) {
+        try {
+            if (writer == null) {
+                if (journal.getParent() != null) {
+                    Files.createDirectories(journal.getParent());
+                }
+                channel = FileChannel.open(journal,
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+            }
+            writer.write(line);
+            writer.newLine();
+            writer.flush();
+            if (config.isFsync()) {
+                channel.force(false);
+            }
+            journalLines++;
+        } catch (IOException e) {
+            // The job keeps running, it is only lost if the process stops before it finishes
+            logger.error("Error writing upload job journal: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void recover() throws IOException {
+        if (!Files.exists(journal)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                try {
+                    UploadJob job = objectMapper.readValue(line, UploadJob.class);
+                    jobs.put(job.getId(), job);
+                } catch (JsonProcessingException e) {
+                    // A torn last line, dropped by the compaction below
+                }
+            }
+        }
+        removeExpired();
+        compact();
+        logger.info("Recovered {} upload jobs, {} unfinished", jobs.size(),
+                jobs.values().stream().filter(job -> !job.isFinished()).count());
+    }
+
+    private void expire() {
+        try {
+            removeExpired();
+            synchronized (this) {
+                if (journalLines > 2L * jobs.size() + 1000) {
+                    compact();
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error compacting upload job journal: {}", e.getMessage());
+        }
+    }
+
+    private void removeExpired() {
+        long cutoff = System.currentTimeMillis() - config.getRetention().toMillis();
+        jobs.values().removeIf(job -> job.isFinished() && job.getUpdatedAt() < cutoff);
+    }
+
+    /**
+     * Rewrite the journal with one snapshot per retained job
+     */
+    private synchronized void compact() throws IOException {
+        closeJournal();
+        if (journal.getParent() != null) {
+            Files.createDirectories(journal.getParent());
+        }
+        Path compacted = journal.resolveSibling(journal.getFileName() + ".tmp");
+        try (FileChannel file = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            BufferedWriter out = new BufferedWriter(Channels.newWriter(file, StandardCharsets.UTF_8));
+            for (UploadJob job : jobs.values()) {
+                out.write(snapshot(job));
+                out.newLine();
+            }
+            out.flush();
+            if (config.isFsync()) {
+                file.force(false);
+            }
+        }
+        Files.move(compacted, journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        journalLines = jobs.size();
+    }
+
+    private synchronized void closeJournal() throws IOException {
+        if (writer != null) {
+            // Closes the channel too
+            writer.close();
+            writer = null;
+            channel = null;
+        }
+    }
+
+    /**
+     * Queue and workers of one stage
+     */
+    private class StageRunner implements Runnable {
+        private final int index;
+        private final UploadJobStage stage;
+        private final int batchSize;
+        private final BlockingQueue<UploadJob> queue = new ArrayBlockingQueue<>(Math.max(config.getQueueCapacity(), 1));
+        private final List<Thread> threads = new ArrayList<>();
+
+        StageRunner(int index, UploadJobStage stage, MinioProperties.JobStage limits) {
+            this.index = index;
+            this.stage = stage;
+            this.batchSize = Math.max(limits.getBatchSize(), 1);
+            for (int i = 0; i < Math.max(limits.getConcurrency(), 1); i++) {
+                Thread thread = new Thread(this, "upload-job-" + stage.name() + "-" + i);
+                thread.setDaemon(true);
+                threads.add(thread);
+            }
+        }
+
+        void start() {
+            for (Thread thread : threads) {
+                thread.start();
+            }
+        }
+
+        void join() throws InterruptedException {
+            for (Thread thread : threads) {
+                thread.join(5000);
+            }
+        }
+
+        @Override
+        public void run() {
+            List<UploadJob> batch = new ArrayList<>(batchSize);
+            while (running) {
+                try {
+                    UploadJob first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    process(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    logger.error("Error in upload job stage {}: {}", stage.name(), e.getMessage());
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+
+        private void process(List<UploadJob> batch) {
+            for (UploadJob job : batch) {
+                synchronized (job) {
+                    job.setAttempts(job.getAttempts() + 1);
+                }
+                update(job, UploadJob.Status.RUNNING);
+            }
+
+            // Each job moves on or retries by itself, one failure does not hold back the batch
+            Map<String, Exception> failures;
+            try {
+                failures = stage.process(batch);
+            } catch (RuntimeException e) {
+                failures = new HashMap<>();
+                for (UploadJob job : batch) {
+                    failures.put(job.getId(), e);
+                }
+            }
+
+            for (UploadJob job : batch) {
+                Exception failure = failures.get(job.getId());
+                if (failure != null) {
+                    retryOrFail(job, index, failure);
+                } else {
+                    advance(job, index + 1);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.minio.jobs;
+
+import com.example.minio.entity.UploadJob;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One step of post-upload processing. Stages are Spring beans run in @Order;
+ * each gets its own workers and queue, sized by minio.jobs.stages.[name].
+ */
+public interface UploadJobStage {
+
+    /**
+     * Name shown in the job status and used as key in minio.jobs.stages
+     */
+    String name();
+
+    /**
+     * Whether the job needs this stage, otherwise it is skipped
+     */
+    default boolean accepts(UploadJob job) {
+        return true;
+    }
+
+    /**
+     * Process one job, its results go into the job's results map. An exception retries
+     * the job with backoff, except IllegalArgumentException which fails it right away.
+     */
+    void process(UploadJob job) throws Exception;
+
+    /**
+     * Process up to batch-size jobs and return the ones that failed, by job id. The
+     * others move on to the next stage. By default the jobs run one by one; a stage
+     * that can do a batch at once overrides this.
+     */
+    default Map<String, Exception> process(List<UploadJob> jobs) {
+        Map<String, Exception> failures = new HashMap<>();
+        for (UploadJob job : jobs) {
+            try {
+                process(job);
+            } catch (Exception e) {
+                failures.put(job.getId(), e);
+            }
+        }
+        return failures;
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.minio.service;
+
+import com.example.minio.config.MinioProperties;
+import com.example.minio.entity.BatchUploadResult;
+import com.example.minio.entity.StoredObject;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Operations on many files in one request: concurrent uploads and zip archives
+ * streamed while the objects are read.
+ */
+@Service
+public class BatchFileService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchFileService.class);
+
+    private final MinioService minioService;
+    private final MinioProperties.Batch config;
+    private final ExecutorService executor;
+
+    @Autowired
+    public BatchFileService(MinioService minioService, MinioProperties minioProperties) {
+        this.minioService = minioService;
+        this.config = minioProperties.getBatch();
+        this.executor = Executors.newFixedThreadPool(
+                Math.max(config.getParallelism(), 1),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "minio-batch");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public int getMaxFiles() {
+        return config.getMaxFiles();
+    }
+
+    /**
+     * Upload files concurrently; one failure does not stop the others
+     */
+    public BatchUploadResult uploadFiles(List<MultipartFile> files) {
+        List<CompletableFuture<String>> futures = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return minioService.uploadFile(file);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, executor));
+        }
+
+        BatchUploadResult result = new BatchUploadResult();
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
+            try {
+                String fileName = futures.get(i).join();
+                result.getUploaded().add(
+                        new StoredObject(fileName, file.getOriginalFilename(), file.getContentType(), file.getSize()));
+            } catch (CompletionException e) {
+                String name = file.getOriginalFilename() != null ? file.getOriginalFilename() : "file-" + i;
+                result.getErrors().put(name, e.getCause().getMessage());
+            }
+        }
+
+        logger.info("Batch uploaded {} of {} files", result.getUploaded().size(), files.size());
+        return result;
+    }
+
+    /**
+     * Sum of the stored sizes of the files, from the metadata cache where possible;
+     * missing files count as empty as they are skipped in the archive
+     */
+    public long archiveSize(Collection<String> fileNames) {
+        long size = 0;
+        for (String fileName : fileNames) {
+            try {
+                size += minioService.getFileInfo(fileName).size();
+            } catch (Exception e) {
+                logger.debug("No size for {} in archive: {}", fileName, e.getMessage());
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Write a zip of the files to the output stream. The next archivePrefetch objects are
+     * opened ahead of the one being written, each with up to archivePrefetchBytes read;
+     * missing files are skipped.
+     */
+    public void writeArchive(Collection<String> fileNames, OutputStream out) throws IOException {
+        int window = Math.max(config.getArchivePrefetch(), 1);
+        Iterator<String> names = fileNames.iterator();
+        Deque<Prefetched> pending = new ArrayDeque<>();
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        zip.setLevel(Deflater.BEST_SPEED);
+        try {
+            while (names.hasNext() && pending.size() < window) {
+                pending.add(prefetch(names.next()));
+            }
+
+            while (!pending.isEmpty()) {
+                Prefetched entry = pending.poll();
+                if (names.hasNext()) {
+                    pending.add(prefetch(names.next()));
+                }
+
+                try (InputStream inputStream = entry.content.join()) {
+                    if (inputStream == null) {
+                        logger.warn("Skipping missing file {} in archive", entry.fileName);
+                        continue;
+                    }
+                    zip.putNextEntry(new ZipEntry(entry.fileName));
+                    inputStream.transferTo(zip);
+                    zip.closeEntry();
+                }
+            }
+            zip.finish();
+        } catch (CompletionException e) {
+            pending.forEach(Prefetched::discard);
+            logger.error("Error reading file for archive: {}", e.getCause().getMessage());
+            throw new IOException("Failed to build archive: " + e.getCause().getMessage(), e.getCause());
+        } catch (IOException e) {
+            // Client went away, release the objects already opened
+            pending.forEach(Prefetched::discard);
+            throw e;
+        }
+    }
+
+    private Prefetched prefetch(String fileName) {
+        int headSize = Math.max(config.getArchivePrefetchBytes(), 0);
+        CompletableFuture<InputStream> content = CompletableFuture.supplyAsync(() -> {
+            try {
+                InputStream inputStream = minioService.openContentIfExists(fileName);
+                if (inputStream == null) {
+                    return null;
+                }
+
+                // Small files are read completely here, larger ones keep the rest streaming
+                byte[] head = inputStream.readNBytes(headSize);
+                if (head.length < headSize) {
+                    inputStream.close();
+                    return new ByteArrayInputStream(head);
+                }
+                return new SequenceInputStream(new ByteArrayInputStream(head), inputStream);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+        return new Prefetched(fileName, content);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static class Prefetched {
+        private final String fileName;
+        private final CompletableFuture<InputStream> content;
+
+        Prefetched(String fileName, CompletableFuture<InputStream> content) {
+            this.fileName = fileName;
+            this.content = content;
+        }
+
+        void discard() {
+            content.thenAccept(inputStream -> {
+                try {
+                    if (inputStream != null) {
+                        inputStream.close();
+                    }
+                } catch (IOException e) {
+                    logger.warn("Error closing {}: {}", fileName, e.getMessage());
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.minio.service;
+
+import com.example.minio.config.MinioProperties;
+import io.minio.BucketExistsArgs;
+import io.minio.MakeBucketArgs;
+import io.minio.MinioClient;
+import io.minio.errors.ErrorResponseException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Buckets known to exist. The configured bucket is provisioned once at startup,
+ * so uploads skip the bucketExists round trip.
+ */
+@Component
+public class BucketRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(BucketRegistry.class);
+
+    private final Set<String> knownBuckets = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    private MinioClient minioClient;
+
+    @Autowired
+    private MinioProperties minioProperties;
+
+    /**
+     * Provision the configured bucket when the application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void provisionBuckets() {
+        try {
+            ensureExists(minioProperties.getBucketName());
+        } catch (Exception e) {
+            // MinIO may not be up yet, the first upload will retry
+            logger.warn("Could not provision bucket {}: {}", minioProperties.getBucketName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Create the bucket if it is not known to exist yet
+     */
+    public void ensureExists(String bucketName) throws Exception {
+        if (knownBuckets.contains(bucketName)) {
+            return;
+        }
+
+        try {
+            boolean bucketExists = minioClient.bucketExists(
+                    BucketExistsArgs.builder()
+                            .bucket(bucketName)
+                            .build());
+
+            if (!bucketExists) {
+                minioClient.makeBucket(
+                        MakeBucketArgs.builder()
+                                .bucket(bucketName)
+                                .build());
+                logger.info("Bucket created: {}", bucketName);
+            }
+        } catch (ErrorResponseException e) {
+            // Another node created it between our check and make
+            if (!"BucketAlreadyOwnedByYou".equals(e.errorResponse().code())) {
+                logger.error("Error creating bucket: {}", e.getMessage());
+                throw new Exception("Failed to create bucket: " + e.getMessage());
+            }
+        } catch (Exception e) {
+            logger.error("Error creating bucket: {}", e.getMessage());
+            throw new Exception("Failed to create bucket: " + e.getMessage());
+        }
+
+        knownBuckets.add(bucketName);
+    }
+
+    /**
+     * Run a write against the bucket; if the bucket was removed behind our back,
+     * recreate it and run the write once more
+     */
+    public <T> T retryOnMissingBucket(String bucketName, Callable<T> action) throws Exception {
+        ensureExists(bucketName);
+        try {
+            return action.call();
+        } catch (Exception e) {
+            if (!isNoSuchBucket(e)) {
+                throw e;
+            }
+            logger.warn("Bucket {} no longer exists, recreating it", bucketName);
+            knownBuckets.remove(bucketName);
+            ensureExists(bucketName);
+            return action.call();
+        }
+    }
+
+    private boolean isNoSuchBucket(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof ErrorResponseException
+                    && "NoSuchBucket".equals(((ErrorResponseException) t).errorResponse().code())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,468 @@
+package com.example.minio.service;
+
+import com.example.minio.config.ChatProperties;
+import com.example.minio.entity.ChatMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Durable chat log: one shared append-only log split into memory-mapped segment files.
+ *
+ * Record layout: [int length][int crc][byte type][int conversation hash][payload JSON].
+ * A zero length marks the end of the written part of a segment. Offsets are global:
+ * segment files are named after the offset of their first byte.
+ *
+ * Closed segments past retention are compacted when the log rolls: their live records
+ * are rewritten into one segment that takes the place of the first of them.
+ */
+@Component
+public class ChatLogStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatLogStore.class);
+
+    public static final byte MESSAGE = 1;
+    public static final byte JOIN = 2;
+
+    private static final int HEADER_SIZE = 13;
+    private static final String SUFFIX = ".log";
+    // A compacted segment is written as .tmp, renamed to .compacted once it is on disk,
+    // and only then replaces the segments it was made from
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final String COMPACTED_SUFFIX = ".compacted";
+
+    private final ChatProperties.Store config;
+    private final ObjectMapper objectMapper;
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    // conversation id -> sparse index of sequence -> global offset of its record
+    private final Map<String, NavigableMap<Long, Long>> sparseIndex = new ConcurrentHashMap<>();
+    private Segment active;
+
+    @FunctionalInterface
+    public interface RecordVisitor {
+        void accept(byte type, ChatMessage message);
+    }
+
+    public ChatLogStore(ChatProperties chatProperties, ObjectMapper objectMapper) {
+        this.config = chatProperties.getStore();
+        this.objectMapper = objectMapper;
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Map the existing segments and hand every stored record to the visitor, oldest first
+     */
+    public synchronized void recover(RecordVisitor visitor) throws IOException {
+        Path directory = Paths.get(config.getDirectory());
+        Files.createDirectories(directory);
+
+        // A compaction interrupted before its output was on disk changed nothing, one
+        // interrupted after that is finished
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.toList()) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(TEMPORARY_SUFFIX)) {
+                    Files.delete(path);
+                } else if (name.endsWith(COMPACTED_SUFFIX)) {
+                    String[] range = name.substring(0, name.length() - COMPACTED_SUFFIX.length()).split("-");
+                    replaceCompacted(directory, path, Long.parseLong(range[0]), Long.parseLong(range[1]));
+                }
+            }
+        }
+
+        List<Long> offsets = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SUFFIX))
+                    .forEach(name -> offsets.add(Long.parseLong(name.substring(0, name.length() - SUFFIX.length()))));
+        }
+        Collections.sort(offsets);
+
+        long records = 0;
+        for (long baseOffset : offsets) {
+            Segment segment = Segment.open(directory, baseOffset, config.getSegmentSize());
+            segments.put(baseOffset, segment);
+            records += replay(segment, visitor);
+        }
+
+        active = segments.isEmpty()
+                ? Segment.open(directory, 0, config.getSegmentSize())
+                : segments.lastEntry().getValue();
+        segments.putIfAbsent(active.baseOffset, active);
+
+        logger.info("Recovered {} chat records from {} segments", records, segments.size());
+    }
+
+    /**
+     * Append records and fsync them as one group
+     */
+    public synchronized void append(byte type, List<ChatMessage> messages) throws IOException {
+        Segment first = active;
+        int firstStart = active.position;
+
+        for (ChatMessage message : messages) {
+            byte[] payload = objectMapper.writeValueAsBytes(message);
+            int recordSize = HEADER_SIZE + payload.length;
+            if (recordSize + 4 > config.getSegmentSize()) {
+                throw new IOException("Chat record of " + recordSize + " bytes exceeds the segment size");
+            }
+            if (active.position + recordSize + 4 > active.capacity) {
+                roll();
+            }
+
+            int position = active.position;
+            CRC32 crc = new CRC32();
+            crc.update(type);
+            crc.update(payload);
+
+            MappedByteBuffer buffer = active.buffer;
+            buffer.putInt(position + 4, (int) crc.getValue());
+            buffer.put(position + 8, type);
+            buffer.putInt(position + 9, hash(message.getConversationId()));
+            buffer.put(position + HEADER_SIZE, payload);
+            // Length goes last, readers treat a zero length as the end
+            buffer.putInt(position, payload.length);
+            active.position = position + recordSize;
+            active.lastWrite = System.currentTimeMillis();
+
+            if (type == MESSAGE) {
+                index(message, active.baseOffset + position);
+            }
+        }
+
+        if (config.isFsync()) {
+            if (first == active) {
+                active.buffer.force(firstStart, active.position - firstStart);
+            } else {
+                active.buffer.force(0, active.position);
+            }
+        }
+    }
+
+    /**
+     * Messages of a conversation with sequence in [from, to) that are still on disk
+     */
+    public List<ChatMessage> read(String conversationId, long from, long to) throws IOException {
+        List<ChatMessage> result = new ArrayList<>();
+        NavigableMap<Long, Long> index = sparseIndex.get(conversationId);
+        if (index == null || from >= to || segments.isEmpty()) {
+            return result;
+        }
+
+        Map.Entry<Long, Long> floor = index.floorEntry(from);
+        long offset = Math.max(floor != null ? floor.getValue() : 0, segments.firstKey());
+        int conversationHash = hash(conversationId);
+
+        Long segmentKey = segments.floorKey(offset);
+        for (Segment segment : segments.tailMap(segmentKey != null ? segmentKey : segments.firstKey(), true).values()) {
+            int position = (int) Math.max(offset - segment.baseOffset, 0);
+            int limit = segment.position;
+
+            while (position + HEADER_SIZE <= limit) {
+                int length = segment.buffer.getInt(position);
+                if (length <= 0) {
+                    break;
+                }
+                if (segment.buffer.get(position + 8) == MESSAGE
+                        && segment.buffer.getInt(position + 9) == conversationHash) {
+                    ChatMessage message = decode(segment, position, length);
+                    if (conversationId.equals(message.getConversationId())) {
+                        if (message.getSequence() >= to) {
+                            return result;
+                        }
+                        if (message.getSequence() >= from) {
+                            result.add(message);
+                        }
+                    }
+                }
+                position += HEADER_SIZE + length;
+            }
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        for (Segment segment : segments.values()) {
+            segment.close();
+        }
+    }
+
+    private long replay(Segment segment, RecordVisitor visitor) throws IOException {
+        long records = 0;
+        long lastWrite = 0;
+        int position = 0;
+
+        while (position + HEADER_SIZE <= segment.capacity) {
+            int length = segment.buffer.getInt(position);
+            if (length <= 0 || position + HEADER_SIZE + length > segment.capacity) {
+                break;
+            }
+
+            byte type = segment.buffer.get(position + 8);
+            byte[] payload = new byte[length];
+            segment.buffer.get(position + HEADER_SIZE, payload);
+
+            CRC32 crc = new CRC32();
+            crc.update(type);
+            crc.update(payload);
+            if ((int) crc.getValue() != segment.buffer.getInt(position + 4)) {
+                // Torn write at the tail: everything from here on is discarded
+                logger.warn("Corrupt chat record in segment {} at {}, truncating", segment.baseOffset, position);
+                for (int i = position; i < segment.capacity; i++) {
+                    segment.buffer.put(i, (byte) 0);
+                }
+                break;
+            }
+
+            ChatMessage message = objectMapper.readValue(payload, ChatMessage.class);
+            if (type == MESSAGE) {
+                index(message, segment.baseOffset + position);
+            }
+            visitor.accept(type, message);
+            lastWrite = Math.max(lastWrite, message.getTimestamp());
+
+            records++;
+            position += HEADER_SIZE + length;
+        }
+
+        segment.position = position;
+        if (lastWrite > 0) {
+            segment.lastWrite = lastWrite;
+        }
+        return records;
+    }
+
+    private ChatMessage decode(Segment segment, int position, int length) throws IOException {
+        byte[] payload = new byte[length];
+        segment.buffer.get(position + HEADER_SIZE, payload);
+        return objectMapper.readValue(payload, ChatMessage.class);
+    }
+
+    private void index(ChatMessage message, long offset) {
+        if (message.getConversationId() == null) {
+            return;
+        }
+        int interval = Math.max(config.getIndexInterval(), 1);
+        NavigableMap<Long, Long> index = sparseIndex.computeIfAbsent(
+                message.getConversationId(), id -> new ConcurrentSkipListMap<>());
+        if (index.isEmpty() || (message.getSequence() - 1) % interval == 0) {
+            index.put(message.getSequence(), offset);
+        }
+    }
+
+    /**
+     * Seal the active segment and start a new one, then apply retention
+     */
+    private void roll() throws IOException {
+        if (config.isFsync()) {
+            active.buffer.force();
+        }
+
+        long baseOffset = active.baseOffset + active.capacity;
+        active = Segment.open(Paths.get(config.getDirectory()), baseOffset, config.getSegmentSize());
+        segments.put(baseOffset, active);
+
+        if (!config.getRetention().isZero()) {
+            compact(baseOffset);
+        }
+    }
+
+    /**
+     * Rewrite the closed segments past retention, a prefix of the log, into one segment
+     * at the offset of the first of them, so offsets stay in log order. Live records are
+     * the joins and the newest message of each conversation, which keeps a conversation's
+     * sequence and last message across restarts; older messages are dropped.
+     */
+    private void compact(long activeOffset) throws IOException {
+        // Writes through a mapping do not reliably update the file time, so the
+        // segment's own record of its last write decides
+        long cutoff = Instant.now().minus(config.getRetention()).toEpochMilli();
+        List<Segment> expired = new ArrayList<>();
+        for (Segment segment : segments.headMap(activeOffset).values()) {
+            if (segment.lastWrite >= cutoff) {
+                break;
+            }
+            expired.add(segment);
+        }
+
+        List<byte[]> live = new ArrayList<>();
+        List<ChatMessage> liveMessages = new ArrayList<>();
+        Map<String, Integer> newest = new HashMap<>();
+        int dropped = 0;
+        long lastWrite = 0;
+        for (Segment segment : expired) {
+            int position = 0;
+            while (position + HEADER_SIZE <= segment.position) {
+                int length = segment.buffer.getInt(position);
+                if (length <= 0) {
+                    break;
+                }
+                byte[] record = new byte[HEADER_SIZE + length];
+                segment.buffer.get(position, record);
+                ChatMessage message = decode(segment, position, length);
+                position += record.length;
+
+                if (record[8] == MESSAGE) {
+                    Integer previous = newest.put(message.getConversationId(), live.size());
+                    if (previous != null) {
+                        live.set(previous, null);
+                        dropped++;
+                    }
+                }
+                live.add(record);
+                liveMessages.add(message);
+                lastWrite = Math.max(lastWrite, message.getTimestamp());
+            }
+        }
+        if (dropped == 0) {
+            return;
+        }
+
+        Segment first = expired.get(0);
+        Segment last = expired.get(expired.size() - 1);
+        long end = last.baseOffset + last.capacity;
+        Path directory = Paths.get(config.getDirectory());
+        String name = String.format("%020d-%020d", first.baseOffset, end);
+        Path temporary = directory.resolve(name + TEMPORARY_SUFFIX);
+        List<ChatMessage> keptMessages = new ArrayList<>();
+        List<Long> keptOffsets = new ArrayList<>();
+        int written = 0;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (int i = 0; i < live.size(); i++) {
+                byte[] record = live.get(i);
+                if (record == null) {
+                    continue;
+                }
+                if (record[8] == MESSAGE) {
+                    keptMessages.add(liveMessages.get(i));
+                    keptOffsets.add(first.baseOffset + written);
+                }
+                channel.write(ByteBuffer.wrap(record));
+                written += record.length;
+            }
+            channel.write(ByteBuffer.allocate(4));
+            channel.force(true);
+        }
+        Path compactedPath = directory.resolve(name + COMPACTED_SUFFIX);
+        Files.move(temporary, compactedPath, StandardCopyOption.ATOMIC_MOVE);
+
+        for (Segment segment : expired) {
+            segments.remove(segment.baseOffset);
+            segment.close();
+        }
+        replaceCompacted(directory, compactedPath, first.baseOffset, end);
+        Segment compacted = Segment.open(directory, first.baseOffset, config.getSegmentSize());
+        compacted.position = written;
+        compacted.lastWrite = lastWrite > 0 ? lastWrite : first.lastWrite;
+        segments.put(first.baseOffset, compacted);
+
+        // Index entries into the compacted range now point at the rewritten messages
+        for (NavigableMap<Long, Long> index : sparseIndex.values()) {
+            index.values().removeIf(offset -> offset < end);
+        }
+        for (int i = 0; i < keptMessages.size(); i++) {
+            ChatMessage message = keptMessages.get(i);
+            if (message.getConversationId() != null) {
+                sparseIndex.computeIfAbsent(message.getConversationId(), id -> new ConcurrentSkipListMap<>())
+                        .put(message.getSequence(), keptOffsets.get(i));
+            }
+        }
+        sparseIndex.values().removeIf(NavigableMap::isEmpty);
+
+        logger.info("Compacted {} chat segments past retention, dropped {} messages", expired.size(), dropped);
+    }
+
+    /**
+     * Delete the segments in [baseOffset, end) other than the first, then move the
+     * compacted segment over the first; safe to repeat after a crash
+     */
+    private static void replaceCompacted(Path directory, Path compacted, long baseOffset, long end)
+            throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.toList()) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(SUFFIX)) {
+                    long offset = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+                    if (offset > baseOffset && offset < end) {
+                        Files.delete(path);
+                    }
+                }
+            }
+        }
+        Files.move(compacted, directory.resolve(String.format("%020d%s", baseOffset, SUFFIX)),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int hash(String conversationId) {
+        return conversationId == null ? 0 : conversationId.hashCode();
+    }
+
+    private static class Segment {
+        private final long baseOffset;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        // Written bytes; readers never look past it
+        private volatile int position;
+        // Epoch millis of the newest record, from the records themselves after a restart
+        private volatile long lastWrite;
+
+        private Segment(long baseOffset, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.baseOffset = baseOffset;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.capacity = buffer.capacity();
+        }
+
+        static Segment open(Path directory, long baseOffset, int size) throws IOException {
+            Path path = directory.resolve(String.format("%020d%s", baseOffset, SUFFIX));
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long length = Math.max(channel.size(), size);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            Segment segment = new Segment(baseOffset, path, channel, buffer);
+            // Only a fallback for records without a timestamp
+            segment.lastWrite = Files.getLastModifiedTime(path).toMillis();
+            return segment;
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Error closing chat segment {}: {}", path.getFileName(), e.getMessage());
+            }
+        }
+    }
+}
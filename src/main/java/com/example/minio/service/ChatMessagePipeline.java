@@ -0,0 +1,180 @@
+package com.example.minio.service;
+
+import com.example.minio.cluster.ChatClusterCoordinator;
+import com.example.minio.config.ChatProperties;
+import com.example.minio.entity.ChatMessage;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accepts chat messages without blocking the inbound channel. Each conversation
+ * is hashed onto one lane; a lane drains its queue in batches, appends them to
+ * ChatService and then broadcasts, so messages of a conversation stay in order.
+ * In cluster mode messages of conversations owned by another node are forwarded to it.
+ */
+@Component
+public class ChatMessagePipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatMessagePipeline.class);
+
+    private final ChatService chatService;
+    private final ChatClusterCoordinator clusterCoordinator;
+    private final ChatMetrics chatMetrics;
+    private final ChatProperties.Pipeline config;
+    private final Lane[] lanes;
+    private volatile boolean running = true;
+
+    public ChatMessagePipeline(ChatService chatService, ChatClusterCoordinator clusterCoordinator,
+            ChatMetrics chatMetrics, ChatProperties chatProperties) {
+        this.chatService = chatService;
+        this.clusterCoordinator = clusterCoordinator;
+        this.chatMetrics = chatMetrics;
+        this.config = chatProperties.getPipeline();
+        this.lanes = new Lane[Math.max(config.getLanes(), 1)];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(i);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        clusterCoordinator.setAppendHandler(this::enqueue);
+        for (Lane lane : lanes) {
+            lane.thread.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Lane lane : lanes) {
+            lane.thread.join(5000);
+        }
+    }
+
+    /**
+     * Stamp and enqueue a message, false when its lane is full
+     */
+    public boolean accept(ChatMessage message) {
+        message.setTimestamp(System.currentTimeMillis());
+        // Lets the owner recognise a forwarded message that the bus delivers twice
+        if (message.getClientMessageId() == null || message.getClientMessageId().isBlank()) {
+            message.setClientMessageId(UUID.randomUUID().toString());
+        }
+        if (!enqueue(message)) {
+            chatMetrics.rejected();
+            return false;
+        }
+        return true;
+    }
+
+    private boolean enqueue(ChatMessage message) {
+        Lane lane = lanes[Math.floorMod(Objects.hashCode(message.getConversationId()), lanes.length)];
+
+        long timeout = config.getAcceptTimeout().toNanos();
+        if (timeout <= 0) {
+            return lane.queue.offer(message);
+        }
+        try {
+            return lane.queue.offer(message, timeout, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public int pending() {
+        int pending = 0;
+        for (Lane lane : lanes) {
+            pending += lane.queue.size();
+        }
+        return pending;
+    }
+
+    private class Lane implements Runnable {
+        private final BlockingQueue<ChatMessage> queue = new ArrayBlockingQueue<>(Math.max(config.getQueueCapacity(), 1));
+        private final Thread thread;
+
+        Lane(int index) {
+            this.thread = new Thread(this, "chat-pipeline-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            int batchSize = Math.max(config.getBatchSize(), 1);
+            List<ChatMessage> batch = new ArrayList<>(batchSize);
+
+            while (running || !queue.isEmpty()) {
+                try {
+                    ChatMessage first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    process(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    logger.error("Error processing chat messages: {}", e.getMessage());
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+
+        private void process(List<ChatMessage> batch) {
+            Map<String, List<ChatMessage>> byConversation = new LinkedHashMap<>();
+            for (ChatMessage message : batch) {
+                byConversation.computeIfAbsent(message.getConversationId(), id -> new ArrayList<>()).add(message);
+            }
+
+            Map<String, List<ChatMessage>> owned = new LinkedHashMap<>();
+            for (Map.Entry<String, List<ChatMessage>> entry : byConversation.entrySet()) {
+                if (clusterCoordinator.isOwner(entry.getKey())) {
+                    owned.put(entry.getKey(), entry.getValue());
+                } else {
+                    clusterCoordinator.forward(entry.getValue());
+                    chatMetrics.forwarded(entry.getValue().size());
+                }
+            }
+            if (owned.isEmpty()) {
+                return;
+            }
+
+            // The whole lane batch is written with one fsync; repeated deliveries are left out
+            Map<String, List<ChatMessage>> stored;
+            try {
+                stored = chatService.addMessages(owned);
+            } catch (Exception e) {
+                logger.error("Error storing messages for {} conversations: {}", owned.size(), e.getMessage());
+                return;
+            }
+
+            for (Map.Entry<String, List<ChatMessage>> entry : stored.entrySet()) {
+                chatMetrics.stored(entry.getValue().size());
+                try {
+                    clusterCoordinator.committed(entry.getValue());
+                } catch (Exception e) {
+                    logger.error("Error broadcasting to conversation {}: {}", entry.getKey(), e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.minio.service;
+
+import com.example.minio.entity.Conversation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Chat meters: messages by outcome (their rate is messages per second), broadcast
+ * fan-out latency, connected STOMP sessions, and conversation/message counts.
+ */
+@Component
+public class ChatMetrics {
+
+    private final Counter stored;
+    private final Counter forwarded;
+    private final Counter rejected;
+    private final Timer broadcast;
+    // Disconnect events may arrive more than once per session, so track ids rather than a count
+    private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+
+    public ChatMetrics(MeterRegistry registry, ChatService chatService) {
+        this.stored = Counter.builder("chat.messages").tag("outcome", "stored").register(registry);
+        this.forwarded = Counter.builder("chat.messages").tag("outcome", "forwarded").register(registry);
+        this.rejected = Counter.builder("chat.messages").tag("outcome", "rejected").register(registry);
+        this.broadcast = Timer.builder("chat.broadcast")
+                .description("Fan-out of one chat event to the local STOMP subscribers")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofSeconds(5))
+                .register(registry);
+
+        Gauge.builder("chat.sessions.active", sessions, Set::size).register(registry);
+        Gauge.builder("chat.conversations", chatService, service -> service.getCons().size()).register(registry);
+        // Walks every conversation, so only as cheap as the scrape interval allows
+        Gauge.builder("chat.messages.stored", chatService, ChatMetrics::messageCount).register(registry);
+    }
+
+    public void stored(int count) {
+        stored.increment(count);
+    }
+
+    public void forwarded(int count) {
+        forwarded.increment(count);
+    }
+
+    public void rejected() {
+        rejected.increment();
+    }
+
+    public Timer broadcast() {
+        return broadcast;
+    }
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        String sessionId = (String) event.getMessage().getHeaders().get("simpSessionId");
+        if (sessionId != null) {
+            sessions.add(sessionId);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        sessions.remove(event.getSessionId());
+    }
+
+    private static double messageCount(ChatService chatService) {
+        long total = 0;
+        for (Conversation conversation : chatService.getCons().values()) {
+            total += conversation.getMessageLog().lastSequence();
+        }
+        return total;
+    }
+}
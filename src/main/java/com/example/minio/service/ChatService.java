@@ -1,40 +1,170 @@
 package com.example.minio.service;
 
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import com.example.minio.config.ChatProperties;
 import com.example.minio.entity.ChatMessage;
 import com.example.minio.entity.Conversation;
+import com.example.minio.entity.ConversationSummary;
+import com.example.minio.entity.MessageLog;
 
-import java.lang.Thread;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class ChatService {
-    private final Map<String, Conversation> conversations = new HashMap<>();
+    private static final Logger logger = LoggerFactory.getLogger(ChatService.class);
+
+    private final Map<String, Conversation> conversations = new ConcurrentHashMap<>();
+    // sorted participant pair -> conversation id
+    private final Map<String, String> pairIndex = new ConcurrentHashMap<>();
+    // user id -> ids of the conversations they take part in
+    private final Map<String, Set<String>> userIndex = new ConcurrentHashMap<>();
+
+    private final ChatLogStore logStore;
+    private final int hotTail;
+
+    public ChatService(ChatLogStore logStore, ChatProperties chatProperties) {
+        this.logStore = logStore;
+        this.hotTail = logStore.isEnabled() ? Math.max(chatProperties.getStore().getHotTail(), 1) : 0;
+    }
+
+    /**
+     * Rebuild conversations from the durable log
+     */
+    @PostConstruct
+    public void recover() throws IOException {
+        if (!logStore.isEnabled()) {
+            return;
+        }
+        logStore.recover((type, message) -> {
+            Conversation c = getOrCreateConversation(message.getConversationId());
+            if (type == ChatLogStore.JOIN) {
+                join(c, message.getSender());
+            } else {
+                c.getMessageLog().restore(message);
+                c.rememberClientMessageId(message.getClientMessageId());
+            }
+        });
+    }
 
     public Conversation getOrCreateConversation(String id) {
         if (id == null) {
             id = UUID.randomUUID().toString(); 
-            Conversation newConversation = new Conversation();
-            newConversation.setId(id);
+            Conversation newConversation = newConversation(id);
             conversations.put(id, newConversation);
 
             return newConversation;
         }
-        return conversations.computeIfAbsent(id, cid -> {
-            Conversation c = new Conversation();
-            c.setId(cid);
-            return c;
-        });
+        return conversations.computeIfAbsent(id, this::newConversation);
+    }
+
+    private Conversation newConversation(String id) {
+        Conversation c = new Conversation();
+        c.setId(id);
+        // With the durable log only the newest messages stay on the heap
+        c.getMessageLog().setMaxTail(hotTail);
+        return c;
     }
 
     public void addMessage(String conversationId, ChatMessage message) {
-        
+        addMessages(conversationId, Collections.singletonList(message));
+    }
+
+    /**
+     * Append a batch of messages to one conversation, in order,
+     * and write them to the durable log as one group
+     */
+    public void addMessages(String conversationId, List<ChatMessage> messages) {
+        Map<String, List<ChatMessage>> batch = new LinkedHashMap<>();
+        batch.put(conversationId, messages);
+        addMessages(batch);
+    }
+
+    /**
+     * Append messages to several conversations, each in order, and write them to the
+     * durable log as one group with a single fsync. Messages become visible only once
+     * written; when the write fails none of them is kept and their sequences are reused.
+     * A message whose client id the conversation already stored is a repeated delivery
+     * and is skipped; returns the messages that were stored, by conversation.
+     */
+    public Map<String, List<ChatMessage>> addMessages(Map<String, List<ChatMessage>> batch) {
+        List<Conversation> targets = new ArrayList<>(batch.size());
+        for (String conversationId : batch.keySet()) {
+            targets.add(getOrCreateConversation(conversationId));
+        }
+        // Locked in id order, so two batches sharing conversations cannot deadlock
+        List<Conversation> locked = new ArrayList<>(targets);
+        locked.sort(Comparator.comparing(Conversation::getId));
+
+        List<ChatMessage> records = new ArrayList<>();
+        Map<String, List<ChatMessage>> stored = new LinkedHashMap<>();
+        for (Conversation c : locked) {
+            c.getWriteLock().lock();
+        }
         try {
-            Thread.sleep(1000);
-            Conversation c = getOrCreateConversation(conversationId);
-            c.getMessages().add(message);
-        } catch (Exception e) {
+            int i = 0;
+            for (List<ChatMessage> messages : batch.values()) {
+                Conversation c = targets.get(i++);
+                long sequence = c.getMessageLog().lastSequence();
+                Set<String> clientIds = new HashSet<>();
+                List<ChatMessage> accepted = new ArrayList<>(messages.size());
+                for (ChatMessage message : messages) {
+                    String clientId = message.getClientMessageId();
+                    if (c.isRecentClientMessageId(clientId) || (clientId != null && !clientIds.add(clientId))) {
+                        continue;
+                    }
+                    message.setConversationId(c.getId());
+                    message.setSequence(++sequence);
+                    accepted.add(message);
+                }
+                records.addAll(accepted);
+                if (!accepted.isEmpty()) {
+                    stored.put(c.getId(), accepted);
+                }
+            }
+
+            if (!records.isEmpty()) {
+                persist(ChatLogStore.MESSAGE, records);
+            }
+
+            for (Conversation c : targets) {
+                for (ChatMessage message : stored.getOrDefault(c.getId(), Collections.emptyList())) {
+                    c.getMessageLog().restore(message);
+                    c.rememberClientMessageId(message.getClientMessageId());
+                }
+            }
+        } finally {
+            for (Conversation c : locked) {
+                c.getWriteLock().unlock();
+            }
+        }
+        return stored;
+    }
+
+    /**
+     * Apply a message stored by the owning node to this node's in-memory replica
+     */
+    public void applyReplica(ChatMessage message) {
+        getOrCreateConversation(message.getConversationId()).getMessageLog().restore(message);
+    }
+
+    /**
+     * Apply a join written by the owning node to this node's in-memory replica
+     */
+    public void applyJoin(String conversationId, String user) {
+        Conversation conversation = getOrCreateConversation(conversationId);
+        conversation.getWriteLock().lock();
+        try {
+            join(conversation, user);
+        } finally {
+            conversation.getWriteLock().unlock();
         }
     }
 
@@ -42,35 +172,280 @@ public class ChatService {
         return getOrCreateConversation(conversationId).getMessages();
     }
 
+    /**
+     * One page of history: before/after are exclusive sequence cursors,
+     * with neither the newest messages are returned
+     */
+    public List<ChatMessage> getMessages(String conversationId, Long before, Long after, int limit) {
+        MessageLog log = requireConversation(conversationId).getMessageLog();
+        long next = log.lastSequence() + 1;
+
+        long from;
+        long to;
+        if (before != null) {
+            to = Math.min(before, next);
+            from = to - limit;
+        } else if (after != null) {
+            from = after + 1;
+            to = Math.min(from + limit, next);
+        } else {
+            to = next;
+            from = to - limit;
+        }
+        from = Math.max(from, 1);
+
+        // Older than the hot tail: read that part from the durable log
+        long firstInMemory = log.firstSequence();
+        if (from >= firstInMemory || !logStore.isEnabled()) {
+            return log.range(from, to);
+        }
+        try {
+            List<ChatMessage> page = new ArrayList<>(logStore.read(conversationId, from, Math.min(to, firstInMemory)));
+            page.addAll(log.range(firstInMemory, to));
+            return page;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read chat history", e);
+        }
+    }
+
     public Map<String, Conversation> getCons() {
         return conversations;
     }
 
+    /**
+     * Summaries of all conversations, or of one user's conversations with unread counts
+     */
+    public List<ConversationSummary> getSummaries(String userId) {
+        Collection<String> ids = userId != null ? getConversationIds(userId) : conversations.keySet();
+
+        List<ConversationSummary> summaries = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Conversation c = conversations.get(id);
+            if (c == null) {
+                continue;
+            }
+            summaries.add(new ConversationSummary(
+                    c.getId(),
+                    c.getParticipants().size(),
+                    c.getMessageLog().lastSequence(),
+                    userId != null ? c.unreadCount(userId) : null,
+                    c.getMessageLog().last()));
+        }
+        return summaries;
+    }
+
+    public void markRead(String conversationId, String userId, long sequence) {
+        requireConversation(conversationId).markRead(userId, sequence);
+    }
+
+    /**
+     * An existing conversation; reads never create one for an unknown id
+     */
+    private Conversation requireConversation(String conversationId) {
+        Conversation conversation = conversationId != null ? conversations.get(conversationId) : null;
+        if (conversation == null) {
+            throw new NoSuchElementException("Conversation not found: " + conversationId);
+        }
+        return conversation;
+    }
+
+    /**
+     * Add a participant once the join is written to the durable log, like messages;
+     * when the write fails the participant is not added
+     */
     public void addParticipant(String conversationId, String user) {
-        getOrCreateConversation(conversationId).getParticipants().add(user);
+        boolean created = conversationId == null || !conversations.containsKey(conversationId);
+        Conversation conversation = getOrCreateConversation(conversationId);
+        conversation.getWriteLock().lock();
+        try {
+            if (conversation.getParticipants().contains(user)) {
+                return;
+            }
+            try {
+                persist(ChatLogStore.JOIN, Collections.singletonList(joinRecord(conversation.getId(), user)));
+            } catch (UncheckedIOException e) {
+                if (created && conversation.getParticipants().isEmpty()) {
+                    conversations.remove(conversation.getId(), conversation);
+                }
+                throw e;
+            }
+            join(conversation, user);
+        } finally {
+            conversation.getWriteLock().unlock();
+        }
+    }
+
+    /**
+     * Add a participant and update the user and pair indexes, false if already in
+     */
+    private boolean join(Conversation conversation, String user) {
+        if (!conversation.getParticipants().add(user)) {
+            return false;
+        }
+        indexUser(user, conversation.getId());
+
+        // A conversation that reaches exactly two people is also found by pair lookups
+        Set<String> participants = conversation.getParticipants();
+        if (participants.size() == 2) {
+            Iterator<String> it = participants.iterator();
+            if (it.hasNext()) {
+                String first = it.next();
+                if (it.hasNext()) {
+                    String second = it.next();
+                    // Replaces an entry whose conversation has since gained or lost people
+                    pairIndex.compute(pairKey(first, second), (k, existing) ->
+                            existing != null && isPair(existing, first, second) ? existing : conversation.getId());
+                }
+            }
+        }
+        return true;
     }
 
     public Set<String> getParticipants(String conversationId) {
         return getOrCreateConversation(conversationId).getParticipants();
     }
 
+    /**
+     * Whether the user has joined the conversation, without creating it
+     */
+    public boolean isParticipant(String conversationId, String user) {
+        Conversation conversation = conversations.get(conversationId);
+        return conversation != null && user != null && conversation.getParticipants().contains(user);
+    }
+
+    public Set<String> getConversationIds(String userId) {
+        return Collections.unmodifiableSet(userIndex.getOrDefault(userId, Collections.emptySet()));
+    }
+
     public String getConversationByParticipants(String userId1, String userId2) {
-        for (Conversation conversation : conversations.values()) {
-            Set<String> participants = conversation.getParticipants();
-            if (participants.size() == 2 &&
-                participants.contains(userId1) &&
-                participants.contains(userId2)) {
-                return conversation.getId();
+        String key = pairKey(userId1, userId2);
+
+        String id = pairIndex.get(key);
+        if (id != null && isPair(id, userId1, userId2)) {
+            return id;
+        }
+
+        // Create atomically per pair, so concurrent callers get the same conversation
+        boolean[] created = new boolean[1];
+        List<String> joined = new ArrayList<>(2);
+        String conversationId = pairIndex.compute(key, (k, existing) -> {
+            if (existing != null && isPair(existing, userId1, userId2)) {
+                return existing;
+            }
+
+            // The first conversation of a pair gets an id derived from the pair,
+            // so every node of a cluster agrees on it without coordination. This node
+            // may already hold it as a replica, from messages or joins of the owner.
+            Conversation conversation = null;
+            if (existing == null) {
+                String derivedId = UUID.nameUUIDFromBytes(k.getBytes(StandardCharsets.UTF_8)).toString();
+                Conversation derived = conversations.computeIfAbsent(derivedId, newId -> {
+                    created[0] = true;
+                    return newConversation(newId);
+                });
+                if (onlyOf(derived, userId1, userId2)) {
+                    conversation = derived;
+                }
+            }
+            if (conversation == null) {
+                conversation = newConversation(UUID.randomUUID().toString());
+                conversations.put(conversation.getId(), conversation);
+                created[0] = true;
+            }
+
+            for (String user : new LinkedHashSet<>(List.of(userId1, userId2))) {
+                if (conversation.getParticipants().add(user)) {
+                    indexUser(user, conversation.getId());
+                    joined.add(user);
+                }
             }
+            return conversation.getId();
+        });
+
+        // Written outside compute, which must not block other pairs of its bin on an fsync
+        if (!joined.isEmpty()) {
+            List<ChatMessage> records = new ArrayList<>(joined.size());
+            for (String user : joined) {
+                records.add(joinRecord(conversationId, user));
+            }
+            try {
+                persist(ChatLogStore.JOIN, records);
+            } catch (UncheckedIOException e) {
+                pairIndex.remove(key, conversationId);
+                if (created[0]) {
+                    conversations.remove(conversationId);
+                } else {
+                    conversations.get(conversationId).getParticipants().removeAll(joined);
+                }
+                for (String user : joined) {
+                    unindexUser(user, conversationId);
+                }
+                throw e;
+            }
+        }
+        return conversationId;
+    }
+
+    /**
+     * No participants other than these two users
+     */
+    private boolean onlyOf(Conversation conversation, String userId1, String userId2) {
+        for (String participant : conversation.getParticipants()) {
+            if (!participant.equals(userId1) && !participant.equals(userId2)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Still a conversation between exactly these two users
+     */
+    private boolean isPair(String conversationId, String userId1, String userId2) {
+        Conversation conversation = conversations.get(conversationId);
+        if (conversation == null) {
+            return false;
         }
+        Set<String> participants = conversation.getParticipants();
+        int expected = userId1.equals(userId2) ? 1 : 2;
+        return participants.size() == expected
+                && participants.contains(userId1)
+                && participants.contains(userId2);
+    }
 
-        String newId = UUID.randomUUID().toString();
-        Conversation newConversation = new Conversation();
-        newConversation.setId(newId);
-        newConversation.getParticipants().add(userId1);
-        newConversation.getParticipants().add(userId2);
-        conversations.put(newId, newConversation);
+    private void persist(byte type, List<ChatMessage> records) {
+        if (!logStore.isEnabled()) {
+            return;
+        }
+        try {
+            logStore.append(type, records);
+        } catch (IOException e) {
+            logger.error("Error writing chat log: {}", e.getMessage());
+            throw new UncheckedIOException("Failed to persist chat records", e);
+        }
+    }
+
+    private static ChatMessage joinRecord(String conversationId, String user) {
+        ChatMessage record = new ChatMessage(user, null, "JOIN");
+        record.setConversationId(conversationId);
+        record.setTimestamp(System.currentTimeMillis());
+        return record;
+    }
+
+    private void indexUser(String userId, String conversationId) {
+        userIndex.computeIfAbsent(userId, u -> ConcurrentHashMap.newKeySet()).add(conversationId);
+    }
+
+    private void unindexUser(String userId, String conversationId) {
+        Set<String> ids = userIndex.get(userId);
+        if (ids != null) {
+            ids.remove(conversationId);
+        }
+    }
 
-        return newId;
+    private static String pairKey(String userId1, String userId2) {
+        return userId1.compareTo(userId2) <= 0
+                ? userId1 + '\u0000' + userId2
+                : userId2 + '\u0000' + userId1;
     }
 }
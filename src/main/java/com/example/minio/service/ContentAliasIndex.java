@@ -0,0 +1,318 @@
+package com.example.minio.service;
+
+import com.example.minio.config.MinioProperties;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * File names of deduplicated uploads mapped to their content object, with a reference
+ * count per content object. Changes are appended to a journal that is replayed and
+ * compacted at startup. Each alias also keeps the size, ETag and last modified time
+ * of its content once the upload is done, so listings need no stat per alias.
+ *
+ * Journal lines: "+\talias\tcontentKey" adds an alias,
+ * "+\talias\tcontentKey\tsize\tetag\tlastModifiedMillis" adds it with its metadata,
+ * "-\talias" removes it.
+ */
+@Component
+public class ContentAliasIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentAliasIndex.class);
+
+    private final Path journal;
+    // Changed under the index lock; listings iterate it without taking the lock
+    private final NavigableMap<String, Alias> aliases = new ConcurrentSkipListMap<>();
+    private final Map<String, Integer> references = new HashMap<>();
+    private BufferedWriter writer;
+
+    @FunctionalInterface
+    public interface ContentRemover {
+        void remove(String contentKey) throws Exception;
+    }
+
+    /**
+     * A file name and its content object; size is -1 and etag null until the upload is described
+     */
+    public static final class Alias {
+        private final String name;
+        private final String contentKey;
+        private final long size;
+        private final String etag;
+        private final ZonedDateTime lastModified;
+
+        Alias(String name, String contentKey, long size, String etag, ZonedDateTime lastModified) {
+            this.name = name;
+            this.contentKey = contentKey;
+            this.size = size;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getContentKey() {
+            return contentKey;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public ZonedDateTime getLastModified() {
+            return lastModified;
+        }
+
+        public boolean isDescribed() {
+            return etag != null;
+        }
+    }
+
+    @Autowired
+    public ContentAliasIndex(MinioProperties minioProperties) {
+        this.journal = Paths.get(minioProperties.getDedup().getIndexFile());
+    }
+
+    @PostConstruct
+    public synchronized void load() throws IOException {
+        if (Files.exists(journal)) {
+            try (BufferedReader reader = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split("\t");
+                    if (fields.length == 3 && fields[0].equals("+")) {
+                        link(new Alias(fields[1], fields[2], -1, null, null));
+                    } else if (fields.length == 6 && fields[0].equals("+")) {
+                        link(parse(fields));
+                    } else if (fields.length == 2 && fields[0].equals("-")) {
+                        unlink(fields[1]);
+                    }
+                    // Anything else is a torn last line and is dropped by the compaction below
+                }
+            }
+            compact();
+            logger.info("Loaded {} content aliases for {} content objects", aliases.size(), references.size());
+        }
+    }
+
+    /**
+     * Content object of a file name, null when the file was not deduplicated
+     */
+    public String resolve(String alias) {
+        Alias entry = aliases.get(alias);
+        return entry != null ? entry.contentKey : null;
+    }
+
+    /**
+     * File names after startAfter that start with prefix, in key order like a bucket
+     * listing; at most limit of them, all when limit is not positive
+     */
+    public List<String> list(String prefix, String startAfter, long limit) {
+        List<String> names = new ArrayList<>();
+        for (Iterator<Alias> it = entries(prefix, startAfter); it.hasNext(); ) {
+            if (limit > 0 && names.size() == limit) {
+                break;
+            }
+            names.add(it.next().name);
+        }
+        return names;
+    }
+
+    /**
+     * Aliases after startAfter that start with prefix, in key order, read lazily;
+     * changes made while iterating may or may not be seen
+     */
+    public Iterator<Alias> entries(String prefix, String startAfter) {
+        String from = startAfter != null ? startAfter : "";
+        String start = prefix != null ? prefix : "";
+        Iterator<Alias> tail = (start.compareTo(from) > 0
+                ? aliases.tailMap(start, true)
+                : aliases.tailMap(from, false)).values().iterator();
+        return new Iterator<>() {
+            private Alias next = advance();
+
+            private Alias advance() {
+                if (tail.hasNext()) {
+                    Alias alias = tail.next();
+                    if (alias.name.startsWith(start)) {
+                        return alias;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Alias next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Alias current = next;
+                next = advance();
+                return current;
+            }
+        };
+    }
+
+    public synchronized void add(String alias, String contentKey) throws IOException {
+        checkField(alias);
+        checkField(contentKey);
+        write("+\t" + alias + "\t" + contentKey);
+        link(new Alias(alias, contentKey, -1, null, null));
+    }
+
+    /**
+     * Record the size, ETag and last modified time of an alias's content once it is stored;
+     * ignored when the alias was released or now points at other content
+     */
+    public synchronized void describe(String alias, String contentKey, long size, String etag,
+            ZonedDateTime lastModified) throws IOException {
+        Alias current = aliases.get(alias);
+        if (current == null || !current.contentKey.equals(contentKey)) {
+            return;
+        }
+        checkField(etag);
+        Alias described = new Alias(alias, contentKey, size, etag, lastModified);
+        write(line(described));
+        aliases.put(alias, described);
+    }
+
+    /**
+     * Drop an alias; the remover runs under the index lock when it was the last
+     * reference, so no upload can link the content object while it is removed.
+     * Returns false when the alias is unknown.
+     */
+    public synchronized boolean release(String alias, ContentRemover remover) throws Exception {
+        Alias entry = aliases.get(alias);
+        if (entry == null) {
+            return false;
+        }
+
+        write("-\t" + alias);
+        if (unlink(alias) == 0) {
+            remover.remove(entry.contentKey);
+        }
+        return true;
+    }
+
+    public synchronized int references(String contentKey) {
+        return references.getOrDefault(contentKey, 0);
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    private void link(Alias alias) {
+        Alias previous = aliases.put(alias.name, alias);
+        if (previous != null) {
+            unlinkKey(previous.contentKey);
+        }
+        references.merge(alias.contentKey, 1, Integer::sum);
+    }
+
+    private int unlink(String alias) {
+        Alias entry = aliases.remove(alias);
+        return entry == null ? 0 : unlinkKey(entry.contentKey);
+    }
+
+    private static Alias parse(String[] fields) {
+        try {
+            ZonedDateTime lastModified = ZonedDateTime.ofInstant(
+                    Instant.ofEpochMilli(Long.parseLong(fields[5])), ZoneOffset.UTC);
+            return new Alias(fields[1], fields[2], Long.parseLong(fields[3]), fields[4], lastModified);
+        } catch (RuntimeException e) {
+            // Metadata that does not parse is fetched again by a stat
+            return new Alias(fields[1], fields[2], -1, null, null);
+        }
+    }
+
+    private static String line(Alias alias) {
+        if (!alias.isDescribed()) {
+            return "+\t" + alias.name + "\t" + alias.contentKey;
+        }
+        long lastModified = alias.lastModified != null ? alias.lastModified.toInstant().toEpochMilli() : 0;
+        return "+\t" + alias.name + "\t" + alias.contentKey
+                + "\t" + alias.size + "\t" + alias.etag + "\t" + lastModified;
+    }
+
+    private int unlinkKey(String contentKey) {
+        Integer remaining = references.computeIfPresent(contentKey, (key, count) -> count > 1 ? count - 1 : null);
+        return remaining == null ? 0 : remaining;
+    }
+
+    /**
+     * Journal fields are tab separated, one entry per line
+     */
+    private static void checkField(String field) {
+        if (field.indexOf('\t') >= 0 || field.indexOf('\n') >= 0 || field.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("Name not allowed in the content alias journal: " + field);
+        }
+    }
+
+    private void write(String line) throws IOException {
+        if (writer == null) {
+            if (journal.getParent() != null) {
+                Files.createDirectories(journal.getParent());
+            }
+            writer = Files.newBufferedWriter(journal, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        writer.write(line);
+        writer.newLine();
+        writer.flush();
+    }
+
+    /**
+     * Rewrite the journal with only the live aliases
+     */
+    private void compact() throws IOException {
+        Path compacted = journal.resolveSibling(journal.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+            for (Alias alias : aliases.values()) {
+                out.write(line(alias));
+                out.newLine();
+            }
+        }
+        Files.move(compacted, journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,449 @@
+package com.example.minio.service;
+
+import com.example.minio.config.MinioProperties;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.minio.GetObjectResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Read-through cache of whole objects on local disk, LRU bounded by total bytes.
+ * An entry is only valid for the ETag it was fetched with. A miss is fetched into a
+ * file by a background thread while the requests that want it read the file as it
+ * grows, so they neither wait for the whole object nor fetch it more than once.
+ */
+@Component
+public class DiskObjectCache implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiskObjectCache.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String FILE_SUFFIX = ".bin";
+    // Cache files are named <random UUID>.bin, nothing else in the directory is ours
+    private static final Pattern FILE_NAME = Pattern.compile(
+            "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}" + Pattern.quote(FILE_SUFFIX));
+
+    private final MinioProperties.DiskCache config;
+    private final Path directory;
+    // Both guarded by the entries lock, so a file is never deleted while a reader opens it
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Load> loads = new HashMap<>();
+    private final ExecutorService fetcher;
+    private long bytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong bytesServed = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @FunctionalInterface
+    public interface ObjectOpener {
+        GetObjectResponse open() throws Exception;
+    }
+
+    @Autowired
+    public DiskObjectCache(MinioProperties minioProperties) {
+        this.config = minioProperties.getDiskCache();
+        this.directory = Paths.get(config.getDirectory());
+        this.fetcher = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "disk-cache-fetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Remove the copies left by a previous run, the index is not persisted. Only files
+     * named the way the cache names them are deleted, the directory may be shared.
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        if (!config.isEnabled()) {
+            return;
+        }
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (isCacheFile(file)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    static boolean isCacheFile(Path file) {
+        return FILE_NAME.matcher(file.getFileName().toString()).matches() && Files.isRegularFile(file);
+    }
+
+    @PreDestroy
+    public void stop() {
+        fetcher.shutdownNow();
+    }
+
+    /**
+     * Whether an object of this size is served through the cache
+     */
+    public boolean accepts(long size) {
+        return config.isEnabled() && size <= config.getMaxObjectSize();
+    }
+
+    /**
+     * Open the cached copy, null on a miss
+     */
+    public FileChannel open(String objectName, String etag) throws IOException {
+        if (!config.isEnabled()) {
+            return null;
+        }
+        synchronized (entries) {
+            Entry entry = entries.get(objectName);
+            if (entry == null || !entry.etag.equals(etag)) {
+                return null;
+            }
+            hits.incrementAndGet();
+            // Opened under the lock so eviction cannot delete the file first
+            return FileChannel.open(entry.path, StandardOpenOption.READ);
+        }
+    }
+
+    /**
+     * Read the cached copy, or on a miss the copy being fetched. Returns once the fetch
+     * has the object open, so a missing object fails here rather than mid-response.
+     * The fetched copy is cached under the ETag of the GET response.
+     */
+    public InputStream openOrLoad(String objectName, String etag, ObjectOpener opener) throws Exception {
+        String key = objectName + "\n" + etag;
+        Load load;
+        FileChannel channel;
+        boolean leader = false;
+        synchronized (entries) {
+            Entry entry = entries.get(objectName);
+            if (entry != null && entry.etag.equals(etag)) {
+                hits.incrementAndGet();
+                bytesServed.addAndGet(entry.size);
+                return Channels.newInputStream(FileChannel.open(entry.path, StandardOpenOption.READ));
+            }
+            load = loads.get(key);
+            if (load == null) {
+                load = new Load(key, objectName, directory.resolve(UUID.randomUUID() + FILE_SUFFIX));
+                Files.createFile(load.path);
+                loads.put(key, load);
+                leader = true;
+            }
+            channel = FileChannel.open(load.path, StandardOpenOption.READ);
+        }
+        misses.incrementAndGet();
+
+        if (leader) {
+            Load started = load;
+            try {
+                fetcher.execute(() -> fetch(started, opener));
+            } catch (RejectedExecutionException e) {
+                abandon(load, new IOException("Disk cache is shutting down"));
+            }
+        }
+        try {
+            load.awaitOpened();
+        } catch (Exception e) {
+            channel.close();
+            throw e;
+        }
+        return new LoadStream(load, channel, !leader);
+    }
+
+    /**
+     * Write bytes [offset, offset + length) of a cached copy. A servlet output stream
+     * is not a channel, so this is a buffered copy rather than sendfile: handing Tomcat
+     * the path for its own sendfile would let eviction delete the file before it is opened.
+     */
+    public void transfer(FileChannel channel, long offset, long length, OutputStream out) throws IOException {
+        try (FileChannel source = channel) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.max(Math.min(BUFFER_SIZE, length), 1));
+            long position = offset;
+            long end = offset + length;
+            while (position < end) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+                int read = source.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("Cached copy shorter than expected");
+                }
+                out.write(buffer.array(), 0, read);
+                position += read;
+            }
+            bytesServed.addAndGet(length);
+        }
+    }
+
+    public void invalidate(String objectName) {
+        synchronized (entries) {
+            Entry entry = entries.remove(objectName);
+            if (entry != null) {
+                bytes -= entry.size;
+                delete(entry.path);
+            }
+        }
+    }
+
+    /**
+     * Hits, misses, hit rate, bytes served from disk, evictions and current size
+     */
+    public Map<String, Object> stats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", config.isEnabled());
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("bytesSaved", bytesServed.get());
+        stats.put("evictions", evictions.get());
+        synchronized (entries) {
+            stats.put("entries", entries.size());
+            stats.put("bytes", bytes);
+        }
+        stats.put("maxBytes", config.getMaxBytes());
+        return stats;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("file.disk.cache.requests", hits, AtomicLong::get)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("file.disk.cache.requests", misses, AtomicLong::get)
+                .tag("result", "miss").register(registry);
+        FunctionCounter.builder("file.disk.cache.served", bytesServed, AtomicLong::get)
+                .baseUnit("bytes").register(registry);
+        FunctionCounter.builder("file.disk.cache.evictions", evictions, AtomicLong::get)
+                .register(registry);
+        Gauge.builder("file.disk.cache.size", this, cache -> {
+                    synchronized (cache.entries) {
+                        return cache.bytes;
+                    }
+                })
+                .baseUnit("bytes").register(registry);
+    }
+
+    private void fetch(Load load, ObjectOpener opener) {
+        try (GetObjectResponse response = opener.open();
+             FileChannel file = FileChannel.open(load.path, StandardOpenOption.WRITE)) {
+            String etag = response.headers().get("ETag");
+            load.opened(etag != null ? etag.replace("\"", "") : null);
+
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long size = 0;
+            int read;
+            while ((read = response.read(buffer)) >= 0) {
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    file.write(chunk);
+                }
+                size += read;
+                load.progress(size);
+            }
+            commit(load, size);
+        } catch (Exception e) {
+            abandon(load, e);
+        }
+    }
+
+    private void commit(Load load, long size) {
+        synchronized (entries) {
+            loads.remove(load.key, load);
+            load.finish();
+            if (load.etag == null || size > config.getMaxObjectSize()) {
+                delete(load.path);
+                return;
+            }
+
+            Entry previous = entries.put(load.objectName, new Entry(load.etag, load.path, size));
+            bytes += size;
+            if (previous != null) {
+                bytes -= previous.size;
+                delete(previous.path);
+            }
+
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (bytes > config.getMaxBytes() && eldest.hasNext()) {
+                Entry entry = eldest.next();
+                eldest.remove();
+                bytes -= entry.size;
+                evictions.incrementAndGet();
+                delete(entry.path);
+            }
+        }
+    }
+
+    private void abandon(Load load, Exception failure) {
+        synchronized (entries) {
+            loads.remove(load.key, load);
+            load.fail(failure);
+            delete(load.path);
+        }
+    }
+
+    private void delete(Path path) {
+        try {
+            // Readers that already opened the file keep their channel
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Error deleting cached file {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static class Entry {
+        private final String etag;
+        private final Path path;
+        private final long size;
+
+        Entry(String etag, Path path, long size) {
+            this.etag = etag;
+            this.path = path;
+            this.size = size;
+        }
+    }
+
+    /**
+     * A fetch in progress: how much of the file is written and how it ended
+     */
+    private static class Load {
+        private final String key;
+        private final String objectName;
+        private final Path path;
+        private String etag;
+        private boolean opened;
+        private long written;
+        private boolean done;
+        private Exception failure;
+
+        Load(String key, String objectName, Path path) {
+            this.key = key;
+            this.objectName = objectName;
+            this.path = path;
+        }
+
+        synchronized void opened(String etag) {
+            this.etag = etag;
+            this.opened = true;
+            notifyAll();
+        }
+
+        synchronized void progress(long written) {
+            this.written = written;
+            notifyAll();
+        }
+
+        synchronized void finish() {
+            done = true;
+            notifyAll();
+        }
+
+        synchronized void fail(Exception failure) {
+            this.failure = failure;
+            notifyAll();
+        }
+
+        synchronized void awaitOpened() throws Exception {
+            while (!opened && failure == null) {
+                wait();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        /**
+         * Bytes written so far once some lie past position, -1 when the file ends there
+         */
+        synchronized long awaitBytes(long position) throws IOException {
+            while (written <= position && !done && failure == null) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for " + objectName);
+                }
+            }
+            if (failure != null) {
+                throw new IOException("Failed to fetch " + objectName + ": " + failure.getMessage(), failure);
+            }
+            return written > position ? written : -1;
+        }
+    }
+
+    /**
+     * Reads a file that is still being written, following the fetch
+     */
+    private class LoadStream extends InputStream {
+        private final Load load;
+        private final FileChannel channel;
+        private final boolean shared;
+        private long position;
+
+        LoadStream(Load load, FileChannel channel, boolean shared) {
+            this.load = load;
+            this.channel = channel;
+            this.shared = shared;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            long available = load.awaitBytes(position);
+            if (available < 0) {
+                return -1;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(b, off, (int) Math.min(len, available - position));
+            int read = channel.read(buffer, position);
+            if (read > 0) {
+                position += read;
+                if (shared) {
+                    // Bytes another request fetched from MinIO
+                    bytesServed.addAndGet(read);
+                }
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
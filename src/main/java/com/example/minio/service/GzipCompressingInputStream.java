@@ -0,0 +1,115 @@
+package com.example.minio.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Reads another stream gzip-compressed, so compressed bytes can be pulled by an
+ * uploader without a thread or a temporary file. The header has no timestamp,
+ * so the same content always compresses to the same bytes.
+ */
+class GzipCompressingInputStream extends InputStream {
+
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final InputStream in;
+    private final Deflater deflater;
+    private final CRC32 crc = new CRC32();
+    private final byte[] input = new byte[64 * 1024];
+    private byte[] pending = HEADER;
+    private int pendingPosition;
+    private boolean inputDone;
+    private boolean trailerQueued;
+    private long bytesIn;
+    private long bytesOut;
+
+    GzipCompressingInputStream(InputStream in, int level) {
+        this.in = in;
+        this.deflater = new Deflater(level, true);
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int read = read(single, 0, 1);
+        return read < 0 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+
+        while (true) {
+            if (pendingPosition < pending.length) {
+                int count = Math.min(length, pending.length - pendingPosition);
+                System.arraycopy(pending, pendingPosition, buffer, offset, count);
+                pendingPosition += count;
+                bytesOut += count;
+                return count;
+            }
+            if (trailerQueued) {
+                return -1;
+            }
+            if (deflater.finished()) {
+                pending = trailer();
+                pendingPosition = 0;
+                trailerQueued = true;
+                continue;
+            }
+
+            if (deflater.needsInput() && !inputDone) {
+                int read = in.read(input);
+                if (read < 0) {
+                    inputDone = true;
+                    deflater.finish();
+                } else if (read > 0) {
+                    crc.update(input, 0, read);
+                    bytesIn += read;
+                    deflater.setInput(input, 0, read);
+                }
+            }
+
+            int count = deflater.deflate(buffer, offset, length);
+            if (count > 0) {
+                bytesOut += count;
+                return count;
+            }
+        }
+    }
+
+    /**
+     * Uncompressed bytes consumed so far
+     */
+    long getBytesIn() {
+        return bytesIn;
+    }
+
+    /**
+     * Compressed bytes produced so far, header and trailer included
+     */
+    long getBytesOut() {
+        return bytesOut;
+    }
+
+    @Override
+    public void close() throws IOException {
+        deflater.end();
+        in.close();
+    }
+
+    // CRC-32 and uncompressed size mod 2^32, little-endian
+    private byte[] trailer() {
+        long value = crc.getValue();
+        long size = bytesIn;
+        byte[] trailer = new byte[8];
+        for (int i = 0; i < 4; i++) {
+            trailer[i] = (byte) (value >>> (8 * i));
+            trailer[4 + i] = (byte) (size >>> (8 * i));
+        }
+        return trailer;
+    }
+}
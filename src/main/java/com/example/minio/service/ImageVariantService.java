@@ -0,0 +1,239 @@
+package com.example.minio.service;
+
+import com.example.minio.config.MinioProperties;
+import io.minio.StatObjectResponse;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resized image variants, rendered on demand by a bounded worker pool.
+ * Rendered variants are stored back into MinIO under a derived key that includes
+ * the original's ETag, with an in-memory LRU in front. Concurrent requests for
+ * the same variant share one render.
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+
+    private final MinioService minioService;
+    private final MinioProperties.Variants config;
+    private final ThreadPoolExecutor workers;
+    private final ByteLruCache cache;
+    private final Map<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ImageVariantService(MinioService minioService, MinioProperties minioProperties) {
+        this.minioService = minioService;
+        this.config = minioProperties.getVariants();
+        int threads = Math.max(config.getWorkers(), 1);
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(config.getQueueCapacity(), 1)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variant");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.cache = new ByteLruCache(config.getCacheBytes());
+    }
+
+    /**
+     * Content type of an output format, null when the format is not supported
+     */
+    public static String contentType(String format) {
+        switch (format) {
+            case "jpg":
+            case "jpeg":
+                return "image/jpeg";
+            case "png":
+                return "image/png";
+            case "gif":
+                return "image/gif";
+            case "bmp":
+                return "image/bmp";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Get a variant that fits inside width x height (either may be 0 to keep the aspect ratio)
+     */
+    public byte[] getVariant(String fileName, int width, int height, String format) throws Exception {
+        int max = config.getMaxDimension();
+        if (width < 0 || height < 0 || width > max || height > max || (width == 0 && height == 0)) {
+            throw new IllegalArgumentException("w and h must be between 0 and " + max + ", at least one set");
+        }
+        if (contentType(format) == null) {
+            throw new IllegalArgumentException("Unsupported format: " + format);
+        }
+
+        StatObjectResponse original = minioService.getFileInfo(fileName);
+        String key = config.getPrefix() + fileName + "/" + original.etag() + "/" + width + "x" + height + "." + format;
+
+        byte[] cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        boolean[] started = new boolean[1];
+        CompletableFuture<byte[]> future = inFlight.computeIfAbsent(key, k -> {
+            started[0] = true;
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return loadOrRender(fileName, original, key, width, height, format);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, workers);
+        });
+        // Attached outside computeIfAbsent: a render that is already done runs this
+        // at once, and removing from the map inside its own compute is not allowed
+        if (started[0]) {
+            future.whenComplete((bytes, error) -> inFlight.remove(key, future));
+        }
+
+        try {
+            byte[] variant = future.join();
+            cache.put(key, variant);
+            return variant;
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw cause instanceof Exception ? (Exception) cause : new Exception(cause);
+        }
+    }
+
+    private byte[] loadOrRender(String fileName, StatObjectResponse original, String key,
+            int width, int height, String format) throws Exception {
+        byte[] stored = minioService.readObjectIfExists(key);
+        if (stored != null) {
+            return stored;
+        }
+
+        if (original.size() == 0) {
+            throw new IllegalArgumentException("File is not a supported image");
+        }
+
+        BufferedImage source;
+        try (InputStream inputStream = minioService.downloadFile(fileName, 0, original.size())) {
+            source = decode(inputStream);
+        }
+
+        byte[] variant = encode(resize(source, width, height, format), format);
+        minioService.putBytes(key, variant, contentType(format));
+        logger.info("Rendered variant {} ({} bytes)", key, variant.length);
+        return variant;
+    }
+
+    private BufferedImage decode(InputStream inputStream) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(inputStream)) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("File is not a supported image");
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                // Refuse decompression bombs before allocating the bitmap
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > config.getMaxSourcePixels()) {
+                    throw new IllegalArgumentException("Image too large: " + pixels + " pixels");
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage resize(BufferedImage source, int width, int height, String format) {
+        double scaleX = width > 0 ? (double) width / source.getWidth() : Double.MAX_VALUE;
+        double scaleY = height > 0 ? (double) height / source.getHeight() : Double.MAX_VALUE;
+        // Fit inside the box, never upscale
+        double scale = Math.min(Math.min(scaleX, scaleY), 1.0);
+
+        int targetWidth = Math.max((int) Math.round(source.getWidth() * scale), 1);
+        int targetHeight = Math.max((int) Math.round(source.getHeight() * scale), 1);
+
+        boolean alpha = !format.equals("jpg") && !format.equals("jpeg") && !format.equals("bmp");
+        BufferedImage target = new BufferedImage(targetWidth, targetHeight,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (!ImageIO.write(image, format.equals("jpg") ? "jpeg" : format, out)) {
+            throw new IOException("No image writer for " + format);
+        }
+        return out.toByteArray();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * LRU of rendered variants bounded by total bytes
+     */
+    private static class ByteLruCache {
+        private final long maxBytes;
+        private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long bytes;
+
+        ByteLruCache(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized byte[] get(String key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(String key, byte[] value) {
+            if (value.length > maxBytes) {
+                return;
+            }
+            byte[] previous = entries.put(key, value);
+            bytes += value.length - (previous != null ? previous.length : 0);
+
+            Iterator<byte[]> eldest = entries.values().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                bytes -= eldest.next().length;
+                eldest.remove();
+            }
+        }
+    }
+}
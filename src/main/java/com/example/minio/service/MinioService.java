@@ -1,7 +1,13 @@
 package com.example.minio.service;
 
 import com.example.minio.config.MinioProperties;
+import com.example.minio.entity.FileEntry;
+import com.example.minio.entity.FilePage;
+import com.example.minio.entity.StoredObject;
 import io.minio.*;
+import io.minio.errors.ErrorResponseException;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
 import io.minio.messages.Item;
 
 import org.slf4j.Logger;
@@ -10,16 +16,29 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.lang.Thread;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
 
 @Service
 public class MinioService {
 
     private static final Logger logger = LoggerFactory.getLogger(MinioService.class);
+    private static final Pattern EXTENSION = Pattern.compile("[A-Za-z0-9]{1,16}");
 
     @Autowired
     private MinioClient minioClient;
@@ -27,6 +46,27 @@ public class MinioService {
     @Autowired
     private MinioProperties minioProperties;
 
+    @Autowired
+    private StreamingUploader streamingUploader;
+
+    @Autowired
+    private ParallelRangeDownloader parallelRangeDownloader;
+
+    @Autowired
+    private ObjectMetadataCache metadataCache;
+
+    @Autowired
+    private BucketRegistry bucketRegistry;
+
+    @Autowired
+    private ContentAliasIndex aliasIndex;
+
+    @Autowired
+    private DiskObjectCache diskObjectCache;
+
+    @Autowired
+    private ObjectCompressor objectCompressor;
+
     /**
      * List all files in bucket
      */
@@ -42,8 +82,11 @@ public class MinioService {
 
             for (Result<Item> result : results) {
                 Item item = result.get();
-                fileNames.add(item.objectName());
+                if (!isInternal(item.objectName())) {
+                    fileNames.add(item.objectName());
+                }
             }
+            fileNames.addAll(aliasIndex.list(null, null, 0));
 
             logger.info("Retrieved {} files from bucket {}", fileNames.size(), minioProperties.getBucketName());
             return fileNames;
@@ -53,25 +96,247 @@ public class MinioService {
         }
     }
 
+    /**
+     * List one page of files, fetched with a single ListObjects request
+     */
+    public FilePage listFiles(String prefix, String delimiter, String startAfter, int maxKeys) throws Exception {
+        try {
+            List<FileEntry> entries = new ArrayList<>(maxKeys + 1);
+            Set<String> names = new HashSet<>();
+
+            // Ask for one extra key to know whether another page follows
+            for (Result<Item> result : listObjects(prefix, delimiter, startAfter, maxKeys + 1)) {
+                FileEntry entry = toFileEntry(result.get());
+                if (isCursor(entry, startAfter) || isInternal(entry.getName())) {
+                    continue;
+                }
+                entries.add(entry);
+                names.add(entry.getName());
+                if (entries.size() > maxKeys) {
+                    break;
+                }
+            }
+            AliasEntries aliases = new AliasEntries(prefix, delimiter, startAfter);
+            for (int i = 0; i <= maxKeys && aliases.peek() != null; i++) {
+                FileEntry alias = aliases.poll();
+                if (names.add(alias.getName())) {
+                    entries.add(alias);
+                }
+            }
+
+            // A page lists its keys before its common prefixes, the cursor needs key order
+            entries.sort(Comparator.comparing(FileEntry::getName));
+            while (entries.size() > maxKeys + 1) {
+                entries.remove(entries.size() - 1);
+            }
+            String nextStartAfter = null;
+            if (entries.size() > maxKeys) {
+                entries.remove(maxKeys);
+                nextStartAfter = entries.get(maxKeys - 1).getName();
+            }
+
+            return new FilePage(entries, nextStartAfter);
+        } catch (Exception e) {
+            logger.error("Error listing files: {}", e.getMessage());
+            throw new Exception("Failed to list files: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Hand every matching file to the consumer as MinIO returns it, without collecting them
+     */
+    public void streamFiles(String prefix, String delimiter, String startAfter, long limit,
+            FileEntryConsumer consumer) throws Exception {
+        // Deduplicated files have no object of their own, they are merged in by name
+        AliasEntries aliases = new AliasEntries(prefix, delimiter, startAfter);
+        long count = 0;
+        for (Result<Item> result : listObjects(prefix, delimiter, startAfter, 1000)) {
+            FileEntry entry = toFileEntry(result.get());
+            if (isCursor(entry, startAfter) || isInternal(entry.getName())) {
+                continue;
+            }
+            while (aliases.peek() != null && aliases.peek().getName().compareTo(entry.getName()) <= 0
+                    && (limit <= 0 || count < limit)) {
+                FileEntry alias = aliases.poll();
+                if (!alias.getName().equals(entry.getName())) {
+                    consumer.accept(alias);
+                    count++;
+                }
+            }
+            if (limit > 0 && count == limit) {
+                return;
+            }
+            consumer.accept(entry);
+            count++;
+        }
+        while (aliases.peek() != null && (limit <= 0 || count < limit)) {
+            consumer.accept(aliases.poll());
+            count++;
+        }
+    }
+
+    @FunctionalInterface
+    public interface FileEntryConsumer {
+        void accept(FileEntry entry) throws IOException;
+    }
+
+    private Iterable<Result<Item>> listObjects(String prefix, String delimiter, String startAfter, int pageSize) {
+        ListObjectsArgs.Builder args = ListObjectsArgs.builder()
+                .bucket(minioProperties.getBucketName())
+                .maxKeys(pageSize);
+
+        if (prefix != null && !prefix.isEmpty()) {
+            args.prefix(prefix);
+        }
+        if (startAfter != null && !startAfter.isEmpty()) {
+            args.startAfter(startAfter);
+        }
+        if (delimiter != null && !delimiter.isEmpty()) {
+            args.delimiter(delimiter).recursive(false);
+        } else {
+            args.recursive(true);
+        }
+
+        return minioClient.listObjects(args.build());
+    }
+
+    private FileEntry toFileEntry(Item item) {
+        if (item.isDir()) {
+            return new FileEntry(item.objectName(), 0, null, null, true);
+        }
+        String etag = item.etag() != null ? item.etag().replace("\"", "") : null;
+        return new FileEntry(item.objectName(), item.size(), etag, item.lastModified(), false);
+    }
+
+    /**
+     * Entries for the deduplicated file names of a listing, read from the alias index as
+     * the listing consumes them. Size, ETag and last modified time come from the index;
+     * only aliases written before it kept them are stat'ed. With a delimiter, names below
+     * it are rolled up into common prefixes.
+     */
+    private class AliasEntries {
+        private final String start;
+        private final String delimiter;
+        private final String startAfter;
+        private final Iterator<ContentAliasIndex.Alias> aliases;
+        private FileEntry next;
+        private String lastDir;
+
+        AliasEntries(String prefix, String delimiter, String startAfter) {
+            this.start = prefix != null ? prefix : "";
+            this.delimiter = delimiter != null && !delimiter.isEmpty() ? delimiter : null;
+            this.startAfter = startAfter;
+            this.aliases = aliasIndex.entries(start, startAfter);
+        }
+
+        FileEntry peek() {
+            if (next == null) {
+                next = advance();
+            }
+            return next;
+        }
+
+        FileEntry poll() {
+            FileEntry entry = peek();
+            next = null;
+            return entry;
+        }
+
+        private FileEntry advance() {
+            while (aliases.hasNext()) {
+                ContentAliasIndex.Alias alias = aliases.next();
+                String name = alias.getName();
+                int cut = delimiter != null ? name.indexOf(delimiter, start.length()) : -1;
+                if (cut >= 0) {
+                    String dir = name.substring(0, cut + delimiter.length());
+                    if (!dir.equals(lastDir) && !dir.equals(startAfter)) {
+                        lastDir = dir;
+                        return new FileEntry(dir, 0, null, null, true);
+                    }
+                    continue;
+                }
+                if (alias.isDescribed()) {
+                    return new FileEntry(name, alias.getSize(), alias.getEtag(), alias.getLastModified(), false);
+                }
+                try {
+                    StatObjectResponse stat = getFileInfo(name);
+                    String etag = stat.etag() != null ? stat.etag().replace("\"", "") : null;
+                    return new FileEntry(name, stat.size(), etag, stat.lastModified(), false);
+                } catch (Exception e) {
+                    // Released while listing
+                    logger.debug("Skipping file {} in listing: {}", name, e.getMessage());
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Objects the service keeps for itself: rendered image variants and the content
+     * objects of deduplicated uploads, which are listed under their file names
+     */
+    private boolean isInternal(String objectName) {
+        return objectName.startsWith(minioProperties.getVariants().getPrefix())
+                || objectName.startsWith(minioProperties.getDedup().getPrefix());
+    }
+
+    /**
+     * A page ending on a common prefix continues after its name. The keys below it
+     * still sort after that name, so the listing reports the same prefix again
+     * first and it is dropped here; no made-up key is needed to skip past them.
+     */
+    private boolean isCursor(FileEntry entry, String startAfter) {
+        return entry.isDir() && entry.getName().equals(startAfter);
+    }
+
     /**
      * Upload file to MinIO
      */
     public String uploadFile(MultipartFile file) throws Exception {
         try {
-            // Check if bucket exists, if not create it
-            createBucketIfNotExists();
-
             // Generate unique filename
             String fileName = generateUniqueFileName(file.getOriginalFilename());
+            ObjectCompressor.Prepared prepared = objectCompressor.prepare(
+                    file.getInputStream(), file.getContentType(), file.getSize());
 
-            // Upload file
-            minioClient.putObject(
-                    PutObjectArgs.builder()
-                            .bucket(minioProperties.getBucketName())
-                            .object(fileName)
-                            .stream(file.getInputStream(), file.getSize(), -1)
-                            .contentType(file.getContentType())
-                            .build());
+            if (minioProperties.getDedup().isEnabled()) {
+                try (InputStream inputStream = prepared.getStream()) {
+                    storeDeduplicated(fileName, inputStream, file.getContentType(), prepared.getHeaders());
+                }
+                objectCompressor.completed(prepared);
+                logger.info("File uploaded successfully: {}", fileName);
+                return fileName;
+            }
+
+            // The compressed size is unknown up front, so it is streamed like a chunked upload
+            if (prepared.isCompressed()) {
+                try (InputStream inputStream = prepared.getStream()) {
+                    streamingUploader.upload(minioProperties.getBucketName(), fileName, inputStream,
+                            file.getContentType(), prepared.getHeaders());
+                }
+                objectCompressor.completed(prepared);
+                metadataCache.invalidate(fileName);
+                logger.info("File uploaded compressed: {}", fileName);
+                return fileName;
+            }
+
+            // Upload file, the bucket is provisioned at startup and recreated if it disappears.
+            // The failed attempt consumed its stream, so a retry reads the file again.
+            AtomicBoolean firstAttempt = new AtomicBoolean(true);
+            bucketRegistry.retryOnMissingBucket(minioProperties.getBucketName(), () -> {
+                ObjectCompressor.Prepared attempt = firstAttempt.getAndSet(false) ? prepared
+                        : objectCompressor.prepare(file.getInputStream(), file.getContentType(), file.getSize());
+                try (InputStream inputStream = attempt.getStream()) {
+                    return minioClient.putObject(
+                            PutObjectArgs.builder()
+                                    .bucket(minioProperties.getBucketName())
+                                    .object(fileName)
+                                    .stream(inputStream, file.getSize(), -1)
+                                    .contentType(file.getContentType())
+                                    .build());
+                }
+            });
+            metadataCache.invalidate(fileName);
 
             logger.info("File uploaded successfully: {}", fileName);
             return fileName;
@@ -83,16 +348,64 @@ public class MinioService {
     }
 
     /**
-     * Download file from MinIO
+     * Upload a raw stream of known or unknown length to MinIO
      */
-    public InputStream downloadFile(String fileName) throws Exception {
+    public StoredObject uploadStream(InputStream inputStream, String originalFileName, String contentType)
+            throws Exception {
         try {
-            Thread.sleep(1000);
-            return minioClient.getObject(
+            String fileName = generateUniqueFileName(originalFileName);
+            ObjectCompressor.Prepared prepared = objectCompressor.prepare(inputStream, contentType, -1);
+            long stored = minioProperties.getDedup().isEnabled()
+                    ? storeDeduplicated(fileName, prepared.getStream(), contentType, prepared.getHeaders())
+                    : streamingUploader.upload(minioProperties.getBucketName(), fileName, prepared.getStream(),
+                            contentType, prepared.getHeaders());
+            objectCompressor.completed(prepared);
+            metadataCache.invalidate(fileName);
+            long size = prepared.isCompressed() ? prepared.getOriginalBytes() : stored;
+
+            logger.info("File streamed successfully: {} ({} bytes)", fileName, size);
+            return new StoredObject(fileName, originalFileName, contentType, size);
+
+        } catch (Exception e) {
+            logger.error("Error streaming file: {}", e.getMessage());
+            throw new Exception("Failed to upload file: " + e.getMessage());
+        }
+    }
+
+    private long storeDeduplicated(String fileName, InputStream inputStream, String contentType,
+            Map<String, String> headers) throws Exception {
+        StreamingUploader.ContentUpload upload = streamingUploader.uploadContentAddressed(
+                minioProperties.getBucketName(), minioProperties.getDedup().getPrefix(),
+                inputStream, contentType, headers, aliasIndex, fileName);
+        metadataCache.invalidate(fileName);
+
+        if (upload.isDeduplicated()) {
+            logger.info("Content of {} already stored as {}", fileName, upload.getContentKey());
+        }
+        return upload.getSize();
+    }
+
+    /**
+     * Object that holds the bytes of a file, a content object for deduplicated uploads
+     */
+    String objectKey(String fileName) {
+        String contentKey = aliasIndex.resolve(fileName);
+        return contentKey != null ? contentKey : fileName;
+    }
+
+    /**
+     * Download file from MinIO, the response headers refresh the metadata cache
+     */
+    public GetObjectResponse downloadFile(String fileName) throws Exception {
+        try {
+            GetObjectResponse response = minioClient.getObject(
                     GetObjectArgs.builder()
                             .bucket(minioProperties.getBucketName())
-                            .object(fileName)
+                            .object(objectKey(fileName))
                             .build());
+            metadataCache.put(fileName, new StatObjectResponse(
+                    response.headers(), response.bucket(), response.region(), response.object()));
+            return response;
         } catch (Exception e) {
             logger.error("Error downloading file: {}", e.getMessage());
             throw new Exception("Failed to download file: " + e.getMessage());
@@ -100,15 +413,189 @@ public class MinioService {
     }
 
     /**
-     * Delete file from MinIO
+     * Download a byte range of a file from MinIO
      */
-    public void deleteFile(String fileName) throws Exception {
+    public InputStream downloadFile(String fileName, long offset, long length) throws Exception {
+        return downloadFile(fileName, null, offset, length);
+    }
+
+    /**
+     * Download a byte range of a file from MinIO, failing when the file no longer has the given ETag
+     */
+    public InputStream downloadFile(String fileName, String etag, long offset, long length) throws Exception {
         try {
-            minioClient.removeObject(
-                    RemoveObjectArgs.builder()
+            GetObjectArgs.Builder args = GetObjectArgs.builder()
+                    .bucket(minioProperties.getBucketName())
+                    .object(objectKey(fileName))
+                    .offset(offset)
+                    .length(length);
+            if (etag != null) {
+                args.matchETag(etag);
+            }
+            return minioClient.getObject(args.build());
+        } catch (Exception e) {
+            logger.error("Error downloading file range: {}", e.getMessage());
+            throw new Exception("Failed to download file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Open a whole file for reading, null when it does not exist
+     */
+    public GetObjectResponse openIfExists(String fileName) throws Exception {
+        try {
+            return minioClient.getObject(
+                    GetObjectArgs.builder()
                             .bucket(minioProperties.getBucketName())
-                            .object(fileName)
+                            .object(objectKey(fileName))
                             .build());
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code())) {
+                return null;
+            }
+            throw new Exception("Failed to download file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Open the content of a file, decompressed when it is stored compressed; null when it does not exist
+     */
+    public InputStream openContentIfExists(String fileName) throws Exception {
+        GetObjectResponse response = openIfExists(fileName);
+        if (response == null || !ObjectCompressor.isGzip(response.headers().get("Content-Encoding"))) {
+            return response;
+        }
+        try {
+            return objectCompressor.decompress(response);
+        } catch (IOException e) {
+            response.close();
+            throw new Exception("Failed to decompress file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * First bytes of a file's content, decompressed when it is stored compressed
+     */
+    public byte[] readHead(String fileName, int maxBytes) throws Exception {
+        StatObjectResponse fileInfo = getFileInfo(fileName);
+        if (fileInfo.size() == 0) {
+            return new byte[0];
+        }
+        if (!objectCompressor.isCompressed(fileInfo)) {
+            try (InputStream inputStream = downloadFile(fileName, 0, Math.min(fileInfo.size(), maxBytes))) {
+                return inputStream.readAllBytes();
+            }
+        }
+        try (InputStream inputStream = objectCompressor.decompress(downloadFile(fileName))) {
+            return inputStream.readNBytes(maxBytes);
+        }
+    }
+
+    /**
+     * Local disk copy of a file for its current ETag, null when it is not cached
+     */
+    public FileChannel openCachedCopy(String fileName, StatObjectResponse fileInfo) throws Exception {
+        if (!diskObjectCache.accepts(fileInfo.size())) {
+            return null;
+        }
+        return diskObjectCache.open(fileName, fileInfo.etag());
+    }
+
+    /**
+     * Whole file read through the disk cache: the cached copy, or on a miss the bytes
+     * as they are fetched into it. Null when the file is not served from the disk cache.
+     */
+    public InputStream downloadThroughCache(String fileName, StatObjectResponse fileInfo) throws Exception {
+        if (!diskObjectCache.accepts(fileInfo.size())) {
+            return null;
+        }
+        return diskObjectCache.openOrLoad(fileName, fileInfo.etag(), () -> {
+            GetObjectResponse response = openIfExists(fileName);
+            if (response == null) {
+                throw new Exception("File not found: " + fileName);
+            }
+            return response;
+        });
+    }
+
+    /**
+     * Write a byte range of the version of a file with the given ETag to the output
+     * stream, large ranges are split into parallel ranged reads
+     */
+    public void writeRange(String fileName, String etag, long offset, long length, OutputStream out)
+            throws IOException {
+        if (parallelRangeDownloader.shouldSplit(length)) {
+            parallelRangeDownloader.copy(minioProperties.getBucketName(), objectKey(fileName), etag, offset, length,
+                    out);
+            return;
+        }
+
+        try (InputStream inputStream = downloadFile(fileName, etag, offset, length)) {
+            inputStream.transferTo(out);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Cached file info without going to MinIO, null on a miss
+     */
+    public StatObjectResponse getCachedFileInfo(String fileName) {
+        return metadataCache.get(fileName);
+    }
+
+    /**
+     * Whether a full download of this size goes through parallel ranged reads
+     */
+    public boolean isParallelDownload(long size) {
+        return parallelRangeDownloader.shouldSplit(size);
+    }
+
+    /**
+     * Read a whole object, null when it does not exist
+     */
+    public byte[] readObjectIfExists(String objectName) throws Exception {
+        try (GetObjectResponse response = minioClient.getObject(
+                GetObjectArgs.builder()
+                        .bucket(minioProperties.getBucketName())
+                        .object(objectName)
+                        .build())) {
+            return response.readAllBytes();
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code())) {
+                return null;
+            }
+            throw new Exception("Failed to read object: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Store a small in-memory object under an exact name
+     */
+    public void putBytes(String objectName, byte[] data, String contentType) throws Exception {
+        bucketRegistry.retryOnMissingBucket(minioProperties.getBucketName(), () -> minioClient.putObject(
+                PutObjectArgs.builder()
+                        .bucket(minioProperties.getBucketName())
+                        .object(objectName)
+                        .stream(new ByteArrayInputStream(data), data.length, -1)
+                        .contentType(contentType)
+                        .build()));
+        metadataCache.invalidate(objectName);
+    }
+
+    /**
+     * Delete file from MinIO
+     */
+    public void deleteFile(String fileName) throws Exception {
+        try {
+            // A deduplicated file drops its reference, the content goes with the last one
+            if (!aliasIndex.release(fileName, this::removeObject)) {
+                removeObject(fileName);
+            }
+            metadataCache.invalidate(fileName);
+            diskObjectCache.invalidate(fileName);
             logger.info("File deleted successfully: {}", fileName);
         } catch (Exception e) {
             logger.error("Error deleting file: {}", e.getMessage());
@@ -117,51 +604,94 @@ public class MinioService {
     }
 
     /**
-     * Get file info
+     * Delete many files with bulk DeleteObjects requests, returns file name -> error for failures
      */
-    public StatObjectResponse getFileInfo(String fileName) throws Exception {
+    public Map<String, String> deleteFiles(Collection<String> fileNames) throws Exception {
         try {
-            return minioClient.statObject(
-                    StatObjectArgs.builder()
+            Map<String, String> errors = new LinkedHashMap<>();
+            List<DeleteObject> objects = new ArrayList<>();
+
+            for (String fileName : fileNames) {
+                try {
+                    if (!aliasIndex.release(fileName, this::removeObject)) {
+                        objects.add(new DeleteObject(fileName));
+                    }
+                } catch (Exception e) {
+                    errors.put(fileName, e.getMessage());
+                }
+                metadataCache.invalidate(fileName);
+                diskObjectCache.invalidate(fileName);
+            }
+
+            // Lazy: the requests (up to 1000 keys each) are sent while the results are iterated
+            Iterable<Result<DeleteError>> results = minioClient.removeObjects(
+                    RemoveObjectsArgs.builder()
                             .bucket(minioProperties.getBucketName())
-                            .object(fileName)
+                            .objects(objects)
                             .build());
+            for (Result<DeleteError> result : results) {
+                DeleteError error = result.get();
+                errors.put(error.objectName(), error.message());
+            }
+
+            logger.info("Deleted {} of {} files", fileNames.size() - errors.size(), fileNames.size());
+            return errors;
         } catch (Exception e) {
-            logger.error("Error getting file info: {}", e.getMessage());
-            throw new Exception("Failed to get file info: " + e.getMessage());
+            logger.error("Error deleting files: {}", e.getMessage());
+            throw new Exception("Failed to delete files: " + e.getMessage());
         }
     }
 
+    private void removeObject(String objectName) throws Exception {
+        minioClient.removeObject(
+                RemoveObjectArgs.builder()
+                        .bucket(minioProperties.getBucketName())
+                        .object(objectName)
+                        .build());
+    }
+
     /**
-     * Create bucket if it doesn't exist
+     * Get file info, served from the metadata cache when possible
      */
-    private void createBucketIfNotExists() throws Exception {
+    public StatObjectResponse getFileInfo(String fileName) throws Exception {
+        return getFileInfo(fileName, false);
+    }
+
+    /**
+     * Get file info; with revalidate the cache is bypassed and refreshed from a
+     * stat, as conditional requests must be answered from current metadata
+     */
+    public StatObjectResponse getFileInfo(String fileName, boolean revalidate) throws Exception {
+        StatObjectResponse cached = revalidate ? null : metadataCache.get(fileName);
+        if (cached != null) {
+            return cached;
+        }
+
         try {
-            boolean bucketExists = minioClient.bucketExists(
-                    BucketExistsArgs.builder()
+            StatObjectResponse fileInfo = minioClient.statObject(
+                    StatObjectArgs.builder()
                             .bucket(minioProperties.getBucketName())
+                            .object(objectKey(fileName))
                             .build());
-
-            if (!bucketExists) {
-                minioClient.makeBucket(
-                        MakeBucketArgs.builder()
-                                .bucket(minioProperties.getBucketName())
-                                .build());
-                logger.info("Bucket created: {}", minioProperties.getBucketName());
-            }
+            metadataCache.put(fileName, fileInfo);
+            return fileInfo;
         } catch (Exception e) {
-            logger.error("Error creating bucket: {}", e.getMessage());
-            throw new Exception("Failed to create bucket: " + e.getMessage());
+            logger.error("Error getting file info: {}", e.getMessage());
+            throw new Exception("Failed to get file info: " + e.getMessage());
         }
     }
 
     /**
      * Generate unique filename
      */
-    private String generateUniqueFileName(String originalFileName) {
+    String generateUniqueFileName(String originalFileName) {
         String extension = "";
         if (originalFileName != null && originalFileName.contains(".")) {
-            extension = originalFileName.substring(originalFileName.lastIndexOf("."));
+            String candidate = originalFileName.substring(originalFileName.lastIndexOf(".") + 1);
+            // Only a plain extension is kept, the name ends up in keys, headers and the alias journal
+            if (EXTENSION.matcher(candidate).matches()) {
+                extension = "." + candidate;
+            }
         }
         return UUID.randomUUID().toString() + extension;
     }
@@ -0,0 +1,251 @@
+package com.example.minio.service;
+
+import com.example.minio.config.MinioProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.minio.StatObjectResponse;
+
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Transparent gzip for compressible uploads. A file is compressed when its content type
+ * matches minio.compression.content-types and a sample of its first bytes does not look
+ * compressed already (entropy below max-entropy). Compressed objects are stored with
+ * Content-Encoding: gzip and, when known up front, their original size in user metadata.
+ */
+@Component
+public class ObjectCompressor implements MeterBinder {
+
+    public static final String ENCODING = "gzip";
+    private static final String ORIGINAL_SIZE = "X-Amz-Meta-Original-Size";
+
+    private final MinioProperties.Compression config;
+
+    private final AtomicLong compressed = new AtomicLong();
+    private final AtomicLong skippedType = new AtomicLong();
+    private final AtomicLong skippedSize = new AtomicLong();
+    private final AtomicLong skippedEntropy = new AtomicLong();
+    private final AtomicLong bytesIn = new AtomicLong();
+    private final AtomicLong bytesOut = new AtomicLong();
+
+    public ObjectCompressor(MinioProperties minioProperties) {
+        this.config = minioProperties.getCompression();
+    }
+
+    /**
+     * Decide whether to compress an upload and wrap its stream accordingly.
+     * Size is the uncompressed length, -1 when unknown.
+     */
+    public Prepared prepare(InputStream inputStream, String contentType, long size) throws IOException {
+        if (!config.isEnabled()) {
+            return new Prepared(inputStream, null, Collections.emptyMap());
+        }
+        if (!compressibleType(contentType)) {
+            skippedType.incrementAndGet();
+            return new Prepared(inputStream, null, Collections.emptyMap());
+        }
+        if (size >= 0 && size < config.getMinSize()) {
+            skippedSize.incrementAndGet();
+            return new Prepared(inputStream, null, Collections.emptyMap());
+        }
+
+        int sampleSize = Math.max(config.getSampleSize(), 1);
+        BufferedInputStream buffered = new BufferedInputStream(inputStream, sampleSize);
+        buffered.mark(sampleSize);
+        byte[] sample = buffered.readNBytes(sampleSize);
+        buffered.reset();
+
+        if (sample.length < sampleSize && sample.length < config.getMinSize()) {
+            skippedSize.incrementAndGet();
+            return new Prepared(buffered, null, Collections.emptyMap());
+        }
+        if (entropy(sample) > config.getMaxEntropy()) {
+            skippedEntropy.incrementAndGet();
+            return new Prepared(buffered, null, Collections.emptyMap());
+        }
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Content-Encoding", ENCODING);
+        if (size >= 0) {
+            headers.put(ORIGINAL_SIZE, String.valueOf(size));
+        }
+        int level = Math.min(Math.max(config.getLevel(), 1), 9);
+        return new Prepared(buffered, new GzipCompressingInputStream(buffered, level), headers);
+    }
+
+    /**
+     * Count a finished upload in the compression statistics
+     */
+    public void completed(Prepared prepared) {
+        if (prepared.gzip != null) {
+            compressed.incrementAndGet();
+            bytesIn.addAndGet(prepared.gzip.getBytesIn());
+            bytesOut.addAndGet(prepared.gzip.getBytesOut());
+        }
+    }
+
+    public boolean isCompressed(StatObjectResponse fileInfo) {
+        return isGzip(fileInfo.headers().get("Content-Encoding"));
+    }
+
+    public static boolean isGzip(String contentEncoding) {
+        return contentEncoding != null && contentEncoding.trim().equalsIgnoreCase(ENCODING);
+    }
+
+    /**
+     * Size of a compressed object before compression, -1 when it was not known at upload
+     */
+    public long originalSize(StatObjectResponse fileInfo) {
+        String value = fileInfo.headers().get(ORIGINAL_SIZE);
+        try {
+            return value != null ? Long.parseLong(value) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public InputStream decompress(InputStream inputStream) throws IOException {
+        return new GZIPInputStream(inputStream, 64 * 1024);
+    }
+
+    /**
+     * Whether an Accept-Encoding header allows gzip
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean gzip = null;
+        Boolean any = null;
+        for (String candidate : acceptEncoding.split(",")) {
+            String[] parts = candidate.trim().split(";");
+            String coding = parts[0].trim();
+            boolean accepted = true;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim().replace(" ", "");
+                if (parameter.startsWith("q=")) {
+                    accepted = !parameter.substring(2).matches("0(\\.0*)?");
+                }
+            }
+            if (coding.equalsIgnoreCase(ENCODING)) {
+                gzip = accepted;
+            } else if (coding.equals("*")) {
+                any = accepted;
+            }
+        }
+        // An explicit gzip entry wins over the wildcard
+        return gzip != null ? gzip : Boolean.TRUE.equals(any);
+    }
+
+    /**
+     * Objects compressed and skipped, bytes before and after compression
+     */
+    public Map<String, Object> stats() {
+        long in = bytesIn.get();
+        long out = bytesOut.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", config.isEnabled());
+        stats.put("compressed", compressed.get());
+        stats.put("skippedContentType", skippedType.get());
+        stats.put("skippedSize", skippedSize.get());
+        stats.put("skippedEntropy", skippedEntropy.get());
+        stats.put("bytesIn", in);
+        stats.put("bytesOut", out);
+        stats.put("ratio", in == 0 ? 0.0 : (double) out / in);
+        return stats;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("file.compression.objects", compressed, AtomicLong::get)
+                .tag("result", "compressed").register(registry);
+        FunctionCounter.builder("file.compression.objects", skippedType, AtomicLong::get)
+                .tag("result", "skipped_type").register(registry);
+        FunctionCounter.builder("file.compression.objects", skippedSize, AtomicLong::get)
+                .tag("result", "skipped_size").register(registry);
+        FunctionCounter.builder("file.compression.objects", skippedEntropy, AtomicLong::get)
+                .tag("result", "skipped_entropy").register(registry);
+        FunctionCounter.builder("file.compression.bytes", bytesIn, AtomicLong::get)
+                .tag("side", "in").baseUnit("bytes").register(registry);
+        FunctionCounter.builder("file.compression.bytes", bytesOut, AtomicLong::get)
+                .tag("side", "out").baseUnit("bytes").register(registry);
+    }
+
+    private boolean compressibleType(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase();
+        for (String prefix : config.getContentTypes()) {
+            if (type.startsWith(prefix.toLowerCase())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Shannon entropy in bits per byte: text is around 4-5, compressed data close to 8
+     */
+    static double entropy(byte[] sample) {
+        if (sample.length == 0) {
+            return 0;
+        }
+        int[] counts = new int[256];
+        for (byte b : sample) {
+            counts[b & 0xff]++;
+        }
+        double entropy = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                double p = (double) count / sample.length;
+                entropy -= p * (Math.log(p) / Math.log(2));
+            }
+        }
+        return entropy;
+    }
+
+    /**
+     * The stream to upload and the headers to store with it
+     */
+    public static class Prepared {
+        private final InputStream source;
+        private final GzipCompressingInputStream gzip;
+        private final Map<String, String> headers;
+
+        Prepared(InputStream source, GzipCompressingInputStream gzip, Map<String, String> headers) {
+            this.source = source;
+            this.gzip = gzip;
+            this.headers = headers;
+        }
+
+        public InputStream getStream() {
+            return gzip != null ? gzip : source;
+        }
+
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        public boolean isCompressed() {
+            return gzip != null;
+        }
+
+        /**
+         * Uncompressed bytes read so far, only tracked when compressing
+         */
+        public long getOriginalBytes() {
+            return gzip != null ? gzip.getBytesIn() : -1;
+        }
+    }
+}
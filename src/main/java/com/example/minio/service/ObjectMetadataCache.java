@@ -0,0 +1,91 @@
+package com.example.minio.service;
+
+import com.example.minio.config.MinioProperties;
+import io.minio.StatObjectResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded LRU cache of object metadata with TTL expiry.
+ * Entries come from statObject or from the headers of a full GetObject, and are
+ * dropped when the object is written or deleted through this service. Writes made
+ * elsewhere are only noticed on expiry, so conditional requests do not use it.
+ */
+@Component
+public class ObjectMetadataCache {
+
+    private final MinioProperties.MetadataCache config;
+    private final Map<String, Entry> entries;
+
+    @Autowired
+    public ObjectMetadataCache(MinioProperties minioProperties) {
+        this.config = minioProperties.getMetadataCache();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > config.getMaxEntries();
+            }
+        };
+    }
+
+    /**
+     * Cached metadata, or null when missing or expired
+     */
+    public StatObjectResponse get(String objectName) {
+        if (!config.isEnabled()) {
+            return null;
+        }
+
+        synchronized (entries) {
+            Entry entry = entries.get(objectName);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt - System.nanoTime() < 0) {
+                entries.remove(objectName);
+                return null;
+            }
+            return entry.metadata;
+        }
+    }
+
+    /**
+     * Store or refresh metadata, replacing any earlier entry for the object
+     */
+    public void put(String objectName, StatObjectResponse metadata) {
+        if (!config.isEnabled() || metadata == null) {
+            return;
+        }
+
+        Entry entry = new Entry(metadata, System.nanoTime() + config.getTtl().toNanos());
+        synchronized (entries) {
+            entries.put(objectName, entry);
+        }
+    }
+
+    public void invalidate(String objectName) {
+        synchronized (entries) {
+            entries.remove(objectName);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static class Entry {
+        private final StatObjectResponse metadata;
+        private final long expiresAt;
+
+        Entry(StatObjectResponse metadata, long expiresAt) {
+            this.metadata = metadata;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
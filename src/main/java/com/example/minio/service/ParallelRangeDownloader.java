@@ -0,0 +1,131 @@
+package com.example.minio.service;
+
+import com.example.minio.config.MinioProperties;
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.MinioClient;
+import io.minio.errors.ErrorResponseException;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reads a large byte range as several ranged GETs in parallel
+ * and writes the chunks back in order. Every GET is pinned to the ETag the
+ * download started with, so an object replaced mid-download fails the
+ * download instead of mixing bytes of two versions.
+ */
+@Component
+public class ParallelRangeDownloader {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelRangeDownloader.class);
+
+    private final MinioClient minioClient;
+    private final MinioProperties minioProperties;
+    private final ExecutorService executor;
+
+    @Autowired
+    public ParallelRangeDownloader(MinioClient minioClient, MinioProperties minioProperties) {
+        this.minioClient = minioClient;
+        this.minioProperties = minioProperties;
+        this.executor = Executors.newFixedThreadPool(
+                Math.max(minioProperties.getDownload().getParallelism(), 1),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "minio-range-reader");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Whether a read of this many bytes should be split into parallel ranged GETs
+     */
+    public boolean shouldSplit(long length) {
+        MinioProperties.Download download = minioProperties.getDownload();
+        return download.isParallelEnabled() && length >= download.getParallelThreshold();
+    }
+
+    /**
+     * Copy bytes [offset, offset + length) of an object to the output stream.
+     * At most parallelism chunks are held in memory at once. With an etag, every
+     * chunk must come from that version of the object.
+     */
+    public void copy(String bucketName, String objectName, String etag, long offset, long length, OutputStream out)
+            throws IOException {
+        int chunkSize = Math.max(minioProperties.getDownload().getChunkSize(), 1);
+        int window = Math.max(minioProperties.getDownload().getParallelism(), 1);
+
+        long end = offset + length;
+        long next = offset;
+        Deque<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+
+        try {
+            while (next < end && pending.size() < window) {
+                pending.add(fetch(bucketName, objectName, etag, next, Math.min(chunkSize, end - next)));
+                next += chunkSize;
+            }
+
+            while (!pending.isEmpty()) {
+                byte[] chunk = pending.poll().join();
+                if (next < end) {
+                    pending.add(fetch(bucketName, objectName, etag, next, Math.min(chunkSize, end - next)));
+                    next += chunkSize;
+                }
+                out.write(chunk);
+            }
+        } catch (CompletionException e) {
+            pending.forEach(future -> future.cancel(true));
+            if (isPreconditionFailed(e.getCause())) {
+                logger.warn("{} changed during a parallel download, aborting it", objectName);
+                throw new IOException("Object " + objectName + " changed while it was read", e.getCause());
+            }
+            logger.error("Error reading range of {}: {}", objectName, e.getCause().getMessage());
+            throw new IOException("Failed to read " + objectName + ": " + e.getCause().getMessage(), e.getCause());
+        } catch (IOException e) {
+            // Client went away, drop the chunks already in flight
+            pending.forEach(future -> future.cancel(true));
+            throw e;
+        }
+    }
+
+    private CompletableFuture<byte[]> fetch(String bucketName, String objectName, String etag, long offset,
+            long length) {
+        return CompletableFuture.supplyAsync(() -> {
+            GetObjectArgs.Builder args = GetObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(objectName)
+                    .offset(offset)
+                    .length(length);
+            if (etag != null) {
+                args.matchETag(etag);
+            }
+            try (GetObjectResponse response = minioClient.getObject(args.build())) {
+                return response.readAllBytes();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    static boolean isPreconditionFailed(Throwable error) {
+        return error instanceof ErrorResponseException
+                && "PreconditionFailed".equals(((ErrorResponseException) error).errorResponse().code());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
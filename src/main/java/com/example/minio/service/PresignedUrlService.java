@@ -0,0 +1,296 @@
+package com.example.minio.service;
+
+import com.example.minio.config.MinioProperties;
+import com.example.minio.entity.StoredObject;
+import io.minio.GetPresignedObjectUrlArgs;
+import io.minio.MinioClient;
+import io.minio.PostPolicy;
+import io.minio.StatObjectArgs;
+import io.minio.StatObjectResponse;
+import io.minio.errors.ErrorResponseException;
+import io.minio.http.Method;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Presigned URLs and POST policies, so clients move file bytes straight to and from MinIO.
+ * Issued uploads are remembered until they expire; the completion callback checks the
+ * object that arrived against them before registering it. A sweeper checks the objects
+ * of expired uploads that were never completed, so a presigned PUT cannot leave an
+ * object over the limits behind by skipping the callback.
+ */
+@Service
+public class PresignedUrlService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PresignedUrlService.class);
+
+    private final MinioClient minioClient;
+    private final MinioService minioService;
+    private final MinioProperties minioProperties;
+    private final Map<String, IssuedUpload> issued = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService sweeper;
+
+    @Autowired
+    public PresignedUrlService(MinioClient minioClient, MinioService minioService, MinioProperties minioProperties) {
+        this.minioClient = minioClient;
+        this.minioService = minioService;
+        this.minioProperties = minioProperties;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "presign-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = minioProperties.getPresign().getSweepInterval().toMillis();
+        sweeper.scheduleWithFixedDelay(this::sweep, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * Presigned PUT for a new file, returns fileName, url and expiresAt
+     */
+    public Map<String, Object> presignUpload(String originalFileName, String contentType) throws Exception {
+        checkContentType(contentType);
+        IssuedUpload upload = issue(originalFileName, contentType, false);
+
+        try {
+            String url = minioClient.getPresignedObjectUrl(
+                    GetPresignedObjectUrlArgs.builder()
+                            .method(Method.PUT)
+                            .bucket(minioProperties.getBucketName())
+                            .object(upload.fileName)
+                            .expiry(expirySeconds(), TimeUnit.SECONDS)
+                            .build());
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("fileName", upload.fileName);
+            result.put("method", "PUT");
+            result.put("url", url);
+            result.put("expiresAt", upload.expiresAt);
+            return result;
+        } catch (Exception e) {
+            issued.remove(upload.fileName);
+            logger.error("Error presigning upload: {}", e.getMessage());
+            throw new Exception("Failed to presign upload: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Presigned POST policy for a browser form upload, limited in size and content type.
+     * Returns fileName, url and the form fields to send along with the file.
+     */
+    public Map<String, Object> presignPost(String originalFileName, String contentType, long maxSize)
+            throws Exception {
+        checkContentType(contentType);
+        long limit = maxSize > 0
+                ? Math.min(maxSize, minioProperties.getPresign().getMaxUploadSize())
+                : minioProperties.getPresign().getMaxUploadSize();
+        IssuedUpload upload = issue(originalFileName, contentType, true);
+
+        try {
+            PostPolicy policy = new PostPolicy(minioProperties.getBucketName(), upload.expiresAt);
+            policy.addEqualsCondition("key", upload.fileName);
+            policy.addContentLengthRangeCondition(1L, limit);
+            if (contentType != null) {
+                policy.addEqualsCondition("Content-Type", contentType);
+            }
+
+            Map<String, String> formData = new HashMap<>(minioClient.getPresignedPostFormData(policy));
+            formData.put("key", upload.fileName);
+            if (contentType != null) {
+                formData.put("Content-Type", contentType);
+            }
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("fileName", upload.fileName);
+            result.put("method", "POST");
+            result.put("url", bucketUrl());
+            result.put("formData", formData);
+            result.put("maxSize", limit);
+            result.put("expiresAt", upload.expiresAt);
+            return result;
+        } catch (Exception e) {
+            issued.remove(upload.fileName);
+            logger.error("Error presigning post policy: {}", e.getMessage());
+            throw new Exception("Failed to presign upload: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Presigned GET of an existing file
+     */
+    public Map<String, Object> presignDownload(String fileName) throws Exception {
+        StatObjectResponse fileInfo = minioService.getFileInfo(fileName);
+
+        try {
+            Map<String, String> queryParams = new HashMap<>();
+            // Deduplicated files are stored under their hash, keep the user-facing name
+            queryParams.put("response-content-disposition", "attachment; filename=" + fileName);
+
+            String url = minioClient.getPresignedObjectUrl(
+                    GetPresignedObjectUrlArgs.builder()
+                            .method(Method.GET)
+                            .bucket(minioProperties.getBucketName())
+                            .object(minioService.objectKey(fileName))
+                            .expiry(expirySeconds(), TimeUnit.SECONDS)
+                            .extraQueryParams(queryParams)
+                            .build());
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("fileName", fileName);
+            result.put("method", "GET");
+            result.put("url", url);
+            result.put("size", fileInfo.size());
+            result.put("expiresAt", ZonedDateTime.now().plus(minioProperties.getPresign().getExpiry()));
+            return result;
+        } catch (Exception e) {
+            logger.error("Error presigning download: {}", e.getMessage());
+            throw new Exception("Failed to presign download: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Upload-completion callback: check that the object of an issued upload arrived
+     * within the limits and register its metadata
+     */
+    public StoredObject complete(String fileName) throws Exception {
+        IssuedUpload upload = issued.remove(fileName);
+        if (upload == null) {
+            throw new IllegalArgumentException("Unknown or expired upload: " + fileName);
+        }
+
+        StatObjectResponse fileInfo;
+        try {
+            fileInfo = minioService.getFileInfo(fileName);
+        } catch (Exception e) {
+            // Not uploaded yet, the client may call again before the URL expires
+            issued.put(fileName, upload);
+            throw e;
+        }
+
+        // A presigned PUT does not pin size or content type, so they are checked here
+        if (!withinLimits(upload, fileInfo)) {
+            minioService.deleteFile(fileName);
+            throw new IllegalArgumentException("Uploaded file violates the upload limits: " + fileName);
+        }
+
+        logger.info("Presigned upload completed: {} ({} bytes)", fileName, fileInfo.size());
+        return new StoredObject(fileName, upload.originalName, fileInfo.contentType(), fileInfo.size());
+    }
+
+    private IssuedUpload issue(String originalFileName, String contentType, boolean policyLimited) {
+        IssuedUpload upload = new IssuedUpload(minioService.generateUniqueFileName(originalFileName),
+                originalFileName, contentType, ZonedDateTime.now().plus(minioProperties.getPresign().getExpiry()),
+                policyLimited);
+        issued.put(upload.fileName, upload);
+        return upload;
+    }
+
+    /**
+     * Forget expired uploads; the object of a PUT that was never completed is checked
+     * against the limits and deleted when it breaks them. A PUT started just before
+     * its URL expired may still be running, so a missing object is looked for again
+     * until one more expiry period has passed.
+     */
+    void sweep() {
+        ZonedDateTime now = ZonedDateTime.now();
+        for (IssuedUpload upload : issued.values()) {
+            if (!upload.expiresAt.isBefore(now)) {
+                continue;
+            }
+            if (upload.policyLimited) {
+                // MinIO enforced the POST policy on upload
+                issued.remove(upload.fileName, upload);
+                continue;
+            }
+            try {
+                StatObjectResponse fileInfo = minioClient.statObject(
+                        StatObjectArgs.builder()
+                                .bucket(minioProperties.getBucketName())
+                                .object(upload.fileName)
+                                .build());
+                if (!issued.remove(upload.fileName, upload)) {
+                    continue; // completed meanwhile
+                }
+                if (!withinLimits(upload, fileInfo)) {
+                    minioService.deleteFile(upload.fileName);
+                    logger.warn("Deleted uncompleted presigned upload {} that violates the upload limits",
+                            upload.fileName);
+                }
+            } catch (ErrorResponseException e) {
+                if ("NoSuchKey".equals(e.errorResponse().code())) {
+                    if (upload.expiresAt.plus(minioProperties.getPresign().getExpiry()).isBefore(now)) {
+                        issued.remove(upload.fileName, upload);
+                    }
+                } else {
+                    logger.error("Error checking presigned upload {}: {}", upload.fileName, e.getMessage());
+                }
+            } catch (Exception e) {
+                // Kept for the next sweep
+                logger.error("Error checking presigned upload {}: {}", upload.fileName, e.getMessage());
+            }
+        }
+    }
+
+    private boolean withinLimits(IssuedUpload upload, StatObjectResponse fileInfo) {
+        boolean typeMatches = upload.contentType == null || upload.contentType.equals(fileInfo.contentType());
+        return fileInfo.size() <= minioProperties.getPresign().getMaxUploadSize()
+                && typeMatches && isAllowedContentType(fileInfo.contentType());
+    }
+
+    private void checkContentType(String contentType) {
+        if (!isAllowedContentType(contentType)) {
+            throw new IllegalArgumentException("Content type not allowed: " + contentType);
+        }
+    }
+
+    private boolean isAllowedContentType(String contentType) {
+        if (minioProperties.getPresign().getAllowedContentTypes().isEmpty()) {
+            return true;
+        }
+        return contentType != null && minioProperties.getPresign().getAllowedContentTypes().stream()
+                .anyMatch(contentType::startsWith);
+    }
+
+    private int expirySeconds() {
+        return (int) minioProperties.getPresign().getExpiry().getSeconds();
+    }
+
+    private String bucketUrl() {
+        String endpoint = minioProperties.getEndpoint();
+        return (endpoint.endsWith("/") ? endpoint : endpoint + "/") + minioProperties.getBucketName();
+    }
+
+    private static class IssuedUpload {
+        private final String fileName;
+        private final String originalName;
+        private final String contentType;
+        private final ZonedDateTime expiresAt;
+        // POST uploads are limited by their policy, PUT uploads only by the checks here
+        private final boolean policyLimited;
+
+        IssuedUpload(String fileName, String originalName, String contentType, ZonedDateTime expiresAt,
+                boolean policyLimited) {
+            this.fileName = fileName;
+            this.originalName = originalName;
+            this.contentType = contentType;
+            this.expiresAt = expiresAt;
+            this.policyLimited = policyLimited;
+        }
+    }
+}
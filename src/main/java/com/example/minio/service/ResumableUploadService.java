@@ -0,0 +1,510 @@
+package com.example.minio.service;
+
+import com.example.minio.config.MinioProperties;
+import com.example.minio.config.MultipartMinioClient;
+import com.example.minio.entity.StoredObject;
+import com.example.minio.entity.UploadSession;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.minio.messages.Part;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Resumable uploads: a session is created with the total length, the client appends
+ * chunks at the current offset and completes it once every byte has arrived. Chunks
+ * go to a local part file; each time it reaches the part size it is sent to MinIO as
+ * the next part of a multipart upload, so at most one part per session is on disk.
+ *
+ * Every session is a directory holding session.json and the part being filled, so
+ * sessions survive a restart. Sessions not touched within minio.resumable.expiry are
+ * removed and their multipart upload aborted. Open sessions are capped in total and
+ * per client, as each one can hold a part on disk until it expires.
+ *
+ * The request holding a session's lock owns it; the state is also read by status
+ * requests and the expiry, so every access to it synchronizes on the state.
+ */
+@Service
+public class ResumableUploadService implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResumableUploadService.class);
+
+    private static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+    private static final int MAX_PARTS = 10000;
+    private static final String STATE_FILE = "session.json";
+
+    private final MinioClient minioClient;
+    private final MultipartMinioClient multipartMinioClient;
+    private final MinioService minioService;
+    private final BucketRegistry bucketRegistry;
+    private final MinioProperties minioProperties;
+    private final MinioProperties.Resumable config;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong aborted = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+
+    public ResumableUploadService(MinioClient minioClient, MultipartMinioClient multipartMinioClient,
+            MinioService minioService, BucketRegistry bucketRegistry, MinioProperties minioProperties,
+            ObjectMapper objectMapper) {
+        this.minioClient = minioClient;
+        this.multipartMinioClient = multipartMinioClient;
+        this.minioService = minioService;
+        this.bucketRegistry = bucketRegistry;
+        this.minioProperties = minioProperties;
+        this.config = minioProperties.getResumable();
+        this.objectMapper = objectMapper;
+        this.directory = Paths.get(config.getDirectory());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "resumable-upload-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!config.isEnabled()) {
+            return;
+        }
+        recover();
+        scheduler.scheduleWithFixedDelay(this::expire, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Start a session for a file of the given length. Throws IllegalStateException when
+     * the client or the service already has the maximum number of open sessions.
+     */
+    public UploadSession create(String client, String originalFileName, String contentType, long length)
+            throws Exception {
+        if (length <= 0 || length > config.getMaxSize()) {
+            throw new IllegalArgumentException("Upload length must be between 1 and " + config.getMaxSize());
+        }
+        int partSize = Math.max(minioProperties.getUpload().getPartSize(), MIN_PART_SIZE);
+        if ((length + partSize - 1) / partSize > MAX_PARTS) {
+            throw new IllegalArgumentException("Upload exceeds " + MAX_PARTS + " parts of " + partSize + " bytes");
+        }
+
+        UploadSession state = new UploadSession(UUID.randomUUID().toString(), client,
+                minioService.generateUniqueFileName(originalFileName), originalFileName, contentType, length,
+                partSize);
+        Session session = new Session(state);
+        // Counted and reserved together, so concurrent creates cannot both take the last slot
+        synchronized (sessions) {
+            if (sessions.size() >= config.getMaxSessions()) {
+                throw new IllegalStateException("Too many open uploads, try again later");
+            }
+            long open = sessions.values().stream().filter(other -> client.equals(other.state.getClient())).count();
+            if (open >= config.getMaxSessionsPerClient()) {
+                throw new IllegalStateException("Too many open uploads for this client, complete or abort one first");
+            }
+            sessions.put(state.getId(), session);
+        }
+        try {
+            Files.createDirectories(session.directory);
+            save(session);
+        } catch (IOException e) {
+            remove(session);
+            logger.error("Error creating upload session: {}", e.getMessage());
+            throw new Exception("Failed to create upload session: " + e.getMessage());
+        }
+
+        logger.info("Upload session {} created for {} ({} bytes)", state.getId(), state.getFileName(), length);
+        return state.copy();
+    }
+
+    public UploadSession get(String id) {
+        Session session = sessions.get(id);
+        return session != null ? session.snapshot() : null;
+    }
+
+    /**
+     * Append a chunk at offset, which must be the current offset of the session.
+     * Bytes received before the connection drops are kept. Returns the new offset.
+     */
+    public long append(String id, long offset, InputStream inputStream) throws Exception {
+        Session session = lock(id);
+        try {
+            UploadSession state = session.state;
+            if (offset != state.getOffset()) {
+                throw new IllegalStateException("Upload is at offset " + state.getOffset() + ", not " + offset);
+            }
+
+            byte[] buffer = new byte[64 * 1024];
+            FileChannel channel = null;
+            try {
+                while (true) {
+                    // Also true on entry when the part filled up just before a restart
+                    if (session.filled == state.getPartSize()) {
+                        if (channel != null) {
+                            channel.close();
+                            channel = null;
+                        }
+                        sendPart(session);
+                    }
+                    int limit = (int) Math.min(buffer.length, state.getPartSize() - session.filled);
+                    int read = inputStream.read(buffer, 0, limit);
+                    if (read < 0) {
+                        break;
+                    }
+                    if (state.getOffset() + read > state.getLength()) {
+                        throw new IllegalArgumentException("Chunk exceeds the upload length " + state.getLength());
+                    }
+                    if (channel == null) {
+                        channel = FileChannel.open(partFile(session, state.getParts().size() + 1),
+                                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                    }
+                    write(session, channel, buffer, read);
+                }
+            } finally {
+                if (channel != null) {
+                    channel.close();
+                }
+                touch(session);
+            }
+            return state.getOffset();
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * Send the last part and complete the multipart upload, once every byte has arrived
+     */
+    public StoredObject complete(String id) throws Exception {
+        Session session = lock(id);
+        try {
+            UploadSession state = session.state;
+            if (state.getOffset() != state.getLength()) {
+                throw new IllegalStateException("Upload is at offset " + state.getOffset() + " of "
+                        + state.getLength());
+            }
+
+            try {
+                String bucketName = minioProperties.getBucketName();
+                if (state.getUploadId() == null) {
+                    // Smaller than one part: a single putObject, no multipart upload was started.
+                    // Every attempt reads the part file from the start.
+                    bucketRegistry.retryOnMissingBucket(bucketName, () -> {
+                        try (InputStream part = Files.newInputStream(partFile(session, 1))) {
+                            return minioClient.putObject(
+                                    PutObjectArgs.builder()
+                                            .bucket(bucketName)
+                                            .object(state.getFileName())
+                                            .stream(part, state.getLength(), -1)
+                                            .contentType(state.getContentType())
+                                            .build());
+                        }
+                    });
+                } else {
+                    if (session.filled > 0) {
+                        sendPart(session);
+                    }
+                    Part[] parts = new Part[state.getParts().size()];
+                    for (int i = 0; i < parts.length; i++) {
+                        parts[i] = new Part(i + 1, state.getParts().get(i));
+                    }
+                    multipartMinioClient.completeMultipartUpload(bucketName, state.getFileName(),
+                            state.getUploadId(), parts);
+                }
+            } catch (Exception e) {
+                // The session stays, completing can be retried
+                logger.error("Error completing upload session {}: {}", id, e.getMessage());
+                throw new Exception("Failed to complete upload: " + e.getMessage());
+            }
+
+            remove(session);
+            completed.incrementAndGet();
+            logger.info("Upload session {} completed: {} ({} bytes)", id, state.getFileName(), state.getLength());
+            return new StoredObject(state.getFileName(), state.getOriginalName(), state.getContentType(),
+                    state.getLength());
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * Drop a session and abort its multipart upload
+     */
+    public void abort(String id) throws Exception {
+        Session session = lock(id);
+        try {
+            discard(session);
+            aborted.incrementAndGet();
+            logger.info("Upload session {} aborted", id);
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("upload.sessions.active", sessions, Map::size).register(registry);
+        FunctionCounter.builder("upload.sessions.finished", completed, AtomicLong::get)
+                .tag("outcome", "completed").register(registry);
+        FunctionCounter.builder("upload.sessions.finished", aborted, AtomicLong::get)
+                .tag("outcome", "aborted").register(registry);
+        FunctionCounter.builder("upload.sessions.finished", expired, AtomicLong::get)
+                .tag("outcome", "expired").register(registry);
+    }
+
+    /**
+     * Lock a session for one request; a second request on the same session is refused
+     * rather than queued, as it is usually a retry racing a connection that has not died yet
+     */
+    private Session lock(String id) {
+        Session session = sessions.get(id);
+        if (session == null) {
+            throw new IllegalArgumentException("Unknown or expired upload: " + id);
+        }
+        if (!session.lock.tryLock()) {
+            throw new IllegalStateException("Upload " + id + " is busy with another request");
+        }
+        if (sessions.get(id) != session) {
+            session.lock.unlock();
+            throw new IllegalArgumentException("Unknown or expired upload: " + id);
+        }
+        return session;
+    }
+
+    /**
+     * Record activity on the session; saved, so a restart does not make it look idle
+     */
+    private void touch(Session session) {
+        synchronized (session.state) {
+            session.state.setUpdatedAt(System.currentTimeMillis());
+        }
+        try {
+            save(session);
+        } catch (IOException e) {
+            logger.warn("Error saving upload session {}: {}", session.state.getId(), e.getMessage());
+        }
+    }
+
+    private void write(Session session, FileChannel channel, byte[] buffer, int length) throws IOException {
+        ByteBuffer source = ByteBuffer.wrap(buffer, 0, length);
+        long position = session.filled;
+        while (source.hasRemaining()) {
+            position += channel.write(source, position);
+        }
+        session.filled += length;
+        synchronized (session.state) {
+            session.state.setOffset(session.state.getOffset() + length);
+        }
+    }
+
+    /**
+     * Send the part file as the next part and start a new one
+     */
+    private void sendPart(Session session) throws Exception {
+        UploadSession state = session.state;
+        String bucketName = minioProperties.getBucketName();
+        if (state.getUploadId() == null) {
+            String uploadId = bucketRegistry.retryOnMissingBucket(bucketName,
+                    () -> multipartMinioClient.createMultipartUpload(bucketName, state.getFileName(),
+                            state.getContentType()));
+            synchronized (state) {
+                state.setUploadId(uploadId);
+            }
+            save(session);
+        }
+
+        int partNumber = state.getParts().size() + 1;
+        Path file = partFile(session, partNumber);
+        byte[] data = Files.readAllBytes(file);
+        Part part;
+        try {
+            part = multipartMinioClient.uploadPart(bucketName, state.getFileName(), state.getUploadId(),
+                    partNumber, data, data.length).get();
+        } catch (ExecutionException e) {
+            throw new Exception("Failed to upload part " + partNumber + ": " + e.getCause().getMessage());
+        }
+
+        // Recorded before the file goes: after a crash in between the part is sent again
+        synchronized (state) {
+            state.getParts().add(part.etag());
+        }
+        save(session);
+        Files.deleteIfExists(file);
+        session.filled = 0;
+    }
+
+    private void save(Session session) throws IOException {
+        Path file = session.directory.resolve(STATE_FILE);
+        Path temp = session.directory.resolve(STATE_FILE + ".tmp");
+        byte[] json;
+        synchronized (session.state) {
+            json = objectMapper.writeValueAsBytes(session.state);
+        }
+        Files.write(temp, json);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path partFile(Session session, int partNumber) {
+        return session.directory.resolve("part-" + partNumber);
+    }
+
+    /**
+     * Load the sessions of the previous run; the offset is rebuilt from the parts sent
+     * and the size of the part file, which holds every byte that was written
+     */
+    private void recover() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                Path file = entry.resolve(STATE_FILE);
+                if (!Files.exists(file)) {
+                    deleteDirectory(entry);
+                    continue;
+                }
+                try {
+                    UploadSession state = objectMapper.readValue(file.toFile(), UploadSession.class);
+                    Session session = new Session(state);
+                    Path part = partFile(session, state.getParts().size() + 1);
+                    session.filled = Files.exists(part) ? Math.min(Files.size(part), state.getPartSize()) : 0;
+                    state.setOffset((long) state.getParts().size() * state.getPartSize() + session.filled);
+                    if (Files.exists(part)) {
+                        // Bytes written after the last save count as activity too
+                        state.setUpdatedAt(Math.max(state.getUpdatedAt(),
+                                Files.getLastModifiedTime(part).toMillis()));
+                    }
+                    sessions.put(state.getId(), session);
+                } catch (IOException e) {
+                    logger.warn("Dropping unreadable upload session {}: {}", entry.getFileName(), e.getMessage());
+                    deleteDirectory(entry);
+                }
+            }
+        }
+        removeExpired();
+        logger.info("Recovered {} upload sessions", sessions.size());
+    }
+
+    private void expire() {
+        try {
+            removeExpired();
+        } catch (Exception e) {
+            logger.error("Error expiring upload sessions: {}", e.getMessage());
+        }
+    }
+
+    private void removeExpired() {
+        long cutoff = System.currentTimeMillis() - config.getExpiry().toMillis();
+        for (Session session : sessions.values()) {
+            // A session busy with a request is not idle, whatever its timestamp says
+            if (session.updatedAt() < cutoff && session.lock.tryLock()) {
+                try {
+                    discard(session);
+                    expired.incrementAndGet();
+                    logger.info("Upload session {} expired", session.state.getId());
+                } finally {
+                    session.lock.unlock();
+                }
+            }
+        }
+    }
+
+    private void discard(Session session) {
+        UploadSession state = session.state;
+        if (state.getUploadId() != null) {
+            try {
+                multipartMinioClient.abortMultipartUpload(minioProperties.getBucketName(), state.getFileName(),
+                        state.getUploadId());
+            } catch (Exception e) {
+                logger.warn("Error aborting multipart upload {}: {}", state.getUploadId(), e.getMessage());
+            }
+        }
+        remove(session);
+    }
+
+    private void remove(Session session) {
+        sessions.remove(session.state.getId(), session);
+        deleteDirectory(session.directory);
+    }
+
+    private void deleteDirectory(Path path) {
+        try (Stream<Path> files = Files.walk(path)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    logger.warn("Error deleting {}: {}", file, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("Error deleting {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Session state with its lock and the bytes in the part file being filled
+     */
+    private class Session {
+        private final UploadSession state;
+        private final Path directory;
+        private final ReentrantLock lock = new ReentrantLock();
+        private long filled;
+
+        Session(UploadSession state) {
+            this.state = state;
+            this.directory = ResumableUploadService.this.directory.resolve(state.getId());
+        }
+
+        // Does not wait for the lock, so the offset can be read while a chunk is streaming
+        UploadSession snapshot() {
+            synchronized (state) {
+                return state.copy();
+            }
+        }
+
+        long updatedAt() {
+            synchronized (state) {
+                return state.getUpdatedAt();
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.minio.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Counts the bytes read and fails the read that goes past a maximum, so an upload
+ * of unknown length is stopped as soon as it is too large
+ */
+public class SizeLimitedInputStream extends FilterInputStream {
+
+    private final long maxBytes;
+    private long count;
+    private boolean exceeded;
+
+    public SizeLimitedInputStream(InputStream in, long maxBytes) {
+        super(in);
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int value = super.read();
+        if (value >= 0) {
+            count(1);
+        }
+        return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            count(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count(skipped);
+        return skipped;
+    }
+
+    // Bytes read again after a reset would be counted twice
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    public boolean isExceeded() {
+        return exceeded;
+    }
+
+    private void count(long bytes) throws IOException {
+        count += bytes;
+        if (count > maxBytes) {
+            exceeded = true;
+            throw new IOException("Upload exceeds " + maxBytes + " bytes");
+        }
+    }
+}
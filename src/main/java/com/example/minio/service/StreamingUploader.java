@@ -0,0 +1,374 @@
+package com.example.minio.service;
+
+import com.example.minio.config.MinioProperties;
+import com.example.minio.config.MultipartMinioClient;
+import io.minio.ComposeObjectArgs;
+import io.minio.ComposeSource;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectArgs;
+import io.minio.StatObjectArgs;
+import io.minio.StatObjectResponse;
+import io.minio.errors.ErrorResponseException;
+import io.minio.messages.Part;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pipes an InputStream into MinIO part by part, so a whole file is never buffered.
+ * At most maxInFlightParts parts are uploading while the next one is being read.
+ */
+@Component
+public class StreamingUploader {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingUploader.class);
+
+    private static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+    private static final int MAX_PARTS = 10000;
+
+    @Autowired
+    private MinioClient minioClient;
+
+    @Autowired
+    private MultipartMinioClient multipartMinioClient;
+
+    @Autowired
+    private MinioProperties minioProperties;
+
+    @Autowired
+    private BucketRegistry bucketRegistry;
+
+    /**
+     * Upload a stream of known or unknown length, returns the number of bytes stored
+     */
+    public long upload(String bucketName, String objectName, InputStream inputStream, String contentType)
+            throws Exception {
+        return upload(bucketName, objectName, inputStream, contentType, Map.of());
+    }
+
+    /**
+     * Upload a stream with extra object headers, such as Content-Encoding or x-amz-meta-*
+     */
+    public long upload(String bucketName, String objectName, InputStream inputStream, String contentType,
+            Map<String, String> headers) throws Exception {
+        int partSize = partSize();
+        byte[] buffer = new byte[partSize];
+        int length = fill(inputStream, buffer);
+
+        // Small object: one putObject, no multipart bookkeeping
+        if (length < partSize) {
+            putSmall(bucketName, objectName, buffer, length, contentType, headers);
+            return length;
+        }
+
+        String uploadId = createMultipartUpload(bucketName, objectName, contentType, headers);
+        try {
+            PendingUpload pending = uploadParts(bucketName, objectName, uploadId, inputStream, buffer, length);
+            multipartMinioClient.completeMultipartUpload(bucketName, objectName, uploadId, pending.parts);
+
+            logger.debug("Streamed {} bytes in {} parts to {}", pending.size, pending.parts.length, objectName);
+            return pending.size;
+        } catch (Exception e) {
+            abortQuietly(bucketName, objectName, uploadId);
+            throw e;
+        }
+    }
+
+    /**
+     * Upload a stream under prefix + SHA-256 of its content and register alias for it.
+     * The hash is computed while the data streams through, and the content is not
+     * stored again when it already exists. The content's metadata is then kept with the alias.
+     */
+    public ContentUpload uploadContentAddressed(String bucketName, String prefix, InputStream inputStream,
+            String contentType, Map<String, String> headers, ContentAliasIndex aliasIndex, String alias)
+            throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        InputStream hashing = new DigestInputStream(inputStream, digest);
+
+        int partSize = partSize();
+        byte[] buffer = new byte[partSize];
+        int length = fill(hashing, buffer);
+
+        // Small object: the whole content is hashed before anything is sent
+        if (length < partSize) {
+            String contentKey = prefix + HexFormat.of().formatHex(digest.digest());
+            aliasIndex.add(alias, contentKey);
+            try {
+                StatObjectResponse stored = stat(bucketName, contentKey);
+                boolean exists = stored != null;
+                if (!exists) {
+                    putSmall(bucketName, contentKey, buffer, length, contentType, headers);
+                    stored = stat(bucketName, contentKey);
+                }
+                describe(aliasIndex, alias, contentKey, stored);
+                return new ContentUpload(contentKey, length, exists);
+            } catch (Exception e) {
+                aliasIndex.release(alias, key -> { });
+                throw e;
+            }
+        }
+
+        // Large object: stream parts to a staging key, decide once the hash is known
+        String staging = prefix + "staging/" + UUID.randomUUID();
+        String uploadId = createMultipartUpload(bucketName, staging, contentType, headers);
+        PendingUpload pending;
+        try {
+            pending = uploadParts(bucketName, staging, uploadId, hashing, buffer, length);
+        } catch (Exception e) {
+            abortQuietly(bucketName, staging, uploadId);
+            throw e;
+        }
+
+        String contentKey = prefix + HexFormat.of().formatHex(digest.digest());
+        aliasIndex.add(alias, contentKey);
+        try {
+            StatObjectResponse stored = stat(bucketName, contentKey);
+            if (stored != null) {
+                // Already stored: drop the uploaded parts instead of completing them
+                abortQuietly(bucketName, staging, uploadId);
+                describe(aliasIndex, alias, contentKey, stored);
+                return new ContentUpload(contentKey, pending.size, true);
+            }
+
+            multipartMinioClient.completeMultipartUpload(bucketName, staging, uploadId, pending.parts);
+            // Composed rather than copied: a single copy stops at 5 GiB, a compose copies
+            // larger sources part by part, and the headers are set again either way
+            Map<String, String> contentHeaders = new HashMap<>(headers);
+            if (contentType != null) {
+                contentHeaders.put("Content-Type", contentType);
+            }
+            minioClient.composeObject(
+                    ComposeObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(contentKey)
+                            .sources(List.of(ComposeSource.builder().bucket(bucketName).object(staging).build()))
+                            .headers(contentHeaders)
+                            .build());
+            minioClient.removeObject(
+                    RemoveObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(staging)
+                            .build());
+            describe(aliasIndex, alias, contentKey, stat(bucketName, contentKey));
+            return new ContentUpload(contentKey, pending.size, false);
+        } catch (Exception e) {
+            abortQuietly(bucketName, staging, uploadId);
+            aliasIndex.release(alias, key -> { });
+            throw e;
+        }
+    }
+
+    public static class ContentUpload {
+        private final String contentKey;
+        private final long size;
+        private final boolean deduplicated;
+
+        ContentUpload(String contentKey, long size, boolean deduplicated) {
+            this.contentKey = contentKey;
+            this.size = size;
+            this.deduplicated = deduplicated;
+        }
+
+        public String getContentKey() {
+            return contentKey;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public boolean isDeduplicated() {
+            return deduplicated;
+        }
+    }
+
+    private int partSize() {
+        return Math.max(minioProperties.getUpload().getPartSize(), MIN_PART_SIZE);
+    }
+
+    // Nothing has been sent yet when these run, so they can be retried if the bucket went missing
+    private void putSmall(String bucketName, String objectName, byte[] data, int length, String contentType,
+            Map<String, String> headers) throws Exception {
+        bucketRegistry.retryOnMissingBucket(bucketName, () -> minioClient.putObject(
+                PutObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(objectName)
+                        .stream(new ByteArrayInputStream(data, 0, length), length, -1)
+                        .contentType(contentType)
+                        .headers(headers)
+                        .build()));
+    }
+
+    private String createMultipartUpload(String bucketName, String objectName, String contentType,
+            Map<String, String> headers) throws Exception {
+        return bucketRegistry.retryOnMissingBucket(bucketName,
+                () -> multipartMinioClient.createMultipartUpload(bucketName, objectName, contentType, headers));
+    }
+
+    /**
+     * Upload the first buffer and the rest of the stream as parts, at most maxInFlightParts at once
+     */
+    private PendingUpload uploadParts(String bucketName, String objectName, String uploadId,
+            InputStream inputStream, byte[] buffer, int length) throws Exception {
+        int partSize = buffer.length;
+        int maxInFlight = Math.max(minioProperties.getUpload().getMaxInFlightParts(), 1);
+        BufferPool buffers = new BufferPool(partSize, maxInFlight + 1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<CompletableFuture<Part>> parts = new ArrayList<>();
+        long total = 0;
+
+        while (length > 0) {
+            if (parts.size() == MAX_PARTS) {
+                throw new IOException("Upload exceeds " + MAX_PARTS + " parts of " + partSize + " bytes");
+            }
+
+            byte[] part = buffer;
+            CompletableFuture<Part> future = multipartMinioClient.uploadPart(
+                    bucketName, objectName, uploadId, parts.size() + 1, part, length);
+            future.whenComplete((result, error) -> {
+                if (error != null) {
+                    failure.compareAndSet(null, error);
+                }
+                buffers.release(part);
+            });
+            parts.add(future);
+            total += length;
+
+            if (length < partSize) {
+                break;
+            }
+
+            // Blocks while maxInFlight parts are still uploading
+            buffer = buffers.acquire();
+            if (failure.get() != null) {
+                break;
+            }
+            length = fill(inputStream, buffer);
+        }
+
+        Part[] uploaded = new Part[parts.size()];
+        for (int i = 0; i < uploaded.length; i++) {
+            uploaded[i] = parts.get(i).join();
+        }
+        return new PendingUpload(uploaded, total);
+    }
+
+    /**
+     * Stat of an object, null when it does not exist
+     */
+    private StatObjectResponse stat(String bucketName, String objectName) throws Exception {
+        try {
+            return minioClient.statObject(
+                    StatObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(objectName)
+                            .build());
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code())) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Keep the content's size, ETag and last modified time with the alias, so listings need no stat
+     */
+    private void describe(ContentAliasIndex aliasIndex, String alias, String contentKey, StatObjectResponse stat) {
+        if (stat == null || stat.etag() == null) {
+            return;
+        }
+        try {
+            aliasIndex.describe(alias, contentKey, stat.size(), stat.etag().replace("\"", ""), stat.lastModified());
+        } catch (IOException e) {
+            // Listings fall back to a stat for this alias
+            logger.warn("Error recording metadata of {}: {}", alias, e.getMessage());
+        }
+    }
+
+    private void abortQuietly(String bucketName, String objectName, String uploadId) {
+        try {
+            multipartMinioClient.abortMultipartUpload(bucketName, objectName, uploadId);
+        } catch (Exception abortError) {
+            logger.warn("Error aborting multipart upload {}: {}", uploadId, abortError.getMessage());
+        }
+    }
+
+    private static class PendingUpload {
+        private final Part[] parts;
+        private final long size;
+
+        PendingUpload(Part[] parts, long size) {
+            this.parts = parts;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Read until the buffer is full or the stream ends
+     */
+    private int fill(InputStream inputStream, byte[] buffer) throws IOException {
+        int length = 0;
+        while (length < buffer.length) {
+            int read = inputStream.read(buffer, length, buffer.length - length);
+            if (read < 0) {
+                break;
+            }
+            length += read;
+        }
+        return length;
+    }
+
+    /**
+     * Bounded set of part buffers, allocated lazily
+     */
+    private static class BufferPool {
+        private final BlockingQueue<byte[]> free;
+        private final int partSize;
+        private final int capacity;
+        private int allocated;
+
+        BufferPool(int partSize, int capacity) {
+            this.free = new ArrayBlockingQueue<>(capacity);
+            this.partSize = partSize;
+            this.capacity = capacity;
+            // The first buffer is allocated by the caller
+            this.allocated = 1;
+        }
+
+        byte[] acquire() throws InterruptedException {
+            byte[] buffer = free.poll();
+            if (buffer != null) {
+                return buffer;
+            }
+            if (allocated < capacity) {
+                allocated++;
+                return new byte[partSize];
+            }
+            return free.take();
+        }
+
+        void release(byte[] buffer) {
+            free.offer(buffer);
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package com.example.minio;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Just enough of the S3 API for the file endpoints to run in-process:
+ * bucket location/HEAD/PUT, ListObjectsV2, multi-object delete and object
+ * PUT/GET/HEAD/DELETE, with byte ranges and If-Match. Keys can be denied to make
+ * writes to them fail, a bucket can be removed behind the client's back, and every request can be given a fixed latency to stand in
+ * for a remote cluster. Signatures are not checked. Shared by the tests and the benchmarks.
+ */
+public class InMemoryS3Server {
+
+    private static final DateTimeFormatter LIST_DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+    private static final Pattern DELETE_KEY = Pattern.compile("<Key>(.*?)</Key>");
+
+    private final HttpServer server;
+    private final NavigableMap<String, StoredObject> objects = new ConcurrentSkipListMap<>();
+    private final Set<String> denied = ConcurrentHashMap.newKeySet();
+    private final Set<String> removedBuckets = ConcurrentHashMap.newKeySet();
+    private volatile long latencyMillis;
+
+    private InMemoryS3Server(HttpServer server) {
+        this.server = server;
+    }
+
+    public static InMemoryS3Server start() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        InMemoryS3Server s3 = new InMemoryS3Server(server);
+        server.createContext("/", s3::handle);
+        server.setExecutor(Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "s3-stand-in");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+        return s3;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Store an object directly, as if another client had written it
+     */
+    public void put(String bucket, String key, byte[] data, String contentType) {
+        objects.put(bucket + "/" + key, stored(data, contentType));
+    }
+
+    public void remove(String bucket, String key) {
+        objects.remove(bucket + "/" + key);
+    }
+
+    /**
+     * Refuse writes and deletes of a key with AccessDenied
+     */
+    public void deny(String bucket, String key) {
+        denied.add(bucket + "/" + key);
+    }
+
+    /**
+     * Hold every request this long before answering it
+     */
+    public void latency(long millis) {
+        this.latencyMillis = millis;
+    }
+
+    /**
+     * Drop a bucket and its objects; writes to it fail with NoSuchBucket until it is created again
+     */
+    public void removeBucket(String bucket) {
+        removedBuckets.add(bucket);
+        objects.subMap(bucket + "/", bucket + "0").clear();
+    }
+
+    public boolean contains(String bucket, String key) {
+        return objects.containsKey(bucket + "/" + key);
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            // The JDK server resets keep-alive connections that leave request bytes unread
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            if (latencyMillis > 0) {
+                try {
+                    Thread.sleep(latencyMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    exchange.sendResponseHeaders(503, -1);
+                    return;
+                }
+            }
+            String path = exchange.getRequestURI().getPath().substring(1);
+            int slash = path.indexOf('/');
+            String method = exchange.getRequestMethod();
+
+            // Bucket level: location, list, exists, create
+            if (slash < 0 || slash == path.length() - 1) {
+                String bucket = slash < 0 ? path : path.substring(0, slash);
+                Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+                if ("GET".equals(method) && query.containsKey("location")) {
+                    send(exchange, 200, "application/xml",
+                            "<LocationConstraint xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\"></LocationConstraint>");
+                } else if ("GET".equals(method) && "2".equals(query.get("list-type"))) {
+                    send(exchange, 200, "application/xml", list(bucket, query));
+                } else if ("POST".equals(method) && query.containsKey("delete")) {
+                    send(exchange, 200, "application/xml", delete(bucket, new String(body, StandardCharsets.UTF_8)));
+                } else if ("HEAD".equals(method) && removedBuckets.contains(bucket)) {
+                    exchange.sendResponseHeaders(404, -1);
+                } else {
+                    if ("PUT".equals(method)) {
+                        removedBuckets.remove(bucket);
+                    }
+                    exchange.sendResponseHeaders(200, -1);
+                }
+                return;
+            }
+            if (removedBuckets.contains(path.substring(0, slash))) {
+                send(exchange, 404, "application/xml", "<Error><Code>NoSuchBucket</Code>"
+                        + "<Message>The specified bucket does not exist</Message>"
+                        + "<BucketName>" + xml(path.substring(0, slash)) + "</BucketName>"
+                        + "<RequestId>0</RequestId><HostId>0</HostId></Error>");
+                return;
+            }
+
+            switch (method) {
+                case "PUT":
+                    put(exchange, path, body);
+                    break;
+                case "GET":
+                case "HEAD":
+                    get(exchange, path, "HEAD".equals(method));
+                    break;
+                case "DELETE":
+                    if (denied.contains(path)) {
+                        accessDenied(exchange, path);
+                        break;
+                    }
+                    objects.remove(path);
+                    exchange.sendResponseHeaders(204, -1);
+                    break;
+                default:
+                    exchange.sendResponseHeaders(405, -1);
+            }
+        }
+    }
+
+    private void put(HttpExchange exchange, String path, byte[] data) throws IOException {
+        if (denied.contains(path)) {
+            accessDenied(exchange, path);
+            return;
+        }
+        StoredObject object = stored(data, exchange.getRequestHeaders().getFirst("Content-Type"));
+        objects.put(path, object);
+
+        exchange.getResponseHeaders().set("ETag", "\"" + object.etag + "\"");
+        exchange.sendResponseHeaders(200, -1);
+    }
+
+    private void get(HttpExchange exchange, String path, boolean head) throws IOException {
+        StoredObject object = objects.get(path);
+        if (object == null) {
+            if (head) {
+                exchange.sendResponseHeaders(404, -1);
+            } else {
+                send(exchange, 404, "application/xml", "<Error><Code>NoSuchKey</Code>"
+                        + "<Message>The specified key does not exist.</Message>"
+                        + "<Key>" + path + "</Key><RequestId>0</RequestId><HostId>0</HostId></Error>");
+            }
+            return;
+        }
+
+        String ifMatch = exchange.getRequestHeaders().getFirst("If-Match");
+        if (ifMatch != null && !ifMatch.replace("\"", "").equals(object.etag)) {
+            if (head) {
+                exchange.sendResponseHeaders(412, -1);
+            } else {
+                send(exchange, 412, "application/xml", "<Error><Code>PreconditionFailed</Code>"
+                        + "<Message>At least one of the pre-conditions you specified did not hold</Message>"
+                        + "<Key>" + path + "</Key><RequestId>0</RequestId><HostId>0</HostId></Error>");
+            }
+            return;
+        }
+
+        long start = 0;
+        long end = object.data.length - 1;
+        int status = 200;
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        if (range != null && range.startsWith("bytes=")) {
+            String[] bounds = range.substring(6).split("-", 2);
+            start = Long.parseLong(bounds[0]);
+            if (!bounds[1].isEmpty()) {
+                end = Math.min(Long.parseLong(bounds[1]), end);
+            }
+            status = 206;
+            exchange.getResponseHeaders().set("Content-Range",
+                    "bytes " + start + "-" + end + "/" + object.data.length);
+        }
+
+        long length = end - start + 1;
+        exchange.getResponseHeaders().set("Content-Type", object.contentType);
+        exchange.getResponseHeaders().set("ETag", "\"" + object.etag + "\"");
+        exchange.getResponseHeaders().set("Last-Modified",
+                DateTimeFormatter.RFC_1123_DATE_TIME.format(object.modified));
+        if (head) {
+            exchange.getResponseHeaders().set("Content-Length", String.valueOf(length));
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+
+        exchange.sendResponseHeaders(status, length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(object.data, (int) start, (int) length);
+        }
+    }
+
+    /**
+     * One ListObjectsV2 page. With a delimiter, keys below it are rolled up into common
+     * prefixes; like MinIO, a common prefix equal to start-after is reported again.
+     */
+    private String list(String bucket, Map<String, String> query) {
+        String prefix = query.getOrDefault("prefix", "");
+        String delimiter = query.getOrDefault("delimiter", "");
+        String startAfter = query.getOrDefault("start-after", "");
+        String token = query.get("continuation-token");
+        int maxKeys = Integer.parseInt(query.getOrDefault("max-keys", "1000"));
+
+        StringBuilder contents = new StringBuilder();
+        String lastPrefix = null;
+        String last = null;
+        int count = 0;
+        boolean truncated = false;
+        for (Map.Entry<String, StoredObject> entry : objects.tailMap(bucket + "/" + prefix, true).entrySet()) {
+            if (!entry.getKey().startsWith(bucket + "/" + prefix)) {
+                break;
+            }
+            String key = entry.getKey().substring(bucket.length() + 1);
+            if (key.compareTo(startAfter) <= 0 || token != null && (key.compareTo(token) <= 0
+                    || token.endsWith(delimiter) && !delimiter.isEmpty() && key.startsWith(token))) {
+                continue;
+            }
+            int cut = delimiter.isEmpty() ? -1 : key.indexOf(delimiter, prefix.length());
+            String name = cut >= 0 ? key.substring(0, cut + delimiter.length()) : key;
+            if (name.equals(lastPrefix)) {
+                continue;
+            }
+            if (count == maxKeys) {
+                truncated = true;
+                break;
+            }
+            if (cut >= 0) {
+                contents.append("<CommonPrefixes><Prefix>").append(xml(name)).append("</Prefix></CommonPrefixes>");
+                lastPrefix = name;
+            } else {
+                StoredObject object = entry.getValue();
+                contents.append("<Contents><Key>").append(xml(key)).append("</Key>")
+                        .append("<LastModified>").append(LIST_DATE.format(object.modified))
+                        .append("</LastModified><ETag>&quot;").append(object.etag).append("&quot;</ETag>")
+                        .append("<Size>").append(object.data.length).append("</Size>")
+                        .append("<StorageClass>STANDARD</StorageClass></Contents>");
+            }
+            last = name;
+            count++;
+        }
+
+        return "<ListBucketResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">"
+                + "<Name>" + xml(bucket) + "</Name><Prefix>" + xml(prefix) + "</Prefix>"
+                + "<KeyCount>" + count + "</KeyCount><MaxKeys>" + maxKeys + "</MaxKeys>"
+                + (delimiter.isEmpty() ? "" : "<Delimiter>" + xml(delimiter) + "</Delimiter>")
+                + "<IsTruncated>" + truncated + "</IsTruncated>"
+                + (truncated ? "<NextContinuationToken>" + xml(last) + "</NextContinuationToken>" : "")
+                + contents + "</ListBucketResult>";
+    }
+
+    /**
+     * Multi-object delete; only failures are reported, as in quiet mode
+     */
+    private String delete(String bucket, String body) {
+        StringBuilder errors = new StringBuilder();
+        Matcher keys = DELETE_KEY.matcher(body);
+        while (keys.find()) {
+            String key = keys.group(1).replace("&lt;", "<").replace("&gt;", ">").replace("&amp;", "&");
+            if (denied.contains(bucket + "/" + key)) {
+                errors.append("<Error><Key>").append(xml(key)).append("</Key><Code>AccessDenied</Code>")
+                        .append("<Message>Access Denied.</Message></Error>");
+            } else {
+                objects.remove(bucket + "/" + key);
+            }
+        }
+        return "<DeleteResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">" + errors + "</DeleteResult>";
+    }
+
+    private static void accessDenied(HttpExchange exchange, String path) throws IOException {
+        send(exchange, 403, "application/xml", "<Error><Code>AccessDenied</Code><Message>Access Denied.</Message>"
+                + "<Key>" + xml(path) + "</Key><RequestId>0</RequestId><HostId>0</HostId></Error>");
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery != null) {
+            for (String parameter : rawQuery.split("&")) {
+                int equals = parameter.indexOf('=');
+                String name = equals < 0 ? parameter : parameter.substring(0, equals);
+                String value = equals < 0 ? "" : parameter.substring(equals + 1);
+                query.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                        URLDecoder.decode(value, StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    private static String xml(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static StoredObject stored(byte[] data, String contentType) {
+        return new StoredObject(data, contentType != null ? contentType : "application/octet-stream", md5(data),
+                ZonedDateTime.now(ZoneOffset.UTC));
+    }
+
+    private static String md5(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class StoredObject {
+        private final byte[] data;
+        private final String contentType;
+        private final String etag;
+        private final ZonedDateTime modified;
+
+        StoredObject(byte[] data, String contentType, String etag, ZonedDateTime modified) {
+            this.data = data;
+            this.contentType = contentType;
+            this.etag = etag;
+            this.modified = modified;
+        }
+    }
+}
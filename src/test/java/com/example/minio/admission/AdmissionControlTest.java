@@ -0,0 +1,31 @@
+package com.example.minio.admission;
+
+import com.example.minio.config.MinioProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AdmissionControlTest {
+
+    @Test
+    void onlyConfiguredApiKeysIdentifyAClient() {
+        MinioProperties minioProperties = new MinioProperties();
+        minioProperties.getAdmission().setApiKeys(List.of("known"));
+        AdmissionControl admissionControl = new AdmissionControl(minioProperties);
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.1");
+        assertEquals("addr:10.0.0.1", admissionControl.clientKey(request));
+
+        request.addHeader("X-API-Key", "made-up");
+        assertEquals("addr:10.0.0.1", admissionControl.clientKey(request));
+
+        MockHttpServletRequest known = new MockHttpServletRequest();
+        known.setRemoteAddr("10.0.0.1");
+        known.addHeader("X-API-Key", "known");
+        assertEquals("key:known", admissionControl.clientKey(known));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.minio.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketLimiterTest {
+
+    @Test
+    void aFullBucketAdmitsABurstThenAsksToWait() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1.0, 3, 10);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("a"));
+        }
+        long wait = limiter.tryAcquire("a");
+        assertTrue(wait > 0 && wait <= TimeUnit.SECONDS.toNanos(1), "wait " + wait);
+    }
+
+    @Test
+    void tokensComeBackAtTheRate() throws InterruptedException {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(100.0, 1, 10);
+
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);
+        Thread.sleep(20);
+        assertEquals(0, limiter.tryAcquire("a"));
+    }
+
+    @Test
+    void clientsHaveTheirOwnBuckets() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1.0, 1, 10);
+
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);
+        assertEquals(0, limiter.tryAcquire("b"));
+        assertEquals(2, limiter.size());
+    }
+
+    @Test
+    void clientsBeyondMaxClientsShareOneBucket() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1.0, 1, 1);
+
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("b"));
+        assertTrue(limiter.tryAcquire("c") > 0);
+        assertEquals(1, limiter.size());
+    }
+
+    @Test
+    void onlyBucketsThatAreFullAgainAreEvicted() throws InterruptedException {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(100.0, 1, 10);
+        TokenBucketLimiter slow = new TokenBucketLimiter(1.0, 1, 10);
+
+        limiter.tryAcquire("a");
+        slow.tryAcquire("a");
+        Thread.sleep(20);
+        limiter.evictIdle();
+        slow.evictIdle();
+
+        assertEquals(0, limiter.size());
+        assertEquals(1, slow.size());
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.minio.cluster;
+
+import com.example.minio.MinioServiceApplication;
+import com.example.minio.controller.ChatController;
+import com.example.minio.entity.ChatMessage;
+import com.example.minio.service.ChatMessagePipeline;
+import com.example.minio.service.ChatService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two application contexts in one JVM, each on its own management port, talking over the HTTP bus
+ */
+class ChatClusterIntegrationTest {
+
+    private static final List<String> NODES = List.of("node-1", "node-2");
+
+    @TempDir
+    static Path directory;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static ConfigurableApplicationContext node1;
+    private static ConfigurableApplicationContext node2;
+    private static int managementPort2;
+
+    @BeforeAll
+    static void startNodes() throws IOException {
+        int port1 = freePort();
+        int port2 = freePort();
+        managementPort2 = port2;
+        node1 = start("node-1", port1, port2);
+        node2 = start("node-2", port1, port2);
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (node1 != null) {
+            node1.close();
+        }
+        if (node2 != null) {
+            node2.close();
+        }
+    }
+
+    @Test
+    void messagesSentToANonOwnerAreStoredByTheOwnerAndReplicated() throws InterruptedException {
+        String conversationId = conversationOwnedBy("conversation", "node-2");
+        ChatMessagePipeline pipeline = node1.getBean(ChatMessagePipeline.class);
+
+        for (int i = 1; i <= 50; i++) {
+            ChatMessage message = new ChatMessage("alice", "message " + i, "CHAT");
+            message.setConversationId(conversationId);
+            assertTrue(pipeline.accept(message));
+        }
+
+        ChatService owner = node2.getBean(ChatService.class);
+        ChatService replica = node1.getBean(ChatService.class);
+        awaitTrue(() -> messageCount(owner, conversationId) == 50 && messageCount(replica, conversationId) == 50);
+
+        List<ChatMessage> stored = owner.getMessages(conversationId, null, null, 50);
+        List<ChatMessage> replicated = replica.getMessages(conversationId, null, null, 50);
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i + 1, stored.get(i).getSequence());
+            assertEquals("message " + (i + 1), stored.get(i).getContent());
+            assertEquals(stored.get(i).getSequence(), replicated.get(i).getSequence());
+            assertEquals(stored.get(i).getContent(), replicated.get(i).getContent());
+        }
+    }
+
+    @Test
+    void joinsReachTheOtherNode() throws InterruptedException {
+        String conversationId = conversationOwnedBy("conversation", "node-1");
+        ChatMessage join = new ChatMessage("carol", null, "JOIN");
+        join.setConversationId(conversationId);
+
+        node1.getBean(ChatController.class).addUser(join);
+
+        ChatService other = node2.getBean(ChatService.class);
+        awaitTrue(() -> other.getConversationIds("carol").contains(conversationId));
+        assertEquals(Set.of("carol"), other.getParticipants(conversationId));
+    }
+
+    @Test
+    void aBatchDeliveredTwiceIsStoredOnce() throws Exception {
+        String conversationId = conversationOwnedBy("retried", "node-2");
+        List<ClusterEvent> batch = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            ChatMessage message = new ChatMessage("alice", "message " + i, "CHAT");
+            message.setConversationId(conversationId);
+            message.setClientMessageId("client-" + i);
+            batch.add(new ClusterEvent(ClusterEvent.Type.APPEND, "node-1", "node-2", message));
+        }
+
+        // A send that timed out after the owner took it is retried as a whole
+        assertEquals(204, postToBus(managementPort2, "integration-test", batch).statusCode());
+        assertEquals(204, postToBus(managementPort2, "integration-test", batch).statusCode());
+
+        ChatService owner = node2.getBean(ChatService.class);
+        ChatService replica = node1.getBean(ChatService.class);
+        awaitTrue(() -> messageCount(owner, conversationId) == 3 && messageCount(replica, conversationId) == 3);
+        Thread.sleep(200);
+        assertEquals(3, messageCount(owner, conversationId));
+        assertEquals(List.of("message 1", "message 2", "message 3"),
+                owner.getMessages(conversationId, null, null, 10).stream().map(ChatMessage::getContent).toList());
+        assertEquals(3, replica.getMessages(conversationId, null, null, 10).size());
+    }
+
+    @Test
+    void theBusIsOnlyServedOnTheManagementPortWithTheSecret() throws Exception {
+        String publicPort = node2.getEnvironment().getProperty("local.server.port");
+
+        assertEquals(403, postToBus(managementPort2, "wrong", List.of()).statusCode());
+        assertEquals(404, postToBus(Integer.parseInt(publicPort), "integration-test", List.of()).statusCode());
+    }
+
+    @Test
+    void bothNodesAgreeOnAPairConversation() {
+        String onNode1 = node1.getBean(ChatService.class).getConversationByParticipants("dave", "erin");
+        String onNode2 = node2.getBean(ChatService.class).getConversationByParticipants("erin", "dave");
+
+        assertEquals(onNode1, onNode2);
+    }
+
+    private static HttpResponse<Void> postToBus(int port, String secret, List<ClusterEvent> events)
+            throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + HttpChatBus.PATH))
+                .header("Content-Type", "application/json")
+                .header(HttpChatBus.SECRET_HEADER, secret)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(events)))
+                .build();
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static ConfigurableApplicationContext start(String nodeId, int port1, int port2) {
+        Path data = directory.resolve(nodeId);
+        int port = nodeId.equals("node-1") ? port1 : port2;
+        return new SpringApplicationBuilder(MinioServiceApplication.class).run(
+                "--server.port=0",
+                "--management.server.port=" + port,
+                "--spring.jmx.enabled=false",
+                "--logging.level.com.example=INFO",
+                "--logging.level.io.minio=INFO",
+                // No MinIO is needed for chat
+                "--minio.endpoint=http://127.0.0.1:1",
+                "--minio.jobs.enabled=false",
+                "--minio.jobs.journal-file=" + data.resolve("jobs/journal.log"),
+                "--minio.dedup.index-file=" + data.resolve("dedup/aliases.log"),
+                "--minio.disk-cache.directory=" + data.resolve("cache"),
+                "--minio.resumable.directory=" + data.resolve("uploads"),
+                "--chat.store.directory=" + data.resolve("chat"),
+                "--chat.store.fsync=false",
+                "--chat.cluster.enabled=true",
+                "--chat.cluster.node-id=" + nodeId,
+                "--chat.cluster.nodes=" + String.join(",", NODES),
+                "--chat.cluster.peers.node-1=http://127.0.0.1:" + port1,
+                "--chat.cluster.peers.node-2=http://127.0.0.1:" + port2,
+                "--chat.cluster.secret=integration-test");
+    }
+
+    private static String conversationOwnedBy(String name, String node) {
+        ConsistentHashRing ring = new ConsistentHashRing(NODES, 64);
+        for (int i = 0; ; i++) {
+            String id = name + "-" + node + "-" + i;
+            if (node.equals(ring.nodeFor(id))) {
+                return id;
+            }
+        }
+    }
+
+    private static int messageCount(ChatService chatService, String conversationId) {
+        return chatService.getCons().containsKey(conversationId)
+                ? chatService.getCons().get(conversationId).getMessageLog().size()
+                : 0;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("condition not reached within 10s");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.minio.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 30_000;
+
+    @Test
+    void sameNodesGiveTheSameOwnerInAnyOrder() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("node-1", "node-2", "node-3"), 64);
+        ConsistentHashRing reordered = new ConsistentHashRing(List.of("node-3", "node-1", "node-2"), 64);
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(ring.nodeFor("conversation-" + i), reordered.nodeFor("conversation-" + i));
+        }
+    }
+
+    @Test
+    void keysAreSpreadOverAllNodes() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("node-1", "node-2", "node-3"), 64);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.nodeFor("conversation-" + i), 1, Integer::sum);
+        }
+
+        assertEquals(3, counts.size());
+        for (int count : counts.values()) {
+            // Within half of a fair share, 64 virtual nodes keep it far closer than that
+            assertTrue(count > KEYS / 3 / 2, "unbalanced: " + counts);
+        }
+    }
+
+    @Test
+    void addingANodeOnlyMovesKeysToIt() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of("node-1", "node-2", "node-3"), 64);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("node-1", "node-2", "node-3", "node-4"), 64);
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = "conversation-" + i;
+            String owner = after.nodeFor(key);
+            if (!owner.equals(before.nodeFor(key))) {
+                assertEquals("node-4", owner);
+                moved++;
+            }
+        }
+        // About a quarter of the keys move, never most of them
+        assertTrue(moved > 0 && moved < KEYS / 2, "moved " + moved);
+    }
+
+    @Test
+    void emptyRingHasNoOwner() {
+        assertNull(new ConsistentHashRing(List.of(), 64).nodeFor("conversation"));
+    }
+}
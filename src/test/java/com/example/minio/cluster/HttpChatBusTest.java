@@ -0,0 +1,50 @@
+package com.example.minio.cluster;
+
+import com.example.minio.config.ChatProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpChatBusTest {
+
+    @Test
+    void clusterModeNeedsASecret() {
+        ChatProperties chatProperties = properties("");
+
+        assertThrows(IllegalStateException.class,
+                () -> new HttpChatBus(chatProperties, new ObjectMapper(), managementPort("8081")));
+    }
+
+    @Test
+    void clusterModeNeedsAManagementPortApartFromThePublicOne() {
+        ChatProperties chatProperties = properties("secret");
+
+        assertThrows(IllegalStateException.class,
+                () -> new HttpChatBus(chatProperties, new ObjectMapper(), new MockEnvironment()));
+    }
+
+    @Test
+    void onlyTheSharedSecretIsAuthorized() {
+        HttpChatBus chatBus = new HttpChatBus(properties("secret"), new ObjectMapper(), managementPort("8081"));
+
+        assertTrue(chatBus.authorized("secret"));
+        assertFalse(chatBus.authorized("other"));
+        assertFalse(chatBus.authorized(""));
+        assertFalse(chatBus.authorized(null));
+    }
+
+    private static ChatProperties properties(String secret) {
+        ChatProperties chatProperties = new ChatProperties();
+        chatProperties.getCluster().setEnabled(true);
+        chatProperties.getCluster().setSecret(secret);
+        return chatProperties;
+    }
+
+    private static MockEnvironment managementPort(String port) {
+        return new MockEnvironment().withProperty("management.server.port", port);
+    }
+}
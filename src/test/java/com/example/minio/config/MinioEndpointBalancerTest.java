@@ -0,0 +1,104 @@
+package com.example.minio.config;
+
+import com.example.minio.InMemoryS3Server;
+import com.sun.net.httpserver.HttpServer;
+import io.minio.MinioClient;
+import io.minio.StatObjectArgs;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MinioEndpointBalancerTest {
+
+    private static final String BUCKET = "documents";
+
+    private InMemoryS3Server s3;
+    private int deadPort;
+    private HttpServer revived;
+    private MinioEndpointBalancer balancer;
+    private MinioClient minioClient;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        s3 = InMemoryS3Server.start();
+        s3.put(BUCKET, "a.txt", new byte[10], "text/plain");
+        // Probes of the live node find /minio/health/live as an object
+        s3.put("minio", "health/live", new byte[0], "text/plain");
+        try (ServerSocket socket = new ServerSocket(0)) {
+            deadPort = socket.getLocalPort();
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (balancer != null) {
+            balancer.close();
+        }
+        s3.stop();
+        if (revived != null) {
+            revived.stop(0);
+        }
+    }
+
+    @Test
+    void requestsFailOverFromANodeThatRefusesConnections() throws Exception {
+        // No probe runs during the test, only the failed connections mark the node down
+        connect(Duration.ofMinutes(1));
+        for (int i = 0; i < 4; i++) {
+            assertEquals(10, minioClient.statObject(
+                    StatObjectArgs.builder().bucket(BUCKET).object("a.txt").build()).size());
+        }
+        assertEquals(1, balancer.healthyCount());
+    }
+
+    @Test
+    void aNodeIsHealthyAgainOnceItsProbePasses() throws Exception {
+        connect(Duration.ofMillis(100));
+        minioClient.statObject(StatObjectArgs.builder().bucket(BUCKET).object("a.txt").build());
+        assertEquals(1, balancer.healthyCount());
+
+        revived = HttpServer.create(new InetSocketAddress("127.0.0.1", deadPort), 0);
+        revived.createContext("/minio/health/live", exchange -> {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        revived.start();
+
+        assertTrue(awaitHealthy(2), "healthy nodes: " + balancer.healthyCount());
+    }
+
+    /**
+     * The dead node is the primary endpoint, the in-memory S3 the failover one
+     */
+    private void connect(Duration healthCheckInterval) {
+        balancer = new MinioEndpointBalancer(
+                List.of(HttpUrl.get("http://127.0.0.1:" + deadPort), HttpUrl.get("http://127.0.0.1:" + s3.port())),
+                healthCheckInterval, new OkHttpClient());
+        minioClient = MinioClient.builder()
+                .endpoint("http://127.0.0.1:" + deadPort)
+                .credentials("minioadmin", "minioadmin")
+                .httpClient(new OkHttpClient.Builder().addInterceptor(balancer).build())
+                .build();
+    }
+
+    private boolean awaitHealthy(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (balancer.healthyCount() != count) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(20);
+        }
+        return true;
+    }
+}
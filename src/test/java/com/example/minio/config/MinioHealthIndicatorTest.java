@@ -0,0 +1,58 @@
+package com.example.minio.config;
+
+import io.minio.MinioClient;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class MinioHealthIndicatorTest {
+
+    private static final String SECRET_KEY = "s3cr3t-key";
+
+    private int deadPort;
+    private MinioEndpointBalancer balancer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            deadPort = socket.getLocalPort();
+        }
+        balancer = new MinioEndpointBalancer(List.of(HttpUrl.get("http://127.0.0.1:" + deadPort)),
+                Duration.ofMinutes(1), new OkHttpClient());
+    }
+
+    @AfterEach
+    void tearDown() {
+        balancer.close();
+    }
+
+    @Test
+    void aFailedProbeReportsOnlyTheKindOfError() {
+        MinioClient minioClient = MinioClient.builder()
+                .endpoint("http://127.0.0.1:" + deadPort)
+                .credentials("minioadmin", SECRET_KEY)
+                .build();
+        MinioProperties minioProperties = new MinioProperties();
+        minioProperties.getHealthCheck().setCacheTtl(Duration.ZERO);
+
+        Health health = new MinioHealthIndicator(minioClient, balancer, minioProperties, "documents").health();
+
+        assertEquals(Status.DOWN, health.getStatus());
+        assertEquals("MinIO not reachable (ConnectException)", health.getDetails().get("error"));
+        String details = health.getDetails().toString();
+        assertFalse(details.contains("127.0.0.1"), details);
+        assertFalse(details.contains(String.valueOf(deadPort)), details);
+        assertFalse(details.contains(SECRET_KEY), details);
+    }
+}
@@ -0,0 +1,490 @@
+package com.example.minio.controller;
+
+import com.example.minio.InMemoryS3Server;
+import com.example.minio.MinioServiceApplication;
+import com.example.minio.config.MinioProperties;
+import com.example.minio.entity.StoredObject;
+import com.example.minio.service.ContentAliasIndex;
+import com.example.minio.service.MinioService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The file endpoints over HTTP, with the application running against InMemoryS3Server
+ */
+class FileControllerTest {
+
+    private static final String BUCKET = "documents";
+    private static final String CONTENT = "0123456789abcdefghijklmnopqrstuvwxyz";
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    static Path directory;
+
+    private static InMemoryS3Server s3;
+    private static ConfigurableApplicationContext application;
+    private static HttpClient httpClient;
+    private static String baseUrl;
+
+    @BeforeAll
+    static void start() throws Exception {
+        s3 = InMemoryS3Server.start();
+        application = new SpringApplicationBuilder(MinioServiceApplication.class).run(
+                "--server.port=0",
+                "--management.server.port=0",
+                "--spring.jmx.enabled=false",
+                "--logging.level.com.example=INFO",
+                "--logging.level.io.minio=INFO",
+                "--minio.endpoint=http://127.0.0.1:" + s3.port(),
+                "--minio.bucket-name=" + BUCKET,
+                "--minio.jobs.enabled=false",
+                "--minio.dedup.enabled=true",
+                "--minio.presign.expiry=1s",
+                "--minio.presign.sweep-interval=100ms",
+                "--minio.presign.max-upload-size=1000",
+                "--minio.jobs.journal-file=" + directory.resolve("jobs/journal.log"),
+                "--minio.dedup.index-file=" + directory.resolve("dedup/aliases.log"),
+                "--minio.disk-cache.directory=" + directory.resolve("cache"),
+                "--minio.resumable.directory=" + directory.resolve("uploads"),
+                "--chat.store.enabled=false");
+        baseUrl = "http://127.0.0.1:" + application.getEnvironment().getProperty("local.server.port") + "/api/files";
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @AfterAll
+    static void stop() {
+        if (application != null) {
+            application.close();
+        }
+        if (s3 != null) {
+            s3.stop();
+        }
+    }
+
+    @Test
+    void overlappingRangesAreServedAsOne() throws Exception {
+        s3.put(BUCKET, "overlap.txt", bytes(CONTENT), "text/plain");
+
+        HttpResponse<String> response = get("/download/overlap.txt", "Range", "bytes=0-9,5-14");
+
+        assertEquals(206, response.statusCode());
+        assertEquals("bytes 0-14/" + CONTENT.length(), header(response, "Content-Range"));
+        assertEquals(CONTENT.substring(0, 15), response.body());
+    }
+
+    @Test
+    void adjacentRangesAreServedAsOne() throws Exception {
+        s3.put(BUCKET, "adjacent.txt", bytes(CONTENT), "text/plain");
+
+        HttpResponse<String> response = get("/download/adjacent.txt", "Range", "bytes=10-14,0-4,5-9");
+
+        assertEquals(206, response.statusCode());
+        assertEquals("bytes 0-14/" + CONTENT.length(), header(response, "Content-Range"));
+        assertEquals(CONTENT.substring(0, 15), response.body());
+    }
+
+    @Test
+    void disjointRangesAreServedAsMultipartByteranges() throws Exception {
+        s3.put(BUCKET, "parts.txt", bytes(CONTENT), "text/plain");
+
+        HttpResponse<String> response = get("/download/parts.txt", "Range", "bytes=20-22,0-1,-2");
+
+        assertEquals(206, response.statusCode());
+        String contentType = header(response, "Content-Type");
+        assertTrue(contentType.startsWith("multipart/byteranges; boundary="), contentType);
+        String boundary = contentType.substring(contentType.indexOf('=') + 1);
+        int size = CONTENT.length();
+
+        // Parts in byte order, each with its own Content-Range
+        String expected = part(boundary, "0-1/" + size, "01")
+                + part(boundary, "20-22/" + size, "klm")
+                + part(boundary, (size - 2) + "-" + (size - 1) + "/" + size, "yz")
+                + "\r\n--" + boundary + "--\r\n";
+        assertEquals(expected, response.body());
+    }
+
+    @Test
+    void unsatisfiableRangesAre416() throws Exception {
+        s3.put(BUCKET, "short.txt", bytes(CONTENT), "text/plain");
+
+        HttpResponse<String> response = get("/download/short.txt", "Range", "bytes=100-200");
+
+        assertEquals(416, response.statusCode());
+        assertEquals("bytes */" + CONTENT.length(), header(response, "Content-Range"));
+    }
+
+    @Test
+    void theHealthEndpointShowsNoDetailsToAnonymousCallers() throws Exception {
+        String managementUrl = "http://127.0.0.1:"
+                + application.getEnvironment().getProperty("local.management.port") + "/actuator/health";
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(managementUrl)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        JsonNode health = objectMapper.readTree(response.body());
+        assertEquals("UP", health.get("status").asText());
+        assertFalse(health.has("components"), response.body());
+        assertFalse(health.has("details"), response.body());
+    }
+
+    @Test
+    void aMatchingIfNoneMatchIs304() throws Exception {
+        s3.put(BUCKET, "etag.txt", bytes(CONTENT), "text/plain");
+        String etag = header(get("/download/etag.txt"), "ETag");
+
+        HttpResponse<String> response = get("/download/etag.txt", "If-None-Match", etag);
+
+        assertEquals(304, response.statusCode());
+        assertEquals(etag, header(response, "ETag"));
+        assertEquals("", response.body());
+        assertEquals(200, get("/download/etag.txt", "If-None-Match", "\"other\"").statusCode());
+    }
+
+    @Test
+    void anUnchangedIfModifiedSinceIs304() throws Exception {
+        s3.put(BUCKET, "since.txt", bytes(CONTENT), "text/plain");
+        String lastModified = header(get("/download/since.txt"), "Last-Modified");
+
+        HttpResponse<String> response = get("/download/since.txt", "If-Modified-Since", lastModified);
+
+        assertEquals(304, response.statusCode());
+        assertEquals("", response.body());
+        HttpResponse<String> older = get("/download/since.txt", "If-Modified-Since", "Mon, 01 Jan 2001 00:00:00 GMT");
+        assertEquals(200, older.statusCode());
+        assertEquals(CONTENT, older.body());
+    }
+
+    @Test
+    void aRangeWithAStaleIfRangeGetsTheWholeFile() throws Exception {
+        s3.put(BUCKET, "if-range.txt", bytes(CONTENT), "text/plain");
+        String etag = header(get("/download/if-range.txt"), "ETag");
+
+        HttpResponse<String> stale = get("/download/if-range.txt", "Range", "bytes=0-9", "If-Range", "\"other\"");
+        assertEquals(200, stale.statusCode());
+        assertEquals(CONTENT, stale.body());
+
+        HttpResponse<String> current = get("/download/if-range.txt", "Range", "bytes=0-9", "If-Range", etag);
+        assertEquals(206, current.statusCode());
+        assertEquals(CONTENT.substring(0, 10), current.body());
+    }
+
+    @Test
+    void aPageEndingOnACommonPrefixContinuesAfterIt() throws Exception {
+        for (String key : List.of("listing/a.txt", "listing/dir/x.txt", "listing/dir/y.txt", "listing/z.txt")) {
+            s3.put(BUCKET, key, bytes(key), "text/plain");
+        }
+
+        JsonNode first = list("/list?prefix=listing/&delimiter=/&maxKeys=2");
+        assertEquals(List.of("listing/a.txt", "listing/dir/"), names(first));
+        assertEquals("listing/dir/", first.get("nextStartAfter").asText());
+
+        // The cursor is the common prefix itself; the keys below it are not listed again
+        JsonNode second = list("/list?prefix=listing/&delimiter=/&maxKeys=2&startAfter=listing/dir/");
+        assertEquals(List.of("listing/z.txt"), names(second));
+        assertFalse(second.get("truncated").asBoolean());
+    }
+
+    @Test
+    void deduplicatedFilesAreListedFromTheAliasIndex() throws Exception {
+        ContentAliasIndex aliasIndex = application.getBean(ContentAliasIndex.class);
+        s3.put(BUCKET, "aliases/b.txt", bytes("plain"), "text/plain");
+        s3.put(BUCKET, "_cas/legacy", bytes(CONTENT), "text/plain");
+        // Described when it was uploaded: listed from the index, no stat of its content
+        aliasIndex.add("aliases/a.txt", "_cas/not-stored");
+        aliasIndex.describe("aliases/a.txt", "_cas/not-stored", 42, "etag-a",
+                ZonedDateTime.parse("2026-01-02T03:04:05Z"));
+        // Written before the index kept metadata: sized by a stat of its content
+        aliasIndex.add("aliases/c.txt", "_cas/legacy");
+        aliasIndex.add("aliases/dir/d.txt", "_cas/legacy");
+
+        JsonNode page = list("/list?prefix=aliases/&delimiter=/&maxKeys=10");
+        assertEquals(List.of("aliases/a.txt", "aliases/b.txt", "aliases/c.txt", "aliases/dir/"), names(page));
+        assertEquals(42, page.get("data").get(0).get("size").asLong());
+        assertEquals("etag-a", page.get("data").get(0).get("etag").asText());
+        assertEquals(CONTENT.length(), page.get("data").get(2).get("size").asLong());
+
+        HttpResponse<String> stream = get("/list/stream?prefix=aliases/");
+        assertEquals(200, stream.statusCode());
+        List<String> streamed = new ArrayList<>();
+        for (String line : stream.body().split("\n")) {
+            streamed.add(objectMapper.readTree(line).get("name").asText());
+        }
+        assertEquals(List.of("aliases/a.txt", "aliases/b.txt", "aliases/c.txt", "aliases/dir/d.txt"), streamed);
+    }
+
+    @Test
+    void aDeduplicatedUploadKeepsItsMetadataInTheIndex() throws Exception {
+        byte[] content = new byte[1000];
+        StoredObject stored = application.getBean(MinioService.class)
+                .uploadStream(new ByteArrayInputStream(content), "blob.bin", "application/octet-stream");
+
+        Iterator<ContentAliasIndex.Alias> entries = application.getBean(ContentAliasIndex.class)
+                .entries(stored.getFileName(), null);
+        ContentAliasIndex.Alias alias = entries.next();
+        assertEquals(stored.getFileName(), alias.getName());
+        assertTrue(alias.isDescribed());
+        assertEquals(content.length, alias.getSize());
+        // The ETag the stat reported: MD5 of the content for a single PUT
+        assertEquals("ede3d3b685b4e137ba4cb2521329a75e", alias.getEtag());
+    }
+
+    @Test
+    void anUploadToABucketThatWentMissingIsSentAgainInFull() throws Exception {
+        // Without deduplication the multipart file is put directly, not through the buffering uploader
+        MinioProperties.Dedup dedup = application.getBean(MinioProperties.class).getDedup();
+        dedup.setEnabled(false);
+        try {
+            s3.removeBucket(BUCKET);
+            String boundary = "retry-boundary";
+            HttpResponse<byte[]> response = post("/upload", "multipart/form-data; boundary=" + boundary,
+                    bytes(filePart(boundary, "file", "retry.txt", CONTENT) + "--" + boundary + "--\r\n"));
+
+            assertEquals(200, response.statusCode(), new String(response.body(), StandardCharsets.UTF_8));
+            String fileName = objectMapper.readTree(response.body()).get("fileName").asText();
+            assertEquals(CONTENT, get("/download/" + fileName).body());
+        } finally {
+            dedup.setEnabled(true);
+        }
+    }
+
+    @Test
+    void aResumableUploadToABucketThatWentMissingIsSentAgainInFull() throws Exception {
+        HttpResponse<String> created = httpClient.send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/resumable?fileName=resumed.txt&contentType=text/plain"))
+                        .header("Upload-Length", String.valueOf(CONTENT.length()))
+                        .POST(HttpRequest.BodyPublishers.noBody())
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(201, created.statusCode(), created.body());
+        String uploadId = objectMapper.readTree(created.body()).get("uploadId").asText();
+        HttpResponse<String> patched = httpClient.send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/resumable/" + uploadId))
+                        .header("Upload-Offset", "0")
+                        .header("Content-Type", "application/offset+octet-stream")
+                        .method("PATCH", HttpRequest.BodyPublishers.ofByteArray(bytes(CONTENT)))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(String.valueOf(CONTENT.length()), header(patched, "Upload-Offset"), patched.body());
+
+        s3.removeBucket(BUCKET);
+        HttpResponse<byte[]> completed = post("/resumable/" + uploadId + "/complete", "application/json", new byte[0]);
+
+        assertEquals(200, completed.statusCode(), new String(completed.body(), StandardCharsets.UTF_8));
+        String fileName = objectMapper.readTree(completed.body()).get("fileName").asText();
+        assertEquals(CONTENT, get("/download/" + fileName).body());
+    }
+
+    @Test
+    void aBatchUploadReportsTheFilesThatFailed() throws Exception {
+        byte[] refused = bytes("content the store refuses");
+        s3.deny(BUCKET, "_cas/" + sha256(refused));
+
+        String boundary = "batch-boundary";
+        byte[] body = bytes(filePart(boundary, "kept.bin", "content the store keeps")
+                + filePart(boundary, "refused.bin", "content the store refuses")
+                + "--" + boundary + "--\r\n");
+        HttpResponse<byte[]> response = post("/upload/batch", "multipart/form-data; boundary=" + boundary, body);
+
+        // The other file is still stored, and the failure is reported per file
+        assertEquals(200, response.statusCode());
+        JsonNode result = objectMapper.readTree(response.body());
+        assertFalse(result.get("success").asBoolean());
+        assertEquals(1, result.get("data").size());
+        assertEquals("kept.bin", result.get("data").get(0).get("originalName").asText());
+        assertEquals(List.of("refused.bin"), fieldNames(result.get("errors")));
+    }
+
+    @Test
+    void aBatchDeleteReportsTheFilesThatFailed() throws Exception {
+        s3.put(BUCKET, "batch/removed.txt", bytes(CONTENT), "text/plain");
+        s3.put(BUCKET, "batch/locked.txt", bytes(CONTENT), "text/plain");
+        s3.deny(BUCKET, "batch/locked.txt");
+
+        HttpResponse<byte[]> response = post("/delete/batch", "application/json",
+                objectMapper.writeValueAsBytes(List.of("batch/removed.txt", "batch/locked.txt")));
+
+        assertEquals(200, response.statusCode());
+        JsonNode result = objectMapper.readTree(response.body());
+        assertFalse(result.get("success").asBoolean());
+        assertEquals(List.of("batch/locked.txt"), fieldNames(result.get("errors")));
+        assertFalse(s3.contains(BUCKET, "batch/removed.txt"));
+        assertTrue(s3.contains(BUCKET, "batch/locked.txt"));
+    }
+
+    @Test
+    void anArchiveSkipsMissingFiles() throws Exception {
+        s3.put(BUCKET, "archive/a.txt", bytes("first"), "text/plain");
+        s3.put(BUCKET, "archive/b.txt", bytes("second"), "text/plain");
+
+        HttpResponse<byte[]> response = post("/archive", "application/json",
+                objectMapper.writeValueAsBytes(List.of("archive/a.txt", "archive/missing.txt", "archive/b.txt")));
+
+        assertEquals(200, response.statusCode());
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(response.body()))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        assertEquals(List.of("archive/a.txt", "archive/b.txt"), new ArrayList<>(entries.keySet()));
+        assertEquals("first", entries.get("archive/a.txt"));
+        assertEquals("second", entries.get("archive/b.txt"));
+    }
+
+    @Test
+    void aPresignedUploadExpiresAfterTheConfiguredTime() throws Exception {
+        ZonedDateTime before = ZonedDateTime.now();
+        JsonNode presigned = presignUpload("expiring.bin");
+
+        Matcher expires = Pattern.compile("X-Amz-Expires=(\\d+)").matcher(presigned.get("url").asText());
+        assertTrue(expires.find());
+        assertEquals("1", expires.group(1));
+        ZonedDateTime expiresAt = ZonedDateTime.parse(presigned.get("expiresAt").asText());
+        assertFalse(expiresAt.isBefore(before.plusSeconds(1)));
+        assertTrue(expiresAt.isBefore(before.plusSeconds(3)));
+    }
+
+    @Test
+    void aPresignedUploadIsCompletedOnce() throws Exception {
+        String fileName = presignUpload("done.bin").get("fileName").asText();
+        s3.put(BUCKET, fileName, new byte[10], "application/octet-stream");
+
+        HttpResponse<byte[]> completed = completePresignedUpload(fileName);
+        assertEquals(200, completed.statusCode());
+        assertEquals(10, objectMapper.readTree(completed.body()).get("size").asLong());
+        assertEquals(400, completePresignedUpload(fileName).statusCode());
+    }
+
+    @Test
+    void theSweepDeletesExpiredUploadsOverTheLimitsAndForgetsTheOthers() throws Exception {
+        String withinLimits = presignUpload("small.bin").get("fileName").asText();
+        String oversized = presignUpload("large.bin").get("fileName").asText();
+        // Both PUT straight to the store and never completed
+        s3.put(BUCKET, withinLimits, new byte[10], "application/octet-stream");
+        s3.put(BUCKET, oversized, new byte[2000], "application/octet-stream");
+
+        awaitTrue(() -> !s3.contains(BUCKET, oversized));
+        Thread.sleep(300);
+
+        assertTrue(s3.contains(BUCKET, withinLimits));
+        assertEquals(400, completePresignedUpload(withinLimits).statusCode());
+    }
+
+    private static JsonNode presignUpload(String fileName) throws Exception {
+        HttpResponse<byte[]> response = post("/presign/upload?fileName=" + fileName
+                + "&contentType=application/octet-stream", "application/x-www-form-urlencoded", new byte[0]);
+        assertEquals(200, response.statusCode());
+        return objectMapper.readTree(response.body());
+    }
+
+    private static HttpResponse<byte[]> completePresignedUpload(String fileName) throws Exception {
+        return post("/presign/complete?fileName=" + URLEncoder.encode(fileName, StandardCharsets.UTF_8),
+                "application/x-www-form-urlencoded", new byte[0]);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("condition not reached within 10s");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private static JsonNode list(String path) throws Exception {
+        HttpResponse<String> response = get(path);
+        assertEquals(200, response.statusCode(), response.body());
+        return objectMapper.readTree(response.body());
+    }
+
+    private static List<String> names(JsonNode page) {
+        List<String> names = new ArrayList<>();
+        page.get("data").forEach(entry -> names.add(entry.get("name").asText()));
+        return names;
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+
+    private static String filePart(String boundary, String fileName, String content) {
+        return filePart(boundary, "files", fileName, content);
+    }
+
+    private static String filePart(String boundary, String field, String fileName, String content) {
+        return "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + field + "\"; filename=\"" + fileName + "\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n"
+                + content + "\r\n";
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
+    private static String part(String boundary, String range, String content) {
+        return "\r\n--" + boundary + "\r\n"
+                + "Content-Type: text/plain\r\n"
+                + "Content-Range: bytes " + range + "\r\n\r\n"
+                + content;
+    }
+
+    private static HttpResponse<String> get(String path, String... headers) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+        for (int i = 0; i < headers.length; i += 2) {
+            request.header(headers[i], headers[i + 1]);
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpResponse<byte[]> post(String path, String contentType, byte[] body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String header(HttpResponse<?> response, String name) {
+        return response.headers().firstValue(name).orElse(null);
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+}
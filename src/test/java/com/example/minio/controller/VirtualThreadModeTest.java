@@ -0,0 +1,104 @@
+package com.example.minio.controller;
+
+import com.example.minio.InMemoryS3Server;
+import com.example.minio.MinioServiceApplication;
+import org.apache.catalina.connector.Connector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The application started with spring.threads.virtual.enabled, serving downloads that
+ * block on a slow S3. Tomcat only switches to virtual threads on Java 21.
+ */
+class VirtualThreadModeTest {
+
+    private static final String BUCKET = "documents";
+    private static final String CONTENT = "0123456789abcdefghijklmnopqrstuvwxyz";
+
+    @TempDir
+    static Path directory;
+
+    private static InMemoryS3Server s3;
+    private static ConfigurableApplicationContext application;
+    private static String baseUrl;
+
+    @BeforeAll
+    static void start() throws Exception {
+        s3 = InMemoryS3Server.start();
+        application = new SpringApplicationBuilder(MinioServiceApplication.class).run(
+                "--server.port=0",
+                "--management.server.port=0",
+                "--spring.jmx.enabled=false",
+                "--spring.threads.virtual.enabled=true",
+                "--logging.level.com.example=INFO",
+                "--logging.level.io.minio=INFO",
+                "--minio.endpoint=http://127.0.0.1:" + s3.port(),
+                "--minio.bucket-name=" + BUCKET,
+                "--minio.jobs.enabled=false",
+                "--minio.jobs.journal-file=" + directory.resolve("jobs/journal.log"),
+                "--minio.dedup.index-file=" + directory.resolve("dedup/aliases.log"),
+                "--minio.disk-cache.directory=" + directory.resolve("cache"),
+                "--minio.resumable.directory=" + directory.resolve("uploads"),
+                "--chat.store.enabled=false");
+        baseUrl = "http://127.0.0.1:" + application.getEnvironment().getProperty("local.server.port") + "/api/files";
+    }
+
+    @AfterAll
+    static void stop() {
+        if (application != null) {
+            application.close();
+        }
+        if (s3 != null) {
+            s3.stop();
+        }
+    }
+
+    @Test
+    void requestThreadsAreVirtualOnJava21() {
+        TomcatWebServer webServer =
+                (TomcatWebServer) ((ServletWebServerApplicationContext) application).getWebServer();
+        Connector connector = webServer.getTomcat().getConnector();
+        String executor = connector.getProtocolHandler().getExecutor().getClass().getSimpleName();
+
+        assertEquals(Runtime.version().feature() >= 21, executor.equals("VirtualThreadExecutor"), executor);
+    }
+
+    @Test
+    void concurrentDownloadsBlockedOnS3AreServed() throws Exception {
+        s3.put(BUCKET, "slow.txt", CONTENT.getBytes(StandardCharsets.UTF_8), "text/plain");
+        s3.latency(200);
+        try {
+            HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/download/slow.txt")).GET().build();
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                responses.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            }
+
+            for (CompletableFuture<HttpResponse<String>> response : responses) {
+                assertEquals(200, response.get().statusCode());
+                assertEquals(CONTENT, response.get().body());
+            }
+        } finally {
+            s3.latency(0);
+        }
+    }
+}
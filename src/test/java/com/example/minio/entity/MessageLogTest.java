@@ -0,0 +1,114 @@
+package com.example.minio.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MessageLogTest {
+
+    @Test
+    void appendStampsConsecutiveSequences() {
+        MessageLog log = new MessageLog();
+        assertNull(log.last());
+        assertEquals(0, log.lastSequence());
+
+        for (int i = 1; i <= 40; i++) {
+            assertEquals(i, log.append(message("m" + i)));
+        }
+
+        assertEquals(40, log.lastSequence());
+        assertEquals("m40", log.last().getContent());
+        assertEquals(List.of(10L, 11L, 12L), sequences(log.range(10, 13)));
+        assertTrue(log.range(41, 50).isEmpty());
+    }
+
+    @Test
+    void tailLimitKeepsOnlyTheNewestMessages() {
+        MessageLog log = new MessageLog();
+        log.setMaxTail(8);
+        for (int i = 1; i <= 100; i++) {
+            log.append(message("m" + i));
+        }
+
+        assertEquals(100, log.lastSequence());
+        assertTrue(log.firstSequence() > 1);
+        assertTrue(log.snapshot().size() <= 16);
+        assertEquals(List.of(98L, 99L, 100L), sequences(log.range(98, 101)));
+        // Trimmed messages are no longer held, a range over them is cut short
+        assertEquals(log.firstSequence(), log.range(1, 101).get(0).getSequence());
+    }
+
+    @Test
+    void restoreStartsOverAfterAGap() {
+        MessageLog log = new MessageLog();
+        log.restore(stamped(5));
+        log.restore(stamped(6));
+        assertEquals(List.of(5L, 6L), sequences(log.snapshot()));
+
+        // Older records were removed by retention: the log continues from the new sequence
+        log.restore(stamped(20));
+        assertEquals(20, log.firstSequence());
+        assertEquals(List.of(20L), sequences(log.snapshot()));
+    }
+
+    @Test
+    void aRepeatedDeliveryIsIgnored() {
+        MessageLog log = new MessageLog();
+        for (long sequence = 1; sequence <= 3; sequence++) {
+            log.restore(stamped(sequence));
+        }
+
+        // The same batch again, as after a retried send
+        for (long sequence = 1; sequence <= 3; sequence++) {
+            log.restore(stamped(sequence));
+        }
+        log.restore(stamped(4));
+
+        assertEquals(1, log.firstSequence());
+        assertEquals(List.of(1L, 2L, 3L, 4L), sequences(log.snapshot()));
+    }
+
+    @Test
+    void readersNeverSeeAGapWhileAWriterAppends() throws InterruptedException {
+        MessageLog log = new MessageLog();
+        AtomicBoolean broken = new AtomicBoolean();
+        Thread reader = new Thread(() -> {
+            while (log.lastSequence() < 100_000) {
+                List<ChatMessage> page = log.range(log.lastSequence() - 20, log.lastSequence() + 1);
+                for (int i = 1; i < page.size(); i++) {
+                    if (page.get(i) == null || page.get(i).getSequence() != page.get(i - 1).getSequence() + 1) {
+                        broken.set(true);
+                    }
+                }
+            }
+        });
+        reader.start();
+
+        for (int i = 1; i <= 100_000; i++) {
+            log.append(message("m" + i));
+        }
+        reader.join(30_000);
+
+        assertFalse(broken.get());
+    }
+
+    private static ChatMessage message(String content) {
+        return new ChatMessage("alice", content, "CHAT");
+    }
+
+    private static ChatMessage stamped(long sequence) {
+        ChatMessage message = message("m" + sequence);
+        message.setSequence(sequence);
+        return message;
+    }
+
+    private static List<Long> sequences(List<ChatMessage> messages) {
+        return messages.stream().map(ChatMessage::getSequence).toList();
+    }
+}
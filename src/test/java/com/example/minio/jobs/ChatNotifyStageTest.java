@@ -0,0 +1,80 @@
+package com.example.minio.jobs;
+
+import com.example.minio.config.ChatProperties;
+import com.example.minio.entity.ChatMessage;
+import com.example.minio.entity.StoredObject;
+import com.example.minio.entity.UploadJob;
+import com.example.minio.service.ChatLogStore;
+import com.example.minio.service.ChatMessagePipeline;
+import com.example.minio.service.ChatService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChatNotifyStageTest {
+
+    private final List<ChatMessage> posted = new ArrayList<>();
+    private ChatService chatService;
+    private ChatNotifyStage stage;
+    private String conversationId;
+
+    @BeforeEach
+    void setUp() {
+        ChatProperties chatProperties = new ChatProperties();
+        chatProperties.getStore().setEnabled(false);
+        chatService = new ChatService(new ChatLogStore(chatProperties, new ObjectMapper()), chatProperties);
+        // Never started, accept() only records what would be posted
+        ChatMessagePipeline pipeline = new ChatMessagePipeline(chatService, null, null, chatProperties) {
+            @Override
+            public boolean accept(ChatMessage message) {
+                posted.add(message);
+                return true;
+            }
+        };
+        stage = new ChatNotifyStage(pipeline, chatService);
+
+        conversationId = chatService.getOrCreateConversation(null).getId();
+        chatService.addParticipant(conversationId, "alice");
+    }
+
+    @Test
+    void aParticipantsFileIsAnnouncedOnce() throws Exception {
+        UploadJob job = job("alice");
+
+        stage.process(job);
+        stage.process(job);
+
+        assertEquals(1, posted.size());
+        assertEquals("alice", posted.get(0).getSender());
+        assertEquals(conversationId, posted.get(0).getConversationId());
+        assertEquals("FILE", posted.get(0).getType());
+    }
+
+    @Test
+    void onlyParticipantsCanAnnounceAFile() {
+        assertThrows(IllegalArgumentException.class, () -> stage.process(job("mallory")));
+        assertThrows(IllegalArgumentException.class, () -> stage.process(job(null)));
+
+        assertTrue(posted.isEmpty());
+        // The check does not create conversations
+        assertThrows(IllegalArgumentException.class,
+                () -> stage.process(new UploadJob("job", stored(), "unknown", "alice")));
+        assertFalse(chatService.getCons().containsKey("unknown"));
+    }
+
+    private UploadJob job(String sender) {
+        return new UploadJob("job-" + sender, stored(), conversationId, sender);
+    }
+
+    private static StoredObject stored() {
+        return new StoredObject("a.txt", "a.txt", "text/plain", 1);
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.minio.jobs;
+
+import com.example.minio.config.MinioProperties;
+import com.example.minio.entity.StoredObject;
+import com.example.minio.entity.UploadJob;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UploadJobQueueTest {
+
+    @TempDir
+    Path directory;
+
+    private UploadJobQueue queue;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (queue != null) {
+            queue.stop();
+        }
+    }
+
+    @Test
+    void aFailingJobDoesNotFailTheRestOfItsBatch() throws Exception {
+        UploadJobStage stage = new UploadJobStage() {
+            @Override
+            public String name() {
+                return "check";
+            }
+
+            @Override
+            public void process(UploadJob job) {
+                if (job.getFileName().startsWith("bad")) {
+                    throw new IllegalArgumentException("rejected " + job.getFileName());
+                }
+                job.putResult("checked", true);
+            }
+        };
+        queue = start(stage);
+
+        List<UploadJob> submitted = new ArrayList<>();
+        for (String name : List.of("a.txt", "bad.txt", "b.txt", "c.txt")) {
+            submitted.add(queue.submit(new StoredObject(name, name, "text/plain", 1), null, "alice"));
+        }
+
+        for (UploadJob job : submitted) {
+            UploadJob finished = await(job.getId());
+            if (job.getFileName().startsWith("bad")) {
+                assertEquals(UploadJob.Status.FAILED, finished.getStatus());
+                assertEquals("rejected bad.txt", finished.getLastError());
+            } else {
+                assertEquals(UploadJob.Status.DONE, finished.getStatus());
+                assertEquals(true, finished.getResult("checked"));
+            }
+        }
+    }
+
+    @Test
+    void finishedJobsAreRecoveredFromTheJournal() throws Exception {
+        UploadJobStage stage = new UploadJobStage() {
+            @Override
+            public String name() {
+                return "check";
+            }
+
+            @Override
+            public void process(UploadJob job) {
+                job.putResult("checked", true);
+            }
+        };
+        queue = start(stage);
+        String id = queue.submit(new StoredObject("a.txt", "a.txt", "text/plain", 1), null, "alice").getId();
+        await(id);
+        queue.stop();
+
+        queue = start(stage);
+        UploadJob recovered = queue.get(id);
+        assertEquals(UploadJob.Status.DONE, recovered.getStatus());
+        assertEquals(true, recovered.getResult("checked"));
+    }
+
+    @Test
+    void theQueueIsOffUnlessEnabled() throws Exception {
+        MinioProperties minioProperties = new MinioProperties();
+        minioProperties.getJobs().setJournalFile(directory.resolve("journal.log").toString());
+        queue = new UploadJobQueue(List.of(), minioProperties, new ObjectMapper());
+        queue.start();
+
+        assertNull(queue.submit(new StoredObject("a.txt", "a.txt", "text/plain", 1), null, "alice"));
+        assertFalse(Files.exists(directory.resolve("journal.log")));
+    }
+
+    @Test
+    void aJobIsInTheJournalAsSoonAsItIsSubmitted() throws Exception {
+        UploadJobStage stage = new UploadJobStage() {
+            @Override
+            public String name() {
+                return "check";
+            }
+
+            @Override
+            public void process(UploadJob job) throws Exception {
+                throw new Exception("not yet");
+            }
+        };
+        queue = start(stage);
+        String id = queue.submit(new StoredObject("a.txt", "a.txt", "text/plain", 1), null, "alice").getId();
+
+        // Written through on submit, without stopping the queue
+        assertTrue(Files.readString(directory.resolve("journal.log")).contains(id));
+    }
+
+    private UploadJobQueue start(UploadJobStage stage) throws Exception {
+        MinioProperties minioProperties = new MinioProperties();
+        MinioProperties.Jobs jobs = minioProperties.getJobs();
+        jobs.setEnabled(true);
+        jobs.setJournalFile(directory.resolve("journal.log").toString());
+        jobs.setBackoff(Duration.ofMillis(10));
+        MinioProperties.JobStage limits = new MinioProperties.JobStage();
+        limits.setBatchSize(8);
+        jobs.getStages().put(stage.name(), limits);
+
+        UploadJobQueue started = new UploadJobQueue(List.of(stage), minioProperties, new ObjectMapper());
+        started.start();
+        return started;
+    }
+
+    private UploadJob await(String id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            UploadJob job = queue.get(id);
+            if (job.isFinished()) {
+                return job;
+            }
+            assertTrue(System.currentTimeMillis() < deadline, "job " + id + " did not finish");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.minio.service;
+
+import com.example.minio.config.ChatProperties;
+import com.example.minio.entity.ChatMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChatLogStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recoversWhatWasWrittenAcrossSegments() throws IOException {
+        ChatProperties chatProperties = properties();
+        ChatLogStore store = new ChatLogStore(chatProperties, new ObjectMapper());
+        store.recover((type, message) -> { });
+
+        for (long sequence = 1; sequence <= 200; sequence++) {
+            store.append(ChatLogStore.MESSAGE, List.of(message("a", sequence), message("b", sequence)));
+        }
+        store.close();
+
+        ChatLogStore reopened = new ChatLogStore(chatProperties, new ObjectMapper());
+        List<ChatMessage> replayed = new ArrayList<>();
+        reopened.recover((type, message) -> replayed.add(message));
+
+        assertEquals(400, replayed.size());
+        assertEquals(List.of(50L, 51L, 52L), reopened.read("a", 50, 53).stream()
+                .map(ChatMessage::getSequence).toList());
+        assertEquals(200, reopened.read("b", 1, 1000).size());
+        reopened.close();
+    }
+
+    @Test
+    void segmentsPastRetentionKeepOnlyJoinsAndTheNewestMessage() throws IOException {
+        ChatProperties chatProperties = properties();
+        chatProperties.getStore().setRetention(Duration.ofHours(1));
+        long old = System.currentTimeMillis() - Duration.ofHours(2).toMillis();
+
+        ChatLogStore store = new ChatLogStore(chatProperties, new ObjectMapper());
+        store.recover((type, message) -> { });
+        ChatMessage join = new ChatMessage("alice", null, "JOIN");
+        join.setConversationId("a");
+        join.setTimestamp(old);
+        store.append(ChatLogStore.JOIN, List.of(join));
+        for (long sequence = 1; sequence <= 200; sequence++) {
+            store.append(ChatLogStore.MESSAGE, List.of(message("a", sequence, old)));
+        }
+        store.close();
+
+        // After a restart the old segments are known to be past retention; the next roll compacts them
+        ChatLogStore reopened = new ChatLogStore(chatProperties, new ObjectMapper());
+        reopened.recover((type, message) -> { });
+        for (long sequence = 1; sequence <= 200; sequence++) {
+            reopened.append(ChatLogStore.MESSAGE, List.of(message("b", sequence, System.currentTimeMillis())));
+        }
+        List<Long> kept = sequences(reopened.read("a", 1, 201));
+        reopened.close();
+
+        ChatLogStore recovered = new ChatLogStore(chatProperties, new ObjectMapper());
+        List<Long> replayed = new ArrayList<>();
+        List<String> joins = new ArrayList<>();
+        recovered.recover((type, message) -> {
+            if (type == ChatLogStore.JOIN) {
+                joins.add(message.getSender());
+            } else if ("a".equals(message.getConversationId())) {
+                replayed.add(message.getSequence());
+            }
+        });
+
+        assertEquals(List.of("alice"), joins);
+        assertTrue(replayed.size() < 200, "old messages were dropped");
+        assertEquals(200L, replayed.get(replayed.size() - 1));
+        for (int i = 1; i < replayed.size(); i++) {
+            assertTrue(replayed.get(i) > replayed.get(i - 1));
+        }
+        // The rebuilt index finds the same messages before and after the restart
+        assertEquals(replayed, kept);
+        assertEquals(replayed, sequences(recovered.read("a", 1, 201)));
+        assertEquals(200, recovered.read("b", 1, 1000).size());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.allMatch(path -> path.toString().endsWith(".log")));
+        }
+        recovered.close();
+    }
+
+    private static List<Long> sequences(List<ChatMessage> messages) {
+        return messages.stream().map(ChatMessage::getSequence).toList();
+    }
+
+    private ChatProperties properties() {
+        ChatProperties chatProperties = new ChatProperties();
+        chatProperties.getStore().setDirectory(directory.toString());
+        // Small segments, so the test rolls over several of them
+        chatProperties.getStore().setSegmentSize(16 * 1024);
+        chatProperties.getStore().setIndexInterval(8);
+        chatProperties.getStore().setFsync(false);
+        return chatProperties;
+    }
+
+    private static ChatMessage message(String conversationId, long sequence) {
+        return message(conversationId, sequence, System.currentTimeMillis());
+    }
+
+    private static ChatMessage message(String conversationId, long sequence, long timestamp) {
+        ChatMessage message = new ChatMessage("alice", "message " + sequence, "CHAT");
+        message.setConversationId(conversationId);
+        message.setSequence(sequence);
+        message.setTimestamp(timestamp);
+        return message;
+    }
+}
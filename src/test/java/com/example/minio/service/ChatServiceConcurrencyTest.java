@@ -0,0 +1,172 @@
+package com.example.minio.service;
+
+import com.example.minio.config.ChatProperties;
+import com.example.minio.entity.ChatMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChatServiceConcurrencyTest {
+
+    private static final int THREADS = 64;
+    private static final int MESSAGES_PER_THREAD = 2_000;
+
+    private ChatService chatService;
+
+    @BeforeEach
+    void setUp() {
+        ChatProperties chatProperties = new ChatProperties();
+        chatProperties.getStore().setEnabled(false);
+        chatService = new ChatService(new ChatLogStore(chatProperties, new ObjectMapper()), chatProperties);
+    }
+
+    @Test
+    void concurrentSendersLoseNoMessages() throws Exception {
+        String conversationId = chatService.getOrCreateConversation(null).getId();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < MESSAGES_PER_THREAD; i++) {
+                chatService.addMessage(conversationId, new ChatMessage("user-" + thread, "m" + i, "CHAT"));
+            }
+        });
+
+        List<ChatMessage> messages = chatService.getMessages(conversationId);
+        assertEquals(THREADS * MESSAGES_PER_THREAD, messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            assertEquals(i + 1, messages.get(i).getSequence());
+        }
+    }
+
+    @Test
+    void readersSeeContiguousHistoryWhileWritersAppend() throws Exception {
+        String conversationId = chatService.getOrCreateConversation(null).getId();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicBoolean broken = new AtomicBoolean();
+
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        List<Future<?>> reads = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            reads.add(readers.submit(() -> {
+                while (writing.get()) {
+                    List<ChatMessage> page = chatService.getMessages(conversationId, null, null, 50);
+                    for (int i = 1; i < page.size(); i++) {
+                        if (page.get(i).getSequence() != page.get(i - 1).getSequence() + 1) {
+                            broken.set(true);
+                        }
+                    }
+                }
+            }));
+        }
+
+        try {
+            runConcurrently(thread -> {
+                for (int i = 0; i < MESSAGES_PER_THREAD / 4; i++) {
+                    chatService.addMessage(conversationId, new ChatMessage("user-" + thread, "m" + i, "CHAT"));
+                }
+            });
+        } finally {
+            writing.set(false);
+        }
+        for (Future<?> read : reads) {
+            read.get(30, TimeUnit.SECONDS);
+        }
+        readers.shutdown();
+
+        assertFalse(broken.get(), "a reader saw a gap or reordering");
+        assertEquals(THREADS * (MESSAGES_PER_THREAD / 4), chatService.getMessages(conversationId).size());
+    }
+
+    @Test
+    void concurrentPairLookupsAgreeOnOneConversation() throws Exception {
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+
+        runConcurrently(thread -> {
+            // Half the threads ask with the users swapped
+            ids.add(thread % 2 == 0
+                    ? chatService.getConversationByParticipants("alice", "bob")
+                    : chatService.getConversationByParticipants("bob", "alice"));
+        });
+
+        assertEquals(1, ids.size());
+        String id = ids.iterator().next();
+        assertEquals(Set.of("alice", "bob"), chatService.getParticipants(id));
+        assertTrue(chatService.getConversationIds("alice").contains(id));
+    }
+
+    @Test
+    void pairLookupMovesOnFromAConversationThatGrew() {
+        String first = chatService.getConversationByParticipants("alice", "bob");
+        chatService.addParticipant(first, "carol");
+
+        String second = chatService.getConversationByParticipants("alice", "bob");
+        assertNotEquals(first, second);
+
+        // A third conversation reaching exactly alice and bob replaces the stale entry too
+        String third = chatService.getOrCreateConversation(null).getId();
+        chatService.addParticipant(second, "dave");
+        chatService.addParticipant(third, "alice");
+        chatService.addParticipant(third, "bob");
+        assertEquals(third, chatService.getConversationByParticipants("alice", "bob"));
+    }
+
+    @Test
+    void concurrentJoinsAreAllRecorded() throws Exception {
+        String conversationId = chatService.getOrCreateConversation(null).getId();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < 100; i++) {
+                chatService.addParticipant(conversationId, "user-" + thread + "-" + i);
+            }
+        });
+
+        assertEquals(THREADS * 100, chatService.getParticipants(conversationId).size());
+        assertTrue(chatService.getConversationIds("user-0-0").contains(conversationId));
+    }
+
+    private interface Work {
+        void run(int thread) throws Exception;
+    }
+
+    /**
+     * Start every thread at once, so they actually contend, and rethrow the first failure
+     */
+    private static void runConcurrently(Work work) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                Callable<Void> task = () -> {
+                    start.await();
+                    work.run(thread);
+                    return null;
+                };
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.minio.service;
+
+import com.example.minio.config.ChatProperties;
+import com.example.minio.entity.ChatMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChatServiceTest {
+
+    private ChatService chatService;
+
+    @BeforeEach
+    void setUp() {
+        ChatProperties chatProperties = new ChatProperties();
+        chatProperties.getStore().setEnabled(false);
+        chatService = new ChatService(new ChatLogStore(chatProperties, new ObjectMapper()), chatProperties);
+    }
+
+    @Test
+    void readsDoNotCreateUnknownConversations() {
+        assertThrows(NoSuchElementException.class, () -> chatService.getMessages("missing", null, null, 10));
+        assertThrows(NoSuchElementException.class, () -> chatService.markRead("missing", "alice", 1));
+        assertFalse(chatService.getCons().containsKey("missing"));
+    }
+
+    @Test
+    void messagesThatFailToPersistAreNotKept() {
+        ChatProperties chatProperties = new ChatProperties();
+        AtomicBoolean failing = new AtomicBoolean(true);
+        ChatLogStore failingStore = new ChatLogStore(chatProperties, new ObjectMapper()) {
+            @Override
+            public synchronized void append(byte type, List<ChatMessage> messages) throws IOException {
+                if (failing.get()) {
+                    throw new IOException("disk full");
+                }
+            }
+        };
+        ChatService service = new ChatService(failingStore, chatProperties);
+        String id = service.getOrCreateConversation(null).getId();
+
+        assertThrows(UncheckedIOException.class,
+                () -> service.addMessage(id, new ChatMessage("alice", "lost", "CHAT")));
+        assertTrue(service.getMessages(id, null, null, 10).isEmpty());
+
+        failing.set(false);
+        ChatMessage kept = new ChatMessage("alice", "kept", "CHAT");
+        service.addMessage(id, kept);
+        assertEquals(1, kept.getSequence());
+        assertEquals(List.of(kept), service.getMessages(id, null, null, 10));
+    }
+
+    @Test
+    void joinsThatFailToPersistAreNotVisible() {
+        ChatProperties chatProperties = new ChatProperties();
+        AtomicBoolean failing = new AtomicBoolean(true);
+        ChatLogStore failingStore = new ChatLogStore(chatProperties, new ObjectMapper()) {
+            @Override
+            public synchronized void append(byte type, List<ChatMessage> messages) throws IOException {
+                if (failing.get()) {
+                    throw new IOException("disk full");
+                }
+            }
+        };
+        ChatService service = new ChatService(failingStore, chatProperties);
+
+        assertThrows(UncheckedIOException.class, () -> service.addParticipant("room", "alice"));
+        assertFalse(service.getCons().containsKey("room"));
+        assertTrue(service.getConversationIds("alice").isEmpty());
+
+        failing.set(false);
+        service.addParticipant("room", "alice");
+        assertEquals(Set.of("alice"), service.getParticipants("room"));
+        assertEquals(Set.of("room"), service.getConversationIds("alice"));
+    }
+
+    @Test
+    void pairLookupReusesTheDerivedConversationOfAReplica() {
+        // Another node owns the pair's conversation and replicated a message of it here
+        String derivedId = UUID.nameUUIDFromBytes("alice\u0000bob".getBytes(StandardCharsets.UTF_8)).toString();
+        ChatMessage replicated = new ChatMessage("alice", "hi", "CHAT");
+        replicated.setConversationId(derivedId);
+        replicated.setSequence(1);
+        chatService.applyReplica(replicated);
+
+        assertEquals(derivedId, chatService.getConversationByParticipants("bob", "alice"));
+        assertEquals(Set.of("alice", "bob"), chatService.getParticipants(derivedId));
+        assertEquals(List.of(replicated), chatService.getMessages(derivedId, null, null, 10));
+    }
+
+    @Test
+    void pagesWalkBackwardsFromTheNewest() {
+        String id = chatService.getOrCreateConversation(null).getId();
+        for (int i = 1; i <= 10; i++) {
+            chatService.addMessage(id, new ChatMessage("alice", "m" + i, "CHAT"));
+        }
+
+        List<ChatMessage> newest = chatService.getMessages(id, null, null, 4);
+        assertEquals(List.of(7L, 8L, 9L, 10L), newest.stream().map(ChatMessage::getSequence).toList());
+
+        List<ChatMessage> older = chatService.getMessages(id, 7L, null, 4);
+        assertEquals(List.of(3L, 4L, 5L, 6L), older.stream().map(ChatMessage::getSequence).toList());
+
+        List<ChatMessage> newer = chatService.getMessages(id, null, 8L, 4);
+        assertEquals(List.of(9L, 10L), newer.stream().map(ChatMessage::getSequence).toList());
+    }
+}
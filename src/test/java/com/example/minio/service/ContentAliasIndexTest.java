@@ -0,0 +1,96 @@
+package com.example.minio.service;
+
+import com.example.minio.config.MinioProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZonedDateTime;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ContentAliasIndexTest {
+
+    @TempDir
+    Path directory;
+
+    private MinioProperties minioProperties;
+    private ContentAliasIndex index;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        minioProperties = new MinioProperties();
+        minioProperties.getDedup().setIndexFile(directory.resolve("aliases.log").toString());
+        index = new ContentAliasIndex(minioProperties);
+        index.load();
+    }
+
+    @Test
+    void listsNamesInKeyOrderAfterTheCursor() throws Exception {
+        index.add("b.txt", "_cas/1");
+        index.add("a.txt", "_cas/1");
+        index.add("docs/c.txt", "_cas/2");
+
+        assertEquals(List.of("a.txt", "b.txt", "docs/c.txt"), index.list(null, null, 0));
+        assertEquals(List.of("b.txt", "docs/c.txt"), index.list(null, "a.txt", 0));
+        assertEquals(List.of("docs/c.txt"), index.list("docs/", null, 0));
+        assertEquals(List.of("a.txt"), index.list("", null, 1));
+    }
+
+    @Test
+    void namesThatWouldBreakTheJournalAreRejected() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> index.add("a\tb", "_cas/1"));
+        assertThrows(IllegalArgumentException.class, () -> index.add("a\nb", "_cas/1"));
+
+        index.add("kept.txt", "_cas/1");
+        index.close();
+        ContentAliasIndex reloaded = new ContentAliasIndex(minioProperties);
+        reloaded.load();
+        assertEquals(List.of("kept.txt"), reloaded.list(null, null, 0));
+        assertNull(reloaded.resolve("a"));
+    }
+
+    @Test
+    void metadataOfDescribedAliasesSurvivesARestart() throws Exception {
+        ZonedDateTime modified = ZonedDateTime.parse("2026-01-02T03:04:05Z");
+        index.add("described.txt", "_cas/1");
+        index.describe("described.txt", "_cas/1", 42, "abc", modified);
+        index.add("legacy.txt", "_cas/2");
+        // The alias was replaced meanwhile: the late description is dropped
+        index.add("replaced.txt", "_cas/3");
+        index.add("replaced.txt", "_cas/4");
+        index.describe("replaced.txt", "_cas/3", 7, "old", modified);
+        index.close();
+
+        // Journals written before metadata was kept have three fields and still load
+        Files.writeString(directory.resolve("aliases.log"), "+\told.txt\t_cas/5\n",
+                StandardOpenOption.APPEND);
+        ContentAliasIndex reloaded = new ContentAliasIndex(minioProperties);
+        reloaded.load();
+
+        Iterator<ContentAliasIndex.Alias> entries = reloaded.entries(null, null);
+        ContentAliasIndex.Alias described = entries.next();
+        assertEquals("described.txt", described.getName());
+        assertEquals(42, described.getSize());
+        assertEquals("abc", described.getEtag());
+        assertEquals(modified.toInstant(), described.getLastModified().toInstant());
+        assertFalse(entries.next().isDescribed());
+        ContentAliasIndex.Alias old = entries.next();
+        assertEquals("old.txt", old.getName());
+        assertFalse(old.isDescribed());
+        ContentAliasIndex.Alias replaced = entries.next();
+        assertEquals("_cas/4", replaced.getContentKey());
+        assertFalse(replaced.isDescribed());
+        assertFalse(entries.hasNext());
+        assertEquals(1, reloaded.references("_cas/1"));
+        assertEquals(0, reloaded.references("_cas/3"));
+    }
+}
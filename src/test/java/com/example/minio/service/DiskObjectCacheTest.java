@@ -0,0 +1,127 @@
+package com.example.minio.service;
+
+import com.example.minio.config.MinioProperties;
+import io.minio.GetObjectResponse;
+import okhttp3.Headers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DiskObjectCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private DiskObjectCache cache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MinioProperties minioProperties = new MinioProperties();
+        minioProperties.getDiskCache().setEnabled(true);
+        minioProperties.getDiskCache().setDirectory(directory.toString());
+        cache = new DiskObjectCache(minioProperties);
+        cache.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.stop();
+    }
+
+    @Test
+    void readersGetBytesBeforeTheFetchCompletesAndShareIt() throws Exception {
+        PipedOutputStream origin = new PipedOutputStream();
+        PipedInputStream body = new PipedInputStream(origin, 1024);
+        AtomicInteger fetches = new AtomicInteger();
+        DiskObjectCache.ObjectOpener opener = () -> {
+            fetches.incrementAndGet();
+            return response("\"fresh\"", body);
+        };
+
+        InputStream first = cache.openOrLoad("a.txt", "stale", opener);
+        InputStream second = cache.openOrLoad("a.txt", "stale", opener);
+
+        origin.write("hello ".getBytes(StandardCharsets.UTF_8));
+        origin.flush();
+        // The object is not complete yet, the bytes so far can be read
+        assertArrayEquals("hello ".getBytes(StandardCharsets.UTF_8), first.readNBytes(6));
+
+        origin.write("world".getBytes(StandardCharsets.UTF_8));
+        origin.close();
+        assertEquals("world", new String(first.readAllBytes(), StandardCharsets.UTF_8));
+        assertEquals("hello world", new String(second.readAllBytes(), StandardCharsets.UTF_8));
+        first.close();
+        second.close();
+        assertEquals(1, fetches.get());
+
+        // Cached under the ETag of the GET response, not the one asked for
+        assertNull(cache.open("a.txt", "stale"));
+        try (FileChannel channel = cache.open("a.txt", "fresh")) {
+            assertNotNull(channel);
+            assertEquals(11, channel.size());
+        }
+    }
+
+    @Test
+    void aFailedOpenIsReportedToTheCaller() {
+        assertThrows(Exception.class, () -> cache.openOrLoad("missing.txt", "etag", () -> {
+            throw new Exception("File not found: missing.txt");
+        }));
+        assertEquals(0, cache.stats().get("entries"));
+    }
+
+    @Test
+    void onlyFilesNamedLikeCacheCopiesAreRemovedAtStartup() throws Exception {
+        Path stale = Files.writeString(directory.resolve(UUID.randomUUID() + ".bin"), "stale");
+        Path foreign = Files.writeString(directory.resolve("notes.bin"), "keep");
+        Path other = Files.writeString(directory.resolve(UUID.randomUUID() + ".txt"), "keep");
+        Path nested = Files.createDirectory(directory.resolve(UUID.randomUUID() + ".bin"));
+
+        cache.init();
+
+        assertFalse(Files.exists(stale));
+        assertTrue(Files.exists(foreign));
+        assertTrue(Files.exists(other));
+        assertTrue(Files.exists(nested));
+    }
+
+    @Test
+    void aRangeOfACachedCopyIsTransferred() throws Exception {
+        byte[] content = "0123456789".repeat(10_000).getBytes(StandardCharsets.UTF_8);
+        try (InputStream in = cache.openOrLoad("a.txt", "etag",
+                () -> response("\"etag\"", new ByteArrayInputStream(content)))) {
+            in.readAllBytes();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cache.transfer(cache.open("a.txt", "etag"), 5, 70_000, out);
+
+        assertArrayEquals(Arrays.copyOfRange(content, 5, 70_005), out.toByteArray());
+    }
+
+    private static GetObjectResponse response(String etag, InputStream body) {
+        return new GetObjectResponse(Headers.of("ETag", etag), "bucket", "", "a.txt", body);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.minio.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GzipCompressingInputStreamTest {
+
+    @Test
+    void compressedBytesDecodeToTheInput() throws IOException {
+        byte[] content = text(300_000);
+
+        GzipCompressingInputStream compressing = compress(content);
+        byte[] compressed = compressing.readAllBytes();
+
+        assertArrayEquals(content, gunzip(compressed));
+        assertEquals(content.length, compressing.getBytesIn());
+        assertEquals(compressed.length, compressing.getBytesOut());
+    }
+
+    @Test
+    void sameContentCompressesToTheSameBytes() throws IOException {
+        byte[] content = text(10_000);
+
+        assertArrayEquals(compress(content).readAllBytes(), compress(content).readAllBytes());
+    }
+
+    @Test
+    void emptyAndIncompressibleInputsRoundTrip() throws IOException {
+        assertArrayEquals(new byte[0], gunzip(compress(new byte[0]).readAllBytes()));
+
+        byte[] random = new byte[200_000];
+        new Random(7).nextBytes(random);
+        assertArrayEquals(random, gunzip(compress(random).readAllBytes()));
+    }
+
+    @Test
+    void singleByteReadsProduceTheSameStream() throws IOException {
+        byte[] content = text(5_000);
+        byte[] expected = compress(content).readAllBytes();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GzipCompressingInputStream compressing = compress(content)) {
+            int b;
+            while ((b = compressing.read()) != -1) {
+                out.write(b);
+            }
+        }
+        assertArrayEquals(expected, out.toByteArray());
+    }
+
+    private static GzipCompressingInputStream compress(byte[] content) {
+        return new GzipCompressingInputStream(new ByteArrayInputStream(content), Deflater.DEFAULT_COMPRESSION);
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] text(int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; text.length() < length; i++) {
+            text.append("line ").append(i).append(": the quick brown fox\n");
+        }
+        return text.substring(0, length).getBytes();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.minio.service;
+
+import com.example.minio.InMemoryS3Server;
+import com.example.minio.config.MinioProperties;
+import io.minio.MinioClient;
+import io.minio.StatObjectArgs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParallelRangeDownloaderTest {
+
+    private static final String BUCKET = "documents";
+
+    private InMemoryS3Server s3;
+    private ParallelRangeDownloader downloader;
+    private byte[] content;
+    private String etag;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        s3 = InMemoryS3Server.start();
+        MinioClient minioClient = MinioClient.builder()
+                .endpoint("http://127.0.0.1:" + s3.port())
+                .credentials("minioadmin", "minioadmin")
+                .build();
+
+        MinioProperties minioProperties = new MinioProperties();
+        minioProperties.getDownload().setChunkSize(1000);
+        minioProperties.getDownload().setParallelism(3);
+        downloader = new ParallelRangeDownloader(minioClient, minioProperties);
+
+        content = new byte[10_500];
+        new Random(3).nextBytes(content);
+        s3.put(BUCKET, "a.bin", content, "application/octet-stream");
+        etag = minioClient.statObject(StatObjectArgs.builder().bucket(BUCKET).object("a.bin").build()).etag();
+    }
+
+    @AfterEach
+    void tearDown() {
+        downloader.shutdown();
+        s3.stop();
+    }
+
+    @Test
+    void chunksAreWrittenBackInOrder() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        downloader.copy(BUCKET, "a.bin", etag, 250, 9_000, out);
+
+        assertArrayEquals(Arrays.copyOfRange(content, 250, 9_250), out.toByteArray());
+    }
+
+    @Test
+    void aReplacedObjectAbortsTheDownload() {
+        s3.put(BUCKET, "a.bin", new byte[content.length], "application/octet-stream");
+
+        // Every chunk is pinned to the ETag the download started with
+        assertThrows(IOException.class,
+                () -> downloader.copy(BUCKET, "a.bin", etag, 0, content.length, new ByteArrayOutputStream()));
+    }
+}
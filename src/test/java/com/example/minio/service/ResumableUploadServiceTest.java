@@ -0,0 +1,100 @@
+package com.example.minio.service;
+
+import com.example.minio.config.MinioProperties;
+import com.example.minio.entity.UploadSession;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sessions smaller than one part never reach MinIO before they complete, so these
+ * run without a MinIO client
+ */
+class ResumableUploadServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private MinioProperties minioProperties;
+    private ResumableUploadService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        minioProperties = new MinioProperties();
+        minioProperties.getResumable().setDirectory(directory.toString());
+        minioProperties.getResumable().setMaxSessions(3);
+        minioProperties.getResumable().setMaxSessionsPerClient(2);
+        service = start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    void chunksAppendAtTheCurrentOffset() throws Exception {
+        UploadSession session = service.create("addr:1", "a.txt", "text/plain", 10);
+
+        assertEquals(4, service.append(session.getId(), 0, chunk("abcd")));
+        assertThrows(IllegalStateException.class, () -> service.append(session.getId(), 0, chunk("abcd")));
+        assertEquals(10, service.append(session.getId(), 4, chunk("efghij")));
+        assertThrows(IllegalArgumentException.class, () -> service.append(session.getId(), 10, chunk("k")));
+        assertEquals(10, service.get(session.getId()).getOffset());
+    }
+
+    @Test
+    void openSessionsAreCappedPerClientAndInTotal() throws Exception {
+        UploadSession first = service.create("addr:1", "a.txt", "text/plain", 10);
+        service.create("addr:1", "b.txt", "text/plain", 10);
+        assertThrows(IllegalStateException.class, () -> service.create("addr:1", "c.txt", "text/plain", 10));
+
+        service.create("addr:2", "c.txt", "text/plain", 10);
+        assertThrows(IllegalStateException.class, () -> service.create("addr:3", "d.txt", "text/plain", 10));
+
+        // A closed session frees its slot
+        service.abort(first.getId());
+        assertNull(service.get(first.getId()));
+        assertNotNull(service.create("addr:1", "e.txt", "text/plain", 10));
+    }
+
+    @Test
+    void offsetAndActivitySurviveARestart() throws Exception {
+        UploadSession session = service.create("addr:1", "a.txt", "text/plain", 10);
+        service.append(session.getId(), 0, chunk("abcd"));
+        long updatedAt = service.get(session.getId()).getUpdatedAt();
+        assertTrue(Files.readString(directory.resolve(session.getId()).resolve("session.json"))
+                .contains("\"updatedAt\":" + updatedAt));
+        service.stop();
+
+        service = start();
+        UploadSession recovered = service.get(session.getId());
+        assertEquals(4, recovered.getOffset());
+        assertEquals("addr:1", recovered.getClient());
+        assertTrue(recovered.getUpdatedAt() >= updatedAt);
+        assertEquals(10, service.append(session.getId(), 4, chunk("efghij")));
+    }
+
+    private ResumableUploadService start() throws Exception {
+        ResumableUploadService started = new ResumableUploadService(null, null, new MinioService(), null,
+                minioProperties, new ObjectMapper());
+        started.start();
+        return started;
+    }
+
+    private static ByteArrayInputStream chunk(String content) {
+        return new ByteArrayInputStream(content.getBytes());
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.minio.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SizeLimitedInputStreamTest {
+
+    @Test
+    void readsBodyUpToTheLimit() throws IOException {
+        byte[] data = new byte[1000];
+        SizeLimitedInputStream in = new SizeLimitedInputStream(new ByteArrayInputStream(data), 1000);
+
+        assertArrayEquals(data, in.readAllBytes());
+        assertFalse(in.isExceeded());
+    }
+
+    @Test
+    void failsTheReadThatGoesPastTheLimit() {
+        SizeLimitedInputStream in = new SizeLimitedInputStream(new ByteArrayInputStream(new byte[1001]), 1000);
+
+        assertThrows(IOException.class, () -> in.transferTo(OutputStream.nullOutputStream()));
+        assertTrue(in.isExceeded());
+    }
+
+    @Test
+    void countsSingleByteReads() throws IOException {
+        InputStream in = new SizeLimitedInputStream(new ByteArrayInputStream(new byte[3]), 2);
+
+        in.read();
+        in.read();
+        assertThrows(IOException.class, in::read);
+    }
+}